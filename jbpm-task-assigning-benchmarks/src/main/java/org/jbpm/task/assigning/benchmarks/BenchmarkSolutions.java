@@ -0,0 +1,188 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.TaskOrUser;
+import org.jbpm.task.assigning.model.User;
+import org.jbpm.task.assigning.model.solver.EligibilityIndex;
+import org.jbpm.task.assigning.model.solver.TaskAssigningIncrementalScoreCalculator;
+import org.jbpm.task.assigning.persistence.TaskAssigningGenerator;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.impl.score.director.InnerScoreDirector;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+import org.optaplanner.persistence.xstream.impl.domain.solution.XStreamSolutionFileIO;
+
+/**
+ * Helper methods for preparing the solutions and score directors used by the benchmarks.
+ */
+public class BenchmarkSolutions {
+
+    public static final String TASK_ASSIGNING_SCORE_DRL = "org/jbpm/task/assigning/solver/taskAssigningScoreRules.drl";
+
+    public static final String DRL = "DRL";
+    public static final String INCREMENTAL = "INCREMENTAL";
+
+    private static final String PREVIOUS_TASK_OR_USER = "previousTaskOrUser";
+    private static final String DATA_SETS_DIR = "/data/unsolved/";
+    private static final Pattern DATA_SET_NAME = Pattern.compile("(\\d+)tasks-(\\d+)users");
+
+    private BenchmarkSolutions() {
+    }
+
+    /**
+     * Reads one of the example data sets bundled in the jbpm-task-assigning-core test-jar, e.g. "24tasks-8users", or
+     * generates it with the TaskAssigningGenerator when no such data set exists, e.g. "10000tasks-100users".
+     * @param dataSet a data set name in the form [n]tasks-[m]users.
+     * @return the unsolved solution.
+     */
+    public static TaskAssigningSolution readOrGenerate(String dataSet) {
+        final String resource = DATA_SETS_DIR + dataSet + ".xml";
+        try (InputStream resourceAsStream = BenchmarkSolutions.class.getResourceAsStream(resource)) {
+            if (resourceAsStream != null) {
+                final File file = File.createTempFile(dataSet, ".xml");
+                file.deleteOnExit();
+                Files.copy(resourceAsStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                return new XStreamSolutionFileIO<TaskAssigningSolution>(TaskAssigningSolution.class).read(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("An error was produced while reading the data set: " + resource, e);
+        }
+        final Matcher matcher = DATA_SET_NAME.matcher(dataSet);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid data set name: " + dataSet + ", the expected format is [n]tasks-[m]users");
+        }
+        return TaskAssigningGenerator.createSolution(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+
+    /**
+     * Reads or generates the given data set and initializes it, see initialize(TaskAssigningSolution).
+     */
+    public static TaskAssigningSolution readOrGenerateInitialized(String dataSet) {
+        final TaskAssigningSolution solution = readOrGenerate(dataSet);
+        initialize(solution);
+        return solution;
+    }
+
+    /**
+     * Adds the PLANNING_USER, builds the EligibilityIndex and assigns every task to a user in a round robin fashion,
+     * the first potential owner found or the PLANNING_USER. All the shadow variables are calculated, so the solution
+     * can be used as the working solution of a ScoreDirector without running the construction heuristic, that for the
+     * biggest data sets would take longer than the benchmark itself.
+     * @param solution a solution to initialize.
+     */
+    public static void initialize(TaskAssigningSolution solution) {
+        final List<User> users = solution.getUserList();
+        if (!users.contains(User.PLANNING_USER)) {
+            users.add(User.PLANNING_USER);
+        }
+        solution.getEligibilityIndex().index(solution);
+        final Map<User, TaskOrUser> lastTaskOrUser = new HashMap<>();
+        users.forEach(user -> lastTaskOrUser.put(user, user));
+        int nextUser = 0;
+        for (Task task : solution.getTaskList()) {
+            User user = User.PLANNING_USER;
+            for (int i = 0; i < users.size(); i++) {
+                final User candidate = users.get((nextUser + i) % users.size());
+                if (candidate != User.PLANNING_USER && EligibilityIndex.isPotentialOwner(task, candidate)) {
+                    user = candidate;
+                    nextUser = (nextUser + i + 1) % users.size();
+                    break;
+                }
+            }
+            final TaskOrUser previousTaskOrUser = lastTaskOrUser.put(user, task);
+            previousTaskOrUser.setNextTask(task);
+            task.setPreviousTaskOrUser(previousTaskOrUser);
+            task.setUser(user);
+            task.setStartTime(previousTaskOrUser.getEndTime());
+            task.setEndTime(task.getStartTime() + task.getDuration());
+        }
+    }
+
+    /**
+     * Builds a ScoreDirector for the given solution.
+     * @param scoreCalculation the kind of score calculation to use, DRL or INCREMENTAL.
+     * @param solution the working solution to set, must be initialized.
+     * @return a ScoreDirector with the solution already set.
+     */
+    public static InnerScoreDirector<TaskAssigningSolution> buildScoreDirector(String scoreCalculation, TaskAssigningSolution solution) {
+        final ScoreDirectorFactoryConfig scoreDirectorFactoryConfig;
+        if (DRL.equals(scoreCalculation)) {
+            scoreDirectorFactoryConfig = new ScoreDirectorFactoryConfig().withScoreDrls(TASK_ASSIGNING_SCORE_DRL);
+        } else if (INCREMENTAL.equals(scoreCalculation)) {
+            scoreDirectorFactoryConfig = new ScoreDirectorFactoryConfig().withIncrementalScoreCalculatorClass(TaskAssigningIncrementalScoreCalculator.class);
+        } else {
+            throw new IllegalArgumentException("Unknown score calculation: " + scoreCalculation);
+        }
+        final SolverFactory<TaskAssigningSolution> solverFactory = SolverFactory.createEmpty();
+        final SolverConfig solverConfig = solverFactory.getSolverConfig();
+        solverConfig.setSolutionClass(TaskAssigningSolution.class);
+        solverConfig.setEntityClassList(Arrays.asList(TaskOrUser.class, Task.class));
+        solverConfig.setScoreDirectorFactoryConfig(scoreDirectorFactoryConfig);
+        final InnerScoreDirector<TaskAssigningSolution> scoreDirector =
+                (InnerScoreDirector<TaskAssigningSolution>) solverFactory.buildSolver().getScoreDirectorFactory().buildScoreDirector();
+        scoreDirector.setWorkingSolution(solution);
+        return scoreDirector;
+    }
+
+    /**
+     * Moves a task to the first position of the user chain, in the same way as a ChainedChangeMove does.
+     * @param scoreDirector the score director for the working solution.
+     * @param task the task to move.
+     * @param user the user that will own the task.
+     */
+    public static void moveToFirstPosition(ScoreDirector<TaskAssigningSolution> scoreDirector, Task task, User user) {
+        final Task firstTask = user.getNextTask();
+        if (firstTask == task) {
+            return;
+        }
+        final TaskOrUser previousTaskOrUser = task.getPreviousTaskOrUser();
+        final Task nextTask = task.getNextTask();
+        if (nextTask != null) {
+            //close the old chain.
+            scoreDirector.beforeVariableChanged(nextTask, PREVIOUS_TASK_OR_USER);
+            nextTask.setPreviousTaskOrUser(previousTaskOrUser);
+            scoreDirector.afterVariableChanged(nextTask, PREVIOUS_TASK_OR_USER);
+        }
+        scoreDirector.beforeVariableChanged(task, PREVIOUS_TASK_OR_USER);
+        task.setPreviousTaskOrUser(user);
+        scoreDirector.afterVariableChanged(task, PREVIOUS_TASK_OR_USER);
+        if (firstTask != null) {
+            //re-route the new chain.
+            scoreDirector.beforeVariableChanged(firstTask, PREVIOUS_TASK_OR_USER);
+            firstTask.setPreviousTaskOrUser(task);
+            scoreDirector.afterVariableChanged(firstTask, PREVIOUS_TASK_OR_USER);
+        }
+        scoreDirector.triggerVariableListeners();
+    }
+}
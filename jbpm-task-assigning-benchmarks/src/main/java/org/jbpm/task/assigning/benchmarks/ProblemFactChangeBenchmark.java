@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.User;
+import org.jbpm.task.assigning.model.solver.realtime.AddTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.AssignTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.RemoveTaskProblemFactChange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.optaplanner.core.api.score.Score;
+import org.optaplanner.core.impl.score.director.InnerScoreDirector;
+
+/**
+ * Measures the throughput of the ProblemFactChanges when applied on the working solution, including the score
+ * calculation that the solver executes after them. The solution is re-created for every iteration since the changes
+ * modify it, e.g. the assigned tasks gets pinned.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ProblemFactChangeBenchmark {
+
+    @Param({"500tasks-20users", "10000tasks-100users", "50000tasks-500users"})
+    private String dataSet;
+
+    private InnerScoreDirector<TaskAssigningSolution> scoreDirector;
+    private List<Task> tasks;
+    private List<User> users;
+    private Random random;
+    private long nextTaskId;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        TaskAssigningSolution solution = BenchmarkSolutions.readOrGenerateInitialized(dataSet);
+        scoreDirector = BenchmarkSolutions.buildScoreDirector(BenchmarkSolutions.INCREMENTAL, solution);
+        tasks = solution.getTaskList();
+        users = solution.getUserList();
+        random = new Random(37);
+        nextTaskId = tasks.stream().mapToLong(Task::getId).max().orElse(0) + 1;
+    }
+
+    @Benchmark
+    public Score assignTask() {
+        Task task = tasks.get(random.nextInt(tasks.size()));
+        User user = users.get(random.nextInt(users.size()));
+        new AssignTaskProblemFactChange(task, user).doChange(scoreDirector);
+        return scoreDirector.calculateScore();
+    }
+
+    /**
+     * Adds a new task and removes a random one, so that the solution size is kept between invocations.
+     */
+    @Benchmark
+    public Score addAndRemoveTask() {
+        Task templateTask = tasks.get(random.nextInt(tasks.size()));
+        Task newTask = new Task(nextTaskId++, "NewTask", templateTask.getPriority());
+        newTask.setPotentialOwners(templateTask.getPotentialOwners());
+        new AddTaskProblemFactChange(newTask).doChange(scoreDirector);
+        scoreDirector.calculateScore();
+        new RemoveTaskProblemFactChange(tasks.get(random.nextInt(tasks.size()))).doChange(scoreDirector);
+        return scoreDirector.calculateScore();
+    }
+}
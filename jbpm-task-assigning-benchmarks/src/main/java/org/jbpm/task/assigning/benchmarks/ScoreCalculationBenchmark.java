@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.optaplanner.core.api.score.Score;
+import org.optaplanner.core.impl.score.director.InnerScoreDirector;
+
+/**
+ * Measures the score calculation speed, this is, the number of moves per second that can be evaluated. Every
+ * invocation moves a random task to the first position of a random user and calculates the score, which is the same
+ * work that the solver does when evaluating a ChainedChangeMove.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ScoreCalculationBenchmark {
+
+    @Param({"24tasks-8users", "50tasks-5users", "100tasks-5users", "500tasks-20users", "10000tasks-100users", "50000tasks-500users"})
+    private String dataSet;
+
+    @Param({BenchmarkSolutions.DRL, BenchmarkSolutions.INCREMENTAL})
+    private String scoreCalculation;
+
+    private InnerScoreDirector<TaskAssigningSolution> scoreDirector;
+    private List<Task> tasks;
+    private List<User> users;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TaskAssigningSolution solution = BenchmarkSolutions.readOrGenerateInitialized(dataSet);
+        scoreDirector = BenchmarkSolutions.buildScoreDirector(scoreCalculation, solution);
+        tasks = solution.getTaskList();
+        users = solution.getUserList();
+        random = new Random(37);
+    }
+
+    @Benchmark
+    public Score moveAndCalculateScore() {
+        Task task = tasks.get(random.nextInt(tasks.size()));
+        User user = users.get(random.nextInt(users.size()));
+        BenchmarkSolutions.moveToFirstPosition(scoreDirector, task, user);
+        return scoreDirector.calculateScore();
+    }
+}
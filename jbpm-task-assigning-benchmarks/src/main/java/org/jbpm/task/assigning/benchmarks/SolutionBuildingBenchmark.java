@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.User;
+import org.jbpm.task.assigning.process.runtime.integration.client.PlanningParameters;
+import org.jbpm.task.assigning.process.runtime.integration.client.PotentialOwner;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus;
+import org.jbpm.task.assigning.runtime.service.PublishedTaskCache;
+import org.jbpm.task.assigning.runtime.service.SolutionBuilder;
+import org.jbpm.task.assigning.runtime.service.SolutionChangesBuilder;
+import org.jbpm.task.assigning.user.system.integration.Group;
+import org.jbpm.task.assigning.user.system.integration.impl.GroupImpl;
+import org.jbpm.task.assigning.user.system.integration.impl.UserImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+
+/**
+ * Measures the latency of the SolutionBuilder and the SolutionChangesBuilder for a full synchronization of the tasks
+ * returned by the process runtime. The planned tasks, 2 of every 3, are returned as Reserved and the rest as Ready.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SolutionBuildingBenchmark {
+
+    private static final String CONTAINER_ID = "benchmark-container";
+
+    @Param({"500tasks-20users", "10000tasks-100users", "50000tasks-500users"})
+    private String dataSet;
+
+    private List<TaskInfo> taskInfos;
+    private List<org.jbpm.task.assigning.user.system.integration.User> externalUsers;
+    private TaskAssigningSolution solution;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TaskAssigningSolution initializedSolution = BenchmarkSolutions.readOrGenerateInitialized(dataSet);
+        taskInfos = new ArrayList<>();
+        for (Task task : initializedSolution.getTaskList()) {
+            taskInfos.add(toTaskInfo(task));
+        }
+        externalUsers = new ArrayList<>();
+        for (User user : initializedSolution.getUserList()) {
+            if (user != User.PLANNING_USER) {
+                externalUsers.add(toExternalUser(user));
+            }
+        }
+        solution = buildSolution();
+    }
+
+    @Benchmark
+    public TaskAssigningSolution buildSolution() {
+        return new SolutionBuilder()
+                .withTasks(taskInfos)
+                .withUsers(externalUsers)
+                .withCache(new PublishedTaskCache())
+                .build();
+    }
+
+    @Benchmark
+    public List<ProblemFactChange<TaskAssigningSolution>> buildSolutionChanges() {
+        return new SolutionChangesBuilder()
+                .withSolution(solution)
+                .withTasks(taskInfos)
+                .withCache(new PublishedTaskCache())
+                .build();
+    }
+
+    private static TaskInfo toTaskInfo(Task task) {
+        TaskInfo taskInfo = new TaskInfo();
+        taskInfo.setTaskId(task.getId());
+        taskInfo.setName(task.getName());
+        taskInfo.setPriority(task.getPriority());
+        taskInfo.setContainerId(CONTAINER_ID);
+        Set<PotentialOwner> potentialOwners = new HashSet<>();
+        task.getPotentialOwners().forEach(potentialOwner -> potentialOwners.add(new PotentialOwner(potentialOwner.isUser(), potentialOwner.getEntityId())));
+        taskInfo.setPotentialOwners(potentialOwners);
+        if (task.getId() % 3 != 0 && task.getUser() != User.PLANNING_USER) {
+            taskInfo.setStatus(TaskStatus.Reserved);
+            taskInfo.setActualOwner(task.getUser().getEntityId());
+            taskInfo.setPlanningParameters(new PlanningParameters(task.getUser().getEntityId(), -1, false, false));
+        } else {
+            taskInfo.setStatus(TaskStatus.Ready);
+        }
+        return taskInfo;
+    }
+
+    private static org.jbpm.task.assigning.user.system.integration.User toExternalUser(User user) {
+        Set<Group> groups = new HashSet<>();
+        user.getGroups().forEach(group -> groups.add(new GroupImpl(group.getEntityId())));
+        return new UserImpl(user.getEntityId(), groups);
+    }
+}
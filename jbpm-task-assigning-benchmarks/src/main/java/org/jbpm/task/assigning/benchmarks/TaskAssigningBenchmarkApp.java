@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.benchmarks;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jbpm.task.assigning.persistence.TaskAssigningGenerator;
+import org.jbpm.task.assigning.persistence.TaskAssigningGenerator.DataSetParameters;
+import org.optaplanner.benchmark.api.PlannerBenchmarkFactory;
+
+/**
+ * Compares the different solver configurations with the OptaPlanner Benchmarker and produces the HTML report in the
+ * local/benchmarkReport directory. The data sets are generated in the local/data/unsolved directory the first time.
+ * <p>
+ * Usage: TaskAssigningBenchmarkApp [benchmarkConfigResource]
+ */
+public class TaskAssigningBenchmarkApp {
+
+    public static final String DEFAULT_BENCHMARK_CONFIG = "org/jbpm/task/assigning/benchmarks/taskAssigningBenchmarkConfig.xml";
+
+    private static final File DATA_DIR = new File("local/data/unsolved");
+
+    /**
+     * The data sets used by the benchmark config, a few groups concentrate most of the users and tasks, a 20% of the
+     * tasks are pinned and a 10% are published.
+     */
+    static final List<DataSetParameters> DATA_SETS = Arrays.asList(
+            new DataSetParameters(10000, 100)
+                    .withGroups(50, 4, 3, true)
+                    .withSkills(20, 4, 3)
+                    .withPinnedAndPublished(0.2, 0.1)
+                    .withPlanningUser(),
+            new DataSetParameters(50000, 1000)
+                    .withGroups(200, 5, 3, true)
+                    .withSkills(50, 5, 3)
+                    .withPinnedAndPublished(0.2, 0.1)
+                    .withPlanningUser(),
+            new DataSetParameters(200000, 5000)
+                    .withGroups(500, 6, 3, true)
+                    .withSkills(100, 6, 3)
+                    .withPinnedAndPublished(0.2, 0.1)
+                    .withPlanningUser());
+
+    public static void main(String[] args) {
+        String benchmarkConfig = args.length > 0 ? args[0] : DEFAULT_BENCHMARK_CONFIG;
+        generateDataSets();
+        PlannerBenchmarkFactory.createFromXmlResource(benchmarkConfig)
+                .buildPlannerBenchmark()
+                .benchmark();
+    }
+
+    private static void generateDataSets() {
+        if (!DATA_DIR.exists() && !DATA_DIR.mkdirs()) {
+            throw new IllegalStateException("Data sets directory: " + DATA_DIR.getAbsolutePath() + " couldn't be created.");
+        }
+        for (DataSetParameters parameters : DATA_SETS) {
+            if (!new File(DATA_DIR, parameters.getName() + ".xml").exists()) {
+                TaskAssigningGenerator.writeSolution(DATA_DIR, parameters);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.benchmarks;
+
+import java.io.File;
+
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.optaplanner.persistence.xstream.impl.domain.solution.XStreamSolutionFileIO;
+
+/**
+ * XStream based SolutionFileIO that builds the EligibilityIndex of the read solutions, as the runtime does when the
+ * solution is created.
+ */
+public class TaskAssigningSolutionFileIO extends XStreamSolutionFileIO<TaskAssigningSolution> {
+
+    public TaskAssigningSolutionFileIO() {
+        super(TaskAssigningSolution.class);
+    }
+
+    @Override
+    public TaskAssigningSolution read(File inputSolutionFile) {
+        final TaskAssigningSolution solution = super.read(inputSolutionFile);
+        solution.getEligibilityIndex().index(solution);
+        return solution;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.optaplanner.core.api.score.Score;
+import org.optaplanner.core.impl.score.director.InnerScoreDirector;
+
+/**
+ * Measures the cost of moving the first task of a chain with chainSize tasks to an empty user and back, including the
+ * score calculation. In both cases the StartAndEndTimeUpdatingVariableListener recalculates the startTime and endTime
+ * of all the remaining tasks in the chain, and both score calculations re-score every one of these tasks, so the cost
+ * grows with chainSize.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class VariableListenerBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int chainSize;
+
+    @Param({BenchmarkSolutions.DRL, BenchmarkSolutions.INCREMENTAL})
+    private String scoreCalculation;
+
+    private InnerScoreDirector<TaskAssigningSolution> scoreDirector;
+    private User user1;
+    private User user2;
+    private Task firstTask;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        user1 = new User(1, "user1");
+        user2 = new User(2, "user2");
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < chainSize; i++) {
+            Task task = new Task(i, "Task_" + i, 0);
+            task.getPotentialOwners().add(user1);
+            task.getPotentialOwners().add(user2);
+            tasks.add(task);
+        }
+        TaskAssigningSolution solution = new TaskAssigningSolution(-1, new ArrayList<>(Arrays.asList(user1, user2)), tasks);
+        BenchmarkSolutions.initialize(solution);
+        scoreDirector = BenchmarkSolutions.buildScoreDirector(scoreCalculation, solution);
+        // the round robin initialization distributes the tasks, move them all to user1.
+        for (int i = chainSize - 1; i >= 0; i--) {
+            BenchmarkSolutions.moveToFirstPosition(scoreDirector, tasks.get(i), user1);
+        }
+        firstTask = tasks.get(0);
+    }
+
+    @Benchmark
+    public Score moveFirstTaskAndBack() {
+        BenchmarkSolutions.moveToFirstPosition(scoreDirector, firstTask, user2);
+        scoreDirector.calculateScore();
+        BenchmarkSolutions.moveToFirstPosition(scoreDirector, firstTask, user1);
+        return scoreDirector.calculateScore();
+    }
+}
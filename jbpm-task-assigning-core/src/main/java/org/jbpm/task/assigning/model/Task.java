@@ -16,15 +16,19 @@
 
 package org.jbpm.task.assigning.model;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
+import com.thoughtworks.xstream.annotations.XStreamOmitField;
+import org.jbpm.task.assigning.model.solver.EligibilityIndex;
 import org.jbpm.task.assigning.model.solver.StartAndEndTimeUpdatingVariableListener;
 import org.jbpm.task.assigning.model.solver.TaskDifficultyComparator;
-import org.jbpm.task.assigning.model.solver.TaskHelper;
 import org.optaplanner.core.api.domain.entity.PlanningEntity;
 import org.optaplanner.core.api.domain.entity.PlanningPin;
 import org.optaplanner.core.api.domain.variable.AnchorShadowVariable;
@@ -94,6 +98,12 @@ import org.optaplanner.core.api.domain.variable.PlanningVariableReference;
 @XStreamAlias("TaTask")
 public class Task extends TaskOrUser {
 
+    /**
+     * Max absolute value of the dueTime. Half of the int range, so that the SLA breach, endTime - dueTime, can't
+     * overflow either.
+     */
+    public static final int MAX_DUE_TIME = Integer.MAX_VALUE / 2;
+
     private long processInstanceId;
     private String processId;
     private String containerId;
@@ -105,9 +115,38 @@ public class Task extends TaskOrUser {
     private boolean pinned;
     private boolean published;
 
+    /**
+     * entityId of the last user that released this task, if any. Used as a hint for preferring a different user in
+     * the next assignment.
+     */
+    private String releasedUser;
+
     private Set<OrganizationalEntity> potentialOwners = new HashSet<>();
     private Set<TypedLabel> typedLabels = new HashSet<>();
 
+    /**
+     * Interned ids of the potential owners, see EligibilityIndex. Null if the task wasn't indexed.
+     */
+    @JsonIgnore
+    @XStreamOmitField
+    private BitSet potentialOwnersBitSet;
+
+    /**
+     * Words of the BitSet with the interned ids of the skills required by the task, see EligibilityIndex. Null if the
+     * task wasn't indexed.
+     */
+    @JsonIgnore
+    @XStreamOmitField
+    private long[] skillsBitSet;
+
+    /**
+     * Words of the BitSet with the interned ids of the affinities desired by the task, see EligibilityIndex. Null if
+     * the task wasn't indexed.
+     */
+    @JsonIgnore
+    @XStreamOmitField
+    private long[] affinitiesBitSet;
+
     /**
      * Planning variable: changes during planning, between score calculations.
      */
@@ -135,10 +174,21 @@ public class Task extends TaskOrUser {
     private Integer startTime; // In minutes
 
     /**
-     * Assume a duration of 1 minute for all tasks
+     * Estimated duration of the task in minutes, a duration of 1 minute is assumed when no estimation is available.
      */
     private int duration = 1;
 
+    /**
+     * Due date of the task, null if the task has no due date.
+     */
+    private LocalDateTime dueDate;
+
+    /**
+     * Due date of the task expressed in minutes relative to the reference time of the solution, can be negative for an
+     * overdue task. null if the task has no due date. See calculateDueTime.
+     */
+    private Integer dueTime;
+
     /**
      * This declaration basically indicates that the endTime is actually calculated as part of the startTime shadow
      * variable calculation.
@@ -236,6 +286,14 @@ public class Task extends TaskOrUser {
         this.published = published;
     }
 
+    public String getReleasedUser() {
+        return releasedUser;
+    }
+
+    public void setReleasedUser(String releasedUser) {
+        this.releasedUser = releasedUser;
+    }
+
     /**
      * @return the set of OrganizationalEntities that are enabled for executing this task.
      */
@@ -258,6 +316,30 @@ public class Task extends TaskOrUser {
         this.typedLabels = typedLabels;
     }
 
+    public BitSet getPotentialOwnersBitSet() {
+        return potentialOwnersBitSet;
+    }
+
+    public void setPotentialOwnersBitSet(BitSet potentialOwnersBitSet) {
+        this.potentialOwnersBitSet = potentialOwnersBitSet;
+    }
+
+    public long[] getSkillsBitSet() {
+        return skillsBitSet;
+    }
+
+    public void setSkillsBitSet(long[] skillsBitSet) {
+        this.skillsBitSet = skillsBitSet;
+    }
+
+    public long[] getAffinitiesBitSet() {
+        return affinitiesBitSet;
+    }
+
+    public void setAffinitiesBitSet(long[] affinitiesBitSet) {
+        this.affinitiesBitSet = affinitiesBitSet;
+    }
+
     public TaskOrUser getPreviousTaskOrUser() {
         return previousTaskOrUser;
     }
@@ -300,6 +382,22 @@ public class Task extends TaskOrUser {
         this.duration = duration;
     }
 
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDateTime dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public Integer getDueTime() {
+        return dueTime;
+    }
+
+    public void setDueTime(Integer dueTime) {
+        this.dueTime = dueTime;
+    }
+
     @Override
     public String toString() {
         return "Task{" +
@@ -313,6 +411,8 @@ public class Task extends TaskOrUser {
                 ", user=" + user +
                 ", startTime=" + startTime +
                 ", endTime=" + endTime +
+                ", dueDate=" + dueDate +
+                ", dueTime=" + dueTime +
                 '}';
     }
 
@@ -331,6 +431,42 @@ public class Task extends TaskOrUser {
             return 0;
         }
         //the user is a potential owner.
-        return TaskHelper.isPotentialOwner(this, getUser()) ? 0 : -1;
+        return EligibilityIndex.isPotentialOwner(this, getUser()) ? 0 : -1;
+    }
+
+    /**
+     * @return the number of skills required by the task that the assigned user doesn't have, 0 for the PLANNING_USER.
+     */
+    public int getMissingSkills() {
+        return EligibilityIndex.countMissingSkills(this, getUser());
+    }
+
+    /**
+     * @return the number of affinities desired by the task that the assigned user doesn't have.
+     */
+    public int getMissingAffinities() {
+        return EligibilityIndex.countMissingAffinities(this, getUser());
+    }
+
+    /**
+     * @return true if the task is assigned to the user that has released it, false in any other case.
+     */
+    public boolean isAssignedToReleasedUser() {
+        return releasedUser != null && getUser() != null && releasedUser.equals(getUser().getEntityId());
+    }
+
+    /**
+     * Calculates the dueTime of a task, i.e. the minutes from the reference time of the solution to the due date. The
+     * result is bounded by +/- MAX_DUE_TIME so that very distant due dates don't overflow the time calculations.
+     * @param referenceTime the reference time of the solution. Can be null.
+     * @param dueDate the due date of the task. Can be null.
+     * @return the dueTime, or null if any of the parameters is null.
+     */
+    public static Integer calculateDueTime(LocalDateTime referenceTime, LocalDateTime dueDate) {
+        if (referenceTime == null || dueDate == null) {
+            return null;
+        }
+        final long minutes = ChronoUnit.MINUTES.between(referenceTime, dueDate);
+        return (int) Math.max(-MAX_DUE_TIME, Math.min(MAX_DUE_TIME, minutes));
     }
 }
@@ -16,11 +16,15 @@
 
 package org.jbpm.task.assigning.model;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import com.thoughtworks.xstream.annotations.XStreamConverter;
+import com.thoughtworks.xstream.annotations.XStreamOmitField;
+import org.jbpm.task.assigning.model.solver.EligibilityIndex;
 import org.optaplanner.core.api.domain.solution.PlanningEntityCollectionProperty;
 import org.optaplanner.core.api.domain.solution.PlanningScore;
 import org.optaplanner.core.api.domain.solution.PlanningSolution;
@@ -42,10 +46,25 @@ public class TaskAssigningSolution extends AbstractPersistable {
     @ValueRangeProvider(id = "taskRange")
     private List<Task> taskList;
 
+    /**
+     * Moment the startTime and endTime of the tasks are relative to, and the one the dueTime of the tasks is
+     * calculated from. It's set when the solution is built and refreshed by the UpdateReferenceTimeProblemFactChange.
+     */
+    private LocalDateTime referenceTime;
+
     @XStreamConverter(BendableScoreXStreamConverter.class)
-    @PlanningScore(bendableHardLevelsSize = 1, bendableSoftLevelsSize = 5)
+    @PlanningScore(bendableHardLevelsSize = 2, bendableSoftLevelsSize = 7)
     private BendableScore score;
 
+    /**
+     * Index for the users and tasks of this solution. It's shared by the solution clones since it only holds the
+     * interned ids, and it's lazily created for the solutions that weren't created by the constructor, e.g. the ones
+     * read by XStream.
+     */
+    @JsonIgnore
+    @XStreamOmitField
+    private EligibilityIndex eligibilityIndex = new EligibilityIndex();
+
     public TaskAssigningSolution() {
     }
 
@@ -71,6 +90,15 @@ public class TaskAssigningSolution extends AbstractPersistable {
         this.taskList = taskList;
     }
 
+    @JsonIgnore
+    public LocalDateTime getReferenceTime() {
+        return referenceTime;
+    }
+
+    public void setReferenceTime(LocalDateTime referenceTime) {
+        this.referenceTime = referenceTime;
+    }
+
     public BendableScore getScore() {
         return score;
     }
@@ -78,4 +106,16 @@ public class TaskAssigningSolution extends AbstractPersistable {
     public void setScore(BendableScore score) {
         this.score = score;
     }
+
+    @JsonIgnore
+    public EligibilityIndex getEligibilityIndex() {
+        if (eligibilityIndex == null) {
+            eligibilityIndex = new EligibilityIndex();
+        }
+        return eligibilityIndex;
+    }
+
+    public void setEligibilityIndex(EligibilityIndex eligibilityIndex) {
+        this.eligibilityIndex = eligibilityIndex;
+    }
 }
@@ -38,7 +38,7 @@ public class TypedLabel {
     }
 
     public static TypedLabel newAffinity(String value) {
-        return new TypedLabel(Type.SKILL, value);
+        return new TypedLabel(Type.AFFINITY, value);
     }
 
     public String getValue() {
@@ -70,4 +70,12 @@ public class TypedLabel {
     public int hashCode() {
         return Objects.hash(type, value);
     }
+
+    @Override
+    public String toString() {
+        return "TypedLabel{" +
+                "type=" + type +
+                ", value='" + value + '\'' +
+                '}';
+    }
 }
@@ -16,10 +16,13 @@
 
 package org.jbpm.task.assigning.model;
 
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
+import com.thoughtworks.xstream.annotations.XStreamOmitField;
 
 @XStreamAlias("TaUser")
 public class User extends TaskOrUser implements OrganizationalEntity {
@@ -41,6 +44,29 @@ public class User extends TaskOrUser implements OrganizationalEntity {
     private Set<Group> groups = new HashSet<>();
     private Set<TypedLabel> typedLabels = new HashSet<>();
 
+    /**
+     * Interned ids of the user and its groups, see EligibilityIndex. Null if the user wasn't indexed.
+     */
+    @JsonIgnore
+    @XStreamOmitField
+    private BitSet userAndGroupsBitSet;
+
+    /**
+     * Words of the BitSet with the interned ids of the user skills, see EligibilityIndex. Null if the user wasn't
+     * indexed.
+     */
+    @JsonIgnore
+    @XStreamOmitField
+    private long[] skillsBitSet;
+
+    /**
+     * Words of the BitSet with the interned ids of the user affinities, see EligibilityIndex. Null if the user wasn't
+     * indexed.
+     */
+    @JsonIgnore
+    @XStreamOmitField
+    private long[] affinitiesBitSet;
+
     public User() {
     }
 
@@ -74,6 +100,30 @@ public class User extends TaskOrUser implements OrganizationalEntity {
         this.typedLabels = typedLabels;
     }
 
+    public BitSet getUserAndGroupsBitSet() {
+        return userAndGroupsBitSet;
+    }
+
+    public void setUserAndGroupsBitSet(BitSet userAndGroupsBitSet) {
+        this.userAndGroupsBitSet = userAndGroupsBitSet;
+    }
+
+    public long[] getSkillsBitSet() {
+        return skillsBitSet;
+    }
+
+    public void setSkillsBitSet(long[] skillsBitSet) {
+        this.skillsBitSet = skillsBitSet;
+    }
+
+    public long[] getAffinitiesBitSet() {
+        return affinitiesBitSet;
+    }
+
+    public void setAffinitiesBitSet(long[] affinitiesBitSet) {
+        this.affinitiesBitSet = affinitiesBitSet;
+    }
+
     @Override
     public User getUser() {
         return this;
@@ -126,6 +176,21 @@ public class User extends TaskOrUser implements OrganizationalEntity {
             throwImmutableException();
         }
 
+        @Override
+        public void setUserAndGroupsBitSet(BitSet userAndGroupsBitSet) {
+            throwImmutableException();
+        }
+
+        @Override
+        public void setSkillsBitSet(long[] skillsBitSet) {
+            throwImmutableException();
+        }
+
+        @Override
+        public void setAffinitiesBitSet(long[] affinitiesBitSet) {
+            throwImmutableException();
+        }
+
         @Override
         public void setId(Long id) {
             throwImmutableException();
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.model.solver;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jbpm.task.assigning.model.Group;
+import org.jbpm.task.assigning.model.OrganizationalEntity;
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.TypedLabel;
+import org.jbpm.task.assigning.model.User;
+
+/**
+ * Precomputed index for resolving if a user is a potential owner of a task without iterating the task potential owners
+ * nor the user groups.
+ * <p>
+ * Every user and group entityId is interned into a unique int id. Each task keeps a BitSet with the ids of its
+ * potential owners and each user keeps a BitSet with its own id plus the ids of its groups, in this way the user is a
+ * potential owner of the task if both BitSets intersects.
+ * <p>
+ * In the same way, the skills and affinities labels are interned into unique int ids, one space for each type of
+ * label. The tasks and users keep the words of the BitSets with the ids of its skills and affinities, so that counting
+ * the labels of a task that are not present in a user costs a few word operations.
+ * <p>
+ * Each solution owns its index, see TaskAssigningSolution.getEligibilityIndex(), since the BitSets are only comparable
+ * between tasks and users indexed by the same instance. The index is built when the solution is created, see
+ * index(TaskAssigningSolution), and is kept updated for the tasks and users that are added later, e.g. by a
+ * ProblemFactChange. Tasks or users that weren't indexed are indexed on demand by canBeAssigned(Task, User), and in
+ * the meantime the static queries resolve them by the TaskHelper methods.
+ */
+public class EligibilityIndex {
+
+    private final Map<String, Integer> userIds = new ConcurrentHashMap<>();
+    private final Map<String, Integer> groupIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final Map<String, Integer> skillIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSkillId = new AtomicInteger();
+    private final Map<String, Integer> affinityIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextAffinityId = new AtomicInteger();
+
+    public EligibilityIndex() {
+    }
+
+    /**
+     * Indexes all the users and tasks of the given solution.
+     * @param solution a solution to index.
+     */
+    public void index(TaskAssigningSolution solution) {
+        if (solution.getUserList() != null) {
+            solution.getUserList().forEach(this::index);
+        }
+        if (solution.getTaskList() != null) {
+            solution.getTaskList().forEach(this::index);
+        }
+    }
+
+    public void index(Task task) {
+        final BitSet potentialOwners = new BitSet();
+        if (task.getPotentialOwners() != null) {
+            for (OrganizationalEntity potentialOwner : task.getPotentialOwners()) {
+                if (potentialOwner.getEntityId() != null) {
+                    potentialOwners.set(internId(potentialOwner));
+                }
+            }
+        }
+        task.setPotentialOwnersBitSet(potentialOwners);
+        task.setSkillsBitSet(labelsBitSet(task.getTypedLabels(), true));
+        task.setAffinitiesBitSet(labelsBitSet(task.getTypedLabels(), false));
+    }
+
+    public void index(User user) {
+        if (User.PLANNING_USER.getEntityId().equals(user.getEntityId())) {
+            //planning user belongs to all the groups by definition, and is never indexed.
+            return;
+        }
+        final BitSet userAndGroups = new BitSet();
+        if (user.getEntityId() != null) {
+            userAndGroups.set(internId(user));
+        }
+        if (user.getGroups() != null) {
+            for (Group group : user.getGroups()) {
+                if (group.getEntityId() != null) {
+                    userAndGroups.set(internId(group));
+                }
+            }
+        }
+        user.setUserAndGroupsBitSet(userAndGroups);
+        user.setSkillsBitSet(labelsBitSet(user.getTypedLabels(), true));
+        user.setAffinitiesBitSet(labelsBitSet(user.getTypedLabels(), false));
+    }
+
+    /**
+     * @return true if the user is a potential owner for the given task, false in any other case. When both the task
+     * and the user are indexed the calculation is O(1) and allocation free.
+     */
+    public static boolean isPotentialOwner(Task task, User user) {
+        final BitSet potentialOwners = task.getPotentialOwnersBitSet();
+        final BitSet userAndGroups = user.getUserAndGroupsBitSet();
+        if (potentialOwners != null && userAndGroups != null) {
+            return potentialOwners.intersects(userAndGroups);
+        }
+        return TaskHelper.isPotentialOwner(task, user);
+    }
+
+    /**
+     * @return true if the task can be assigned to the given user, i.e. the user is the PLANNING_USER or a potential owner
+     * of the task that has all the required skills. A null user, e.g. a chain that is not yet anchored, is accepted as
+     * well. The task and the user are indexed if they weren't, so that next queries don't fall back to the TaskHelper
+     * methods.
+     */
+    public boolean canBeAssigned(Task task, User user) {
+        if (user == null || User.PLANNING_USER.getEntityId().equals(user.getEntityId())) {
+            return true;
+        }
+        if (task.getPotentialOwnersBitSet() == null) {
+            index(task);
+        }
+        if (user.getUserAndGroupsBitSet() == null) {
+            index(user);
+        }
+        return isPotentialOwner(task, user) && countMissingSkills(task, user) == 0;
+    }
+
+    /**
+     * @return the number of skills required by the task that the user doesn't have. The PLANNING_USER has all the
+     * skills by definition.
+     */
+    public static int countMissingSkills(Task task, User user) {
+        if (user == null || User.PLANNING_USER.getEntityId().equals(user.getEntityId())) {
+            return 0;
+        }
+        if (task.getSkillsBitSet() != null && user.getSkillsBitSet() != null) {
+            return countMissing(task.getSkillsBitSet(), user.getSkillsBitSet());
+        }
+        return TaskHelper.countMissingLabels(task.getTypedLabels(), user.getTypedLabels(), true);
+    }
+
+    /**
+     * @return the number of affinities desired by the task that the user doesn't have.
+     */
+    public static int countMissingAffinities(Task task, User user) {
+        if (user == null) {
+            return 0;
+        }
+        if (task.getAffinitiesBitSet() != null && user.getAffinitiesBitSet() != null) {
+            return countMissing(task.getAffinitiesBitSet(), user.getAffinitiesBitSet());
+        }
+        return TaskHelper.countMissingLabels(task.getTypedLabels(), user.getTypedLabels(), false);
+    }
+
+    /**
+     * @return the number of bits set in required that are not set in available.
+     */
+    private static int countMissing(long[] required, long[] available) {
+        int missing = 0;
+        for (int i = 0; i < required.length; i++) {
+            missing += Long.bitCount(i < available.length ? required[i] & ~available[i] : required[i]);
+        }
+        return missing;
+    }
+
+    private long[] labelsBitSet(Set<TypedLabel> labels, boolean skills) {
+        final BitSet result = new BitSet();
+        if (labels != null) {
+            for (TypedLabel label : labels) {
+                if (label.getValue() != null && label.isSkill() == skills) {
+                    result.set(internLabelId(label));
+                }
+            }
+        }
+        return result.toLongArray();
+    }
+
+    int internLabelId(TypedLabel label) {
+        if (label.isSkill()) {
+            return skillIds.computeIfAbsent(label.getValue(), key -> nextSkillId.getAndIncrement());
+        }
+        return affinityIds.computeIfAbsent(label.getValue(), key -> nextAffinityId.getAndIncrement());
+    }
+
+    int internId(OrganizationalEntity entity) {
+        final Map<String, Integer> ids = entity.isUser() ? userIds : groupIds;
+        return ids.computeIfAbsent(entity.getEntityId(), key -> nextId.getAndIncrement());
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.model.solver;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.User;
+import org.optaplanner.core.api.score.Score;
+import org.optaplanner.core.api.score.buildin.bendable.BendableScore;
+import org.optaplanner.core.impl.score.director.incremental.IncrementalScoreCalculator;
+
+import static org.jbpm.task.assigning.model.solver.PriorityHelper.calculateWeightedPenalty;
+import static org.jbpm.task.assigning.model.solver.PriorityHelper.isHighLevel;
+import static org.jbpm.task.assigning.model.solver.PriorityHelper.isLowLevel;
+import static org.jbpm.task.assigning.model.solver.PriorityHelper.isMediumLevel;
+
+/**
+ * Incremental Java implementation of the constraints defined in taskAssigningScoreRules.drl. Both score calculations
+ * must produce exactly the same scores.
+ * <p>
+ * Every constraint only depends on the state of a single task: the assigned user, the skills and affinities, the
+ * priority, the dueTime, the endTime and whether it's the last task in the chain. So the score is maintained by
+ * retracting the contribution of a task before any of its variables (genuine or shadow) is changed, and inserting it
+ * again after the change. Since the StartAndEndTimeUpdatingVariableListener recalculates the endTime of every task
+ * queued after a moved task, the cost of a move still grows with the length of the chain.
+ * <p>
+ * The taskAssigningSolverConfigPerformance.xml solver configuration shows how to configure it in the
+ * scoreDirectorFactory by using the incrementalScoreCalculatorClass element.
+ */
+public class TaskAssigningIncrementalScoreCalculator implements IncrementalScoreCalculator<TaskAssigningSolution> {
+
+    static final int HARD_LEVELS_SIZE = 2;
+    static final int SOFT_LEVELS_SIZE = 7;
+
+    static final int REQUIRED_POTENTIAL_OWNER_LEVEL = 0;
+    static final int REQUIRED_SKILLS_LEVEL = 1;
+    static final int PLANNING_USER_ASSIGNMENT_LEVEL = 0;
+    static final int RELEASED_USER_ASSIGNMENT_LEVEL = 0;
+    static final int SLA_BREACH_LEVEL = 1;
+    static final int HIGH_LEVEL_PRIORITY_LEVEL = 2;
+    static final int DESIRED_AFFINITIES_LEVEL = 3;
+    static final int MINIMIZE_MAKESPAN_LEVEL = 4;
+    static final int MEDIUM_LEVEL_PRIORITY_LEVEL = 5;
+    static final int LOW_LEVEL_PRIORITY_LEVEL = 6;
+
+    private int[] hardScores;
+    private int[] softScores;
+
+    @Override
+    public void resetWorkingSolution(TaskAssigningSolution solution) {
+        hardScores = new int[HARD_LEVELS_SIZE];
+        softScores = new int[SOFT_LEVELS_SIZE];
+        for (Task task : solution.getTaskList()) {
+            insert(task);
+        }
+    }
+
+    @Override
+    public void beforeEntityAdded(Object entity) {
+        // nothing to do, the entity is inserted when completely added.
+    }
+
+    @Override
+    public void afterEntityAdded(Object entity) {
+        insert(entity);
+    }
+
+    @Override
+    public void beforeVariableChanged(Object entity, String variableName) {
+        retract(entity);
+    }
+
+    @Override
+    public void afterVariableChanged(Object entity, String variableName) {
+        insert(entity);
+    }
+
+    @Override
+    public void beforeEntityRemoved(Object entity) {
+        retract(entity);
+    }
+
+    @Override
+    public void afterEntityRemoved(Object entity) {
+        // nothing to do, the entity was already retracted.
+    }
+
+    @Override
+    public Score calculateScore() {
+        return BendableScore.of(hardScores.clone(), softScores.clone());
+    }
+
+    private void insert(Object entity) {
+        if (entity instanceof Task) {
+            apply((Task) entity, 1);
+        }
+    }
+
+    private void retract(Object entity) {
+        if (entity instanceof Task) {
+            apply((Task) entity, -1);
+        }
+    }
+
+    private void apply(Task task, int sign) {
+        final User user = task.getUser();
+        if (user == null) {
+            return;
+        }
+        // Required Potential Owner
+        hardScores[REQUIRED_POTENTIAL_OWNER_LEVEL] += sign * task.acceptsAssignedUser();
+
+        // Required Skills
+        hardScores[REQUIRED_SKILLS_LEVEL] -= sign * task.getMissingSkills();
+
+        // PlanningUser assignment
+        if (User.PLANNING_USER.getEntityId().equals(user.getEntityId())) {
+            softScores[PLANNING_USER_ASSIGNMENT_LEVEL] -= sign;
+        }
+
+        // Released user assignment
+        if (task.isAssignedToReleasedUser()) {
+            softScores[RELEASED_USER_ASSIGNMENT_LEVEL] -= sign;
+        }
+
+        // Desired Affinities
+        softScores[DESIRED_AFFINITIES_LEVEL] -= sign * task.getMissingAffinities();
+
+        // SLA breach
+        if (task.getDueTime() != null && task.getEndTime() != null && task.getEndTime() > task.getDueTime()) {
+            softScores[SLA_BREACH_LEVEL] -= sign * (task.getEndTime() - task.getDueTime());
+        }
+
+        final int endTime = task.getEndTime() != null ? task.getEndTime() : 0;
+        final int priority = task.getPriority();
+        if (isHighLevel(priority)) {
+            softScores[HIGH_LEVEL_PRIORITY_LEVEL] += sign * calculateWeightedPenalty(priority, endTime);
+        } else if (isMediumLevel(priority)) {
+            softScores[MEDIUM_LEVEL_PRIORITY_LEVEL] += sign * calculateWeightedPenalty(priority, endTime);
+        } else if (isLowLevel(priority)) {
+            softScores[LOW_LEVEL_PRIORITY_LEVEL] += sign * calculateWeightedPenalty(priority, endTime);
+        }
+
+        // Minimize makespan
+        if (task.getNextTask() == null) {
+            softScores[MINIMIZE_MAKESPAN_LEVEL] -= sign * endTime * endTime;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.model.solver;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.TaskOrUser;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionFilter;
+import org.optaplanner.core.impl.heuristic.selector.move.generic.chained.ChainedChangeMove;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+/**
+ * Discards the change moves that would place a task in the chain of a user that is not a potential owner of the task,
+ * since they can only break the "Required Potential Owner" hard constraint. Moves to the PLANNING_USER chain are
+ * always accepted.
+ */
+public class TaskChangeMoveFilter implements SelectionFilter<TaskAssigningSolution, ChainedChangeMove<TaskAssigningSolution>> {
+
+    @Override
+    public boolean accept(ScoreDirector<TaskAssigningSolution> scoreDirector, ChainedChangeMove<TaskAssigningSolution> move) {
+        final Task task = (Task) move.getEntity();
+        final TaskOrUser toPlanningValue = (TaskOrUser) move.getToPlanningValue();
+        return toPlanningValue == null || scoreDirector.getWorkingSolution().getEligibilityIndex().canBeAssigned(task, toPlanningValue.getUser());
+    }
+}
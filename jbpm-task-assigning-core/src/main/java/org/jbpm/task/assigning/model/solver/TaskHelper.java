@@ -20,11 +20,12 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+import org.jbpm.task.assigning.model.Group;
 import org.jbpm.task.assigning.model.OrganizationalEntity;
 import org.jbpm.task.assigning.model.Task;
 import org.jbpm.task.assigning.model.TaskOrUser;
+import org.jbpm.task.assigning.model.TypedLabel;
 import org.jbpm.task.assigning.model.User;
 
 public class TaskHelper {
@@ -34,21 +35,40 @@ public class TaskHelper {
      * assigned to the given task, false in any other case.
      */
     public static boolean isPotentialOwner(Task task, User user) {
-        //user appears directly in the list of potential owners.
-        final boolean directlyAssigned = task.getPotentialOwners().stream()
-                .filter(OrganizationalEntity::isUser)
-                .anyMatch(entity -> Objects.equals(entity.getEntityId(), user.getEntityId()));
-        if (directlyAssigned) {
-            return true;
+        for (OrganizationalEntity potentialOwner : task.getPotentialOwners()) {
+            if (potentialOwner.isUser()) {
+                //user appears directly in the list of potential owners.
+                if (Objects.equals(potentialOwner.getEntityId(), user.getEntityId())) {
+                    return true;
+                }
+            } else {
+                //the user has at least one of the enabled groups for executing the task.
+                for (Group group : user.getGroups()) {
+                    if (Objects.equals(potentialOwner.getEntityId(), group.getEntityId())) {
+                        return true;
+                    }
+                }
+            }
         }
+        return false;
+    }
 
-        //the user has at least one of the enabled groups for executing the task.
-        final Set<String> acceptedGroupIds = task.getPotentialOwners().stream()
-                .filter(entity -> !entity.isUser())
-                .map(OrganizationalEntity::getEntityId).collect(Collectors.toSet());
-        final boolean indirectlyAssigned = user.getGroups().stream()
-                .anyMatch(group -> acceptedGroupIds.contains(group.getEntityId()));
-        return indirectlyAssigned;
+    /**
+     * @param skills true for counting the skills, false for counting the affinities.
+     * @return the number of labels of the given type in the requiredLabels that are not present in the
+     * availableLabels.
+     */
+    public static int countMissingLabels(Set<TypedLabel> requiredLabels, Set<TypedLabel> availableLabels, boolean skills) {
+        if (requiredLabels == null) {
+            return 0;
+        }
+        int missing = 0;
+        for (TypedLabel label : requiredLabels) {
+            if (label.isSkill() == skills && (availableLabels == null || !availableLabels.contains(label))) {
+                missing++;
+            }
+        }
+        return missing;
     }
 
     public static List<Task> extractTaskList(TaskOrUser taskOrUser) {
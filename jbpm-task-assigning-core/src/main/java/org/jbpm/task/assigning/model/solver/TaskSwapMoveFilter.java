@@ -0,0 +1,42 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.model.solver;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionFilter;
+import org.optaplanner.core.impl.heuristic.selector.move.generic.chained.ChainedSwapMove;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+/**
+ * Discards the swap moves in which any of the two tasks would end in the chain of a user that is not a potential owner
+ * of it. Swaps between tasks of the same user are always accepted since the assigned users don't change.
+ */
+public class TaskSwapMoveFilter implements SelectionFilter<TaskAssigningSolution, ChainedSwapMove<TaskAssigningSolution>> {
+
+    @Override
+    public boolean accept(ScoreDirector<TaskAssigningSolution> scoreDirector, ChainedSwapMove<TaskAssigningSolution> move) {
+        final Task leftTask = (Task) move.getLeftEntity();
+        final Task rightTask = (Task) move.getRightEntity();
+        if (leftTask.getUser() == rightTask.getUser()) {
+            return true;
+        }
+        final EligibilityIndex eligibilityIndex = scoreDirector.getWorkingSolution().getEligibilityIndex();
+        return eligibilityIndex.canBeAssigned(leftTask, rightTask.getUser()) &&
+                eligibilityIndex.canBeAssigned(rightTask, leftTask.getUser());
+    }
+}
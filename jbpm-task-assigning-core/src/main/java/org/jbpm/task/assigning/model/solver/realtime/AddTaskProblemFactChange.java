@@ -22,8 +22,11 @@ import org.jbpm.task.assigning.model.TaskAssigningSolution;
 import org.optaplanner.core.impl.score.director.ScoreDirector;
 import org.optaplanner.core.impl.solver.ProblemFactChange;
 
+import static org.jbpm.task.assigning.model.Task.calculateDueTime;
+
 /**
  * Adds a Task to the working solution. If a task with the given identifier already exists an exception is thrown.
+ * The dueTime of the task is calculated from its due date and the reference time of the working solution.
  */
 public class AddTaskProblemFactChange implements ProblemFactChange<TaskAssigningSolution> {
 
@@ -44,6 +47,10 @@ public class AddTaskProblemFactChange implements ProblemFactChange<TaskAssigning
         if (workingTask != null) {
             throw new TaskAssigningRuntimeException(String.format("A task with the given identifier id: %s already exists", task.getId()));
         }
+        solution.getEligibilityIndex().index(task);
+        if (task.getDueDate() != null) {
+            task.setDueTime(calculateDueTime(solution.getReferenceTime(), task.getDueDate()));
+        }
         scoreDirector.beforeEntityAdded(task);
         // Planning entity lists are already cloned by the SolutionCloner, no need to clone.
         solution.getTaskList().add(task);
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.model.solver.realtime;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jbpm.task.assigning.TaskAssigningRuntimeException;
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+
+import static org.jbpm.task.assigning.model.Task.calculateDueTime;
+
+/**
+ * Batch version of the AddTaskProblemFactChange. Adds a list of Tasks to the working solution and triggers the variable
+ * listeners only once. If a task with any of the given identifiers already exists, or the same identifier is repeated,
+ * an exception is thrown.
+ */
+public class AddTasksProblemFactChange implements ProblemFactChange<TaskAssigningSolution> {
+
+    private List<Task> tasks;
+
+    public AddTasksProblemFactChange(List<Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    @Override
+    public void doChange(ScoreDirector<TaskAssigningSolution> scoreDirector) {
+        TaskAssigningSolution solution = scoreDirector.getWorkingSolution();
+        Set<Long> taskIds = new HashSet<>(tasks.size());
+        for (Task task : tasks) {
+            if (!taskIds.add(task.getId()) || scoreDirector.lookUpWorkingObjectOrReturnNull(task) != null) {
+                throw new TaskAssigningRuntimeException(String.format("A task with the given identifier id: %s already exists", task.getId()));
+            }
+        }
+        for (Task task : tasks) {
+            solution.getEligibilityIndex().index(task);
+            if (task.getDueDate() != null) {
+                task.setDueTime(calculateDueTime(solution.getReferenceTime(), task.getDueDate()));
+            }
+            scoreDirector.beforeEntityAdded(task);
+        }
+        // Planning entity lists are already cloned by the SolutionCloner, no need to clone.
+        solution.getTaskList().addAll(tasks);
+        for (Task task : tasks) {
+            scoreDirector.afterEntityAdded(task);
+        }
+        scoreDirector.triggerVariableListeners();
+    }
+}
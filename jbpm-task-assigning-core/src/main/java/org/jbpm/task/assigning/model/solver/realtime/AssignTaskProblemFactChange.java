@@ -24,6 +24,8 @@ import org.jbpm.task.assigning.model.User;
 import org.optaplanner.core.impl.score.director.ScoreDirector;
 import org.optaplanner.core.impl.solver.ProblemFactChange;
 
+import static org.jbpm.task.assigning.model.Task.calculateDueTime;
+
 /**
  * Implements the "direct" assignment of an existing Task to a User.
  * This PFC can be useful in scenarios were e.g. a system administrator manually assigns a Task to a given user from the
@@ -79,6 +81,10 @@ public class AssignTaskProblemFactChange implements ProblemFactChange<TaskAssign
             task.setNextTask(null);
             task.setStartTime(null);
             task.setEndTime(null);
+            if (task.getDueDate() != null) {
+                task.setDueTime(calculateDueTime(solution.getReferenceTime(), task.getDueDate()));
+            }
+            solution.getEligibilityIndex().index(task);
             workingTask = task;
             isNew = true;
         }
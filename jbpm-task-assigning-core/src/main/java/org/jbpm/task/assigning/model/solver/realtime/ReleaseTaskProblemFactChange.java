@@ -16,10 +16,20 @@
 
 package org.jbpm.task.assigning.model.solver.realtime;
 
+import org.jbpm.task.assigning.model.Task;
 import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.TaskOrUser;
 import org.optaplanner.core.impl.score.director.ScoreDirector;
 import org.optaplanner.core.impl.solver.ProblemFactChange;
 
+/**
+ * Releases a Task from the user it was assigned to, e.g. because it was released from the jBPM tasks list
+ * administration and it's Ready again. The task is un-linked from its chain, un-pinned, and left uninitialized so that
+ * it's assigned again by the solver. The released user is kept as a hint for preferring a different user in the next
+ * assignment, see the "Released user assignment" constraint.
+ * <p>
+ * If the task is not found in the working solution it does no action.
+ */
 public class ReleaseTaskProblemFactChange implements ProblemFactChange<TaskAssigningSolution> {
 
     private long id;
@@ -28,9 +38,37 @@ public class ReleaseTaskProblemFactChange implements ProblemFactChange<TaskAssig
         this.id = id;
     }
 
+    public long getTaskId() {
+        return id;
+    }
+
     @Override
     public void doChange(ScoreDirector<TaskAssigningSolution> scoreDirector) {
-        //TODO implement here.
-        throw new RuntimeException("fact change not implemented");
+        Task workingTask = scoreDirector.lookUpWorkingObjectOrReturnNull(new Task(id, null, 0));
+        if (workingTask == null) {
+            return;
+        }
+        if (workingTask.isPinned() || workingTask.getUser() != null) {
+            scoreDirector.beforeProblemPropertyChanged(workingTask);
+            workingTask.setPinned(false);
+            if (workingTask.getUser() != null) {
+                workingTask.setReleasedUser(workingTask.getUser().getEntityId());
+            }
+            scoreDirector.afterProblemPropertyChanged(workingTask);
+        }
+        TaskOrUser previousTaskOrUser = workingTask.getPreviousTaskOrUser();
+        if (previousTaskOrUser != null) {
+            Task nextTask = workingTask.getNextTask();
+            if (nextTask != null) {
+                //re-link the chain where the workingTask belonged.
+                scoreDirector.beforeVariableChanged(nextTask, "previousTaskOrUser");
+                nextTask.setPreviousTaskOrUser(previousTaskOrUser);
+                scoreDirector.afterVariableChanged(nextTask, "previousTaskOrUser");
+            }
+            scoreDirector.beforeVariableChanged(workingTask, "previousTaskOrUser");
+            workingTask.setPreviousTaskOrUser(null);
+            scoreDirector.afterVariableChanged(workingTask, "previousTaskOrUser");
+        }
+        scoreDirector.triggerVariableListeners();
     }
 }
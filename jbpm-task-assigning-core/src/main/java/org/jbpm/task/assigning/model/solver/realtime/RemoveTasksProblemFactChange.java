@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.model.solver.realtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.TaskOrUser;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+
+/**
+ * Batch version of the RemoveTaskProblemFactChange. Removes a list of Tasks from the working solution with a single
+ * pass over the task list, and triggers the variable listeners only once. Tasks that doesn't exist are ignored.
+ * <p>
+ * Since the nextTask shadow variable is only updated when the variable listeners are triggered, the re-linking of the
+ * chains is calculated before any change is produced. Every remaining task that follows a removed task is linked to its
+ * closest previous task, or user, that is not removed.
+ * <p>
+ * The removed tasks are looked up by identity in a hash set of the working tasks, which are resolved by id, and the
+ * task list is compacted in a single removeIf pass. Removing k tasks from a list of n tasks costs O(n + k), instead of
+ * the O(n * k) of removing them one by one. Note that removing a single entry from an ArrayList already shifts the
+ * following entries, so an index from the task id to its position wouldn't reduce the cost below one pass.
+ */
+public class RemoveTasksProblemFactChange implements ProblemFactChange<TaskAssigningSolution> {
+
+    private List<Task> tasks;
+
+    public RemoveTasksProblemFactChange(List<Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    @Override
+    public void doChange(ScoreDirector<TaskAssigningSolution> scoreDirector) {
+        TaskAssigningSolution solution = scoreDirector.getWorkingSolution();
+        Set<Task> workingTasks = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Task task : tasks) {
+            Task workingTask = scoreDirector.lookUpWorkingObjectOrReturnNull(task);
+            if (workingTask != null) {
+                workingTasks.add(workingTask);
+            }
+        }
+        if (workingTasks.isEmpty()) {
+            return;
+        }
+
+        Map<Task, TaskOrUser> newPreviousTaskOrUser = new IdentityHashMap<>();
+        for (Task workingTask : workingTasks) {
+            Task nextTask = workingTask.getNextTask();
+            if (nextTask != null && !workingTasks.contains(nextTask)) {
+                TaskOrUser previousTaskOrUser = workingTask.getPreviousTaskOrUser();
+                while (previousTaskOrUser instanceof Task && workingTasks.contains(previousTaskOrUser)) {
+                    previousTaskOrUser = ((Task) previousTaskOrUser).getPreviousTaskOrUser();
+                }
+                newPreviousTaskOrUser.put(nextTask, previousTaskOrUser);
+            }
+        }
+        for (Map.Entry<Task, TaskOrUser> entry : newPreviousTaskOrUser.entrySet()) {
+            scoreDirector.beforeVariableChanged(entry.getKey(), "previousTaskOrUser");
+            entry.getKey().setPreviousTaskOrUser(entry.getValue());
+            scoreDirector.afterVariableChanged(entry.getKey(), "previousTaskOrUser");
+        }
+
+        List<Task> removedTasks = new ArrayList<>(workingTasks);
+        removedTasks.forEach(scoreDirector::beforeEntityRemoved);
+        // Planning entity lists are already cloned by the SolutionCloner, no need to clone.
+        // Single compacting pass with a constant time membership check per task.
+        solution.getTaskList().removeIf(workingTasks::contains);
+        removedTasks.forEach(scoreDirector::afterEntityRemoved);
+        scoreDirector.triggerVariableListeners();
+    }
+}
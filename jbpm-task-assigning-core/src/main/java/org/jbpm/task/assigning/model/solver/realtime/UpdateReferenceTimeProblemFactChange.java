@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.model.solver.realtime;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+
+import static org.jbpm.task.assigning.model.Task.calculateDueTime;
+
+/**
+ * Moves the reference time of the working solution, e.g. to the current time on every synchronization, and
+ * recalculates the dueTime of the tasks that have a due date, so that all the tasks compare their endTime against due
+ * times calculated from the same moment.
+ * <p>
+ * Only the tasks whose dueTime changes are notified to the score director.
+ */
+public class UpdateReferenceTimeProblemFactChange implements ProblemFactChange<TaskAssigningSolution> {
+
+    private LocalDateTime referenceTime;
+
+    public UpdateReferenceTimeProblemFactChange(LocalDateTime referenceTime) {
+        this.referenceTime = referenceTime;
+    }
+
+    public LocalDateTime getReferenceTime() {
+        return referenceTime;
+    }
+
+    @Override
+    public void doChange(ScoreDirector<TaskAssigningSolution> scoreDirector) {
+        TaskAssigningSolution solution = scoreDirector.getWorkingSolution();
+        if (Objects.equals(referenceTime, solution.getReferenceTime())) {
+            return;
+        }
+        solution.setReferenceTime(referenceTime);
+        Integer dueTime;
+        for (Task task : solution.getTaskList()) {
+            if (task.getDueDate() != null) {
+                dueTime = calculateDueTime(referenceTime, task.getDueDate());
+                if (!Objects.equals(dueTime, task.getDueTime())) {
+                    scoreDirector.beforeProblemPropertyChanged(task);
+                    task.setDueTime(dueTime);
+                    scoreDirector.afterProblemPropertyChanged(task);
+                }
+            }
+        }
+        scoreDirector.triggerVariableListeners();
+    }
+}
@@ -42,6 +42,10 @@ public class BaseTaskAssigningTest {
     public static final String _100TASKS_5USERS_SOLUTION = "/data/unsolved/100tasks-5users.xml";
     public static final String _500TASKS_20USERS_SOLUTION = "/data/unsolved/500tasks-20users.xml";
 
+    public static final String TASK_ASSIGNING_SCORE_DRL = "org/jbpm/task/assigning/solver/taskAssigningScoreRules.drl";
+    public static final String TASK_ASSIGNING_SOLVER_CONFIG = "taskAssigningSolverConfig.xml";
+    public static final String TASK_ASSIGNING_SOLVER_CONFIG_PERFORMANCE = "taskAssigningSolverConfigPerformance.xml";
+
     protected boolean writeTestFiles() {
         return Boolean.parseBoolean(System.getProperty("org.jbpm.task.assigning.test.writeFiles", "false"));
     }
@@ -51,7 +55,7 @@ public class BaseTaskAssigningTest {
         SolverConfig config = solverFactory.getSolverConfig();
         config.setSolutionClass(TaskAssigningSolution.class);
         config.setEntityClassList(Arrays.asList(TaskOrUser.class, Task.class));
-        config.setScoreDirectorFactoryConfig(new ScoreDirectorFactoryConfig().withScoreDrls("org/jbpm/task/assigning/solver/taskAssigningScoreRules.drl"));
+        config.setScoreDirectorFactoryConfig(new ScoreDirectorFactoryConfig().withScoreDrls(TASK_ASSIGNING_SCORE_DRL));
         return solverFactory;
     }
 
@@ -67,6 +71,10 @@ public class BaseTaskAssigningTest {
         return solverFactory.buildSolver();
     }
 
+    /**
+     * Reads a solution from the given resource and builds its EligibilityIndex, as the runtime does when the solution
+     * is created.
+     */
     protected TaskAssigningSolution readTaskAssigningSolution(String resource) throws IOException {
         int index = resource.lastIndexOf("/");
         String prefix = resource;
@@ -77,7 +85,9 @@ public class BaseTaskAssigningTest {
         InputStream resourceAsStream = getClass().getResourceAsStream(resource);
         FileUtils.copyInputStreamToFile(resourceAsStream, f);
         XStreamSolutionFileIO<TaskAssigningSolution> solutionFileIO = new XStreamSolutionFileIO<>(TaskAssigningSolution.class);
-        return solutionFileIO.read(f);
+        TaskAssigningSolution solution = solutionFileIO.read(f);
+        solution.getEligibilityIndex().index(solution);
+        return solution;
     }
 
     private static void appendln(StringBuilder builder) {
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.model.solver;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.jbpm.task.assigning.BaseTaskAssigningTest;
+import org.jbpm.task.assigning.model.Group;
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.TypedLabel;
+import org.jbpm.task.assigning.model.User;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EligibilityIndexTest extends BaseTaskAssigningTest {
+
+    private EligibilityIndex eligibilityIndex = new EligibilityIndex();
+
+    @Test
+    public void isPotentialOwnerDirectAssignmentTest() {
+        User user1 = new User(1, "user1");
+        User user2 = new User(2, "user2");
+        Task task = new Task(1, "Task1", 1);
+        task.getPotentialOwners().add(user1);
+        index(task, user1, user2);
+        assertTrue(EligibilityIndex.isPotentialOwner(task, user1));
+        assertFalse(EligibilityIndex.isPotentialOwner(task, user2));
+    }
+
+    @Test
+    public void isPotentialOwnerInDirectAssignmentTest() {
+        Group group1 = new Group(1, "group1");
+        User user1 = new User(1, "user1");
+        user1.getGroups().add(group1);
+        User user2 = new User(2, "user2");
+        user2.getGroups().add(new Group(2, "group2"));
+        Task task = new Task(1, "Task1", 1);
+        task.getPotentialOwners().add(group1);
+        index(task, user1, user2);
+        assertTrue(EligibilityIndex.isPotentialOwner(task, user1));
+        assertFalse(EligibilityIndex.isPotentialOwner(task, user2));
+    }
+
+    @Test
+    public void isPotentialOwnerUserAndGroupWithSameIdTest() {
+        User user1 = new User(1, "sameId");
+        Task task = new Task(1, "Task1", 1);
+        task.getPotentialOwners().add(new Group(1, "sameId"));
+        index(task, user1);
+        assertFalse(EligibilityIndex.isPotentialOwner(task, user1));
+    }
+
+    @Test
+    public void planningUserIsNotIndexedTest() {
+        eligibilityIndex.index(User.PLANNING_USER);
+        assertNull(User.PLANNING_USER.getUserAndGroupsBitSet());
+    }
+
+    @Test
+    public void canBeAssignedIndexesOnDemandTest() {
+        User user1 = new User(1, "user1");
+        User user2 = new User(2, "user2");
+        Task task = new Task(1, "Task1", 1);
+        task.getPotentialOwners().add(user1);
+        assertTrue(eligibilityIndex.canBeAssigned(task, user1));
+        assertNotNull(task.getPotentialOwnersBitSet());
+        assertNotNull(user1.getUserAndGroupsBitSet());
+        assertFalse(eligibilityIndex.canBeAssigned(task, user2));
+        assertNotNull(user2.getUserAndGroupsBitSet());
+    }
+
+    @Test
+    public void indexesAreIndependentTest() {
+        User user1 = new User(1, "user1");
+        eligibilityIndex.index(user1);
+        User user2 = new User(2, "user2");
+        eligibilityIndex.index(user2);
+        assertEquals(1, user2.getUserAndGroupsBitSet().nextSetBit(0));
+
+        // the ids interned by other indexes don't leak into a new one.
+        new EligibilityIndex().index(user2);
+        assertEquals(0, user2.getUserAndGroupsBitSet().nextSetBit(0));
+    }
+
+    @Test
+    public void countMissingSkillsTest() {
+        User user1 = new User(1, "user1");
+        user1.getTypedLabels().addAll(Arrays.asList(TypedLabel.newSkill("skill1"), TypedLabel.newSkill("skill2"),
+                                                    TypedLabel.newAffinity("skill3")));
+        User user2 = new User(2, "user2");
+        Task task = new Task(1, "Task1", 1);
+        task.getPotentialOwners().add(user1);
+        task.getPotentialOwners().add(user2);
+        task.getTypedLabels().addAll(Arrays.asList(TypedLabel.newSkill("skill1"), TypedLabel.newSkill("skill3")));
+        assertMissingLabels(task, user1, 1, 0);
+        assertMissingLabels(task, user2, 2, 0);
+        assertEquals(0, EligibilityIndex.countMissingSkills(task, User.PLANNING_USER));
+
+        index(task, user1, user2);
+        assertMissingLabels(task, user1, 1, 0);
+        assertMissingLabels(task, user2, 2, 0);
+        assertEquals(0, EligibilityIndex.countMissingSkills(task, User.PLANNING_USER));
+        assertFalse(eligibilityIndex.canBeAssigned(task, user1));
+        assertTrue(eligibilityIndex.canBeAssigned(task, User.PLANNING_USER));
+
+        user1.getTypedLabels().add(TypedLabel.newSkill("skill3"));
+        eligibilityIndex.index(user1);
+        assertMissingLabels(task, user1, 0, 0);
+        assertTrue(eligibilityIndex.canBeAssigned(task, user1));
+    }
+
+    @Test
+    public void countMissingAffinitiesTest() {
+        User user1 = new User(1, "user1");
+        user1.getTypedLabels().addAll(Arrays.asList(TypedLabel.newAffinity("affinity1"), TypedLabel.newSkill("affinity2")));
+        Task task = new Task(1, "Task1", 1);
+        task.getPotentialOwners().add(user1);
+        task.getTypedLabels().addAll(Arrays.asList(TypedLabel.newAffinity("affinity1"), TypedLabel.newAffinity("affinity2")));
+        assertMissingLabels(task, user1, 0, 1);
+        index(task, user1);
+        assertMissingLabels(task, user1, 0, 1);
+        // affinities are only a preference.
+        assertTrue(eligibilityIndex.canBeAssigned(task, user1));
+        assertEquals(2, EligibilityIndex.countMissingAffinities(task, User.PLANNING_USER));
+    }
+
+    @Test
+    public void countMissingSkillsManyLabelsTest() {
+        User user1 = new User(1, "user1");
+        Task task = new Task(1, "Task1", 1);
+        for (int i = 0; i < 200; i++) {
+            task.getTypedLabels().add(TypedLabel.newSkill("manySkill" + i));
+            if (i % 3 == 0) {
+                user1.getTypedLabels().add(TypedLabel.newSkill("manySkill" + i));
+            }
+        }
+        int expected = TaskHelper.countMissingLabels(task.getTypedLabels(), user1.getTypedLabels(), true);
+        index(task, user1);
+        assertEquals(expected, EligibilityIndex.countMissingSkills(task, user1));
+    }
+
+    @Test
+    public void isPotentialOwner24TasksTest() throws IOException {
+        assertSameAsTaskHelper(_24TASKS_8USERS_SOLUTION);
+    }
+
+    @Test
+    public void isPotentialOwner500TasksTest() throws IOException {
+        assertSameAsTaskHelper(_500TASKS_20USERS_SOLUTION);
+    }
+
+    private void assertSameAsTaskHelper(String resource) throws IOException {
+        TaskAssigningSolution solution = readTaskAssigningSolution(resource);
+        for (Task task : solution.getTaskList()) {
+            assertNotNull(task.getPotentialOwnersBitSet());
+            for (User user : solution.getUserList()) {
+                assertEquals(TaskHelper.isPotentialOwner(task, user), EligibilityIndex.isPotentialOwner(task, user));
+            }
+        }
+    }
+
+    private static void assertMissingLabels(Task task, User user, int missingSkills, int missingAffinities) {
+        assertEquals(missingSkills, EligibilityIndex.countMissingSkills(task, user));
+        assertEquals(missingAffinities, EligibilityIndex.countMissingAffinities(task, user));
+    }
+
+    private void index(Task task, User... users) {
+        eligibilityIndex.index(task);
+        for (User user : users) {
+            eligibilityIndex.index(user);
+            assertNotNull(user.getUserAndGroupsBitSet());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.model.solver;
+
+import java.util.function.Consumer;
+
+import org.jbpm.task.assigning.BaseTaskAssigningTest;
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.User;
+import org.junit.Test;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.config.solver.EnvironmentMode;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+import static org.junit.Assert.assertEquals;
+
+public class TaskAssigningIncrementalScoreCalculatorTest extends BaseTaskAssigningTest {
+
+    private static final long MILLISECONDS_TIME_SPENT_LIMIT = 3000;
+
+    @Test
+    public void calculateScore24Tasks8UsersTest() throws Exception {
+        assertSameScoreAsDrl(_24TASKS_8USERS_SOLUTION);
+    }
+
+    @Test
+    public void calculateScore50Tasks5UsersTest() throws Exception {
+        assertSameScoreAsDrl(_50TASKS_5USERS_SOLUTION);
+    }
+
+    @Test
+    public void calculateScore100Tasks5UsersTest() throws Exception {
+        assertSameScoreAsDrl(_100TASKS_5USERS_SOLUTION);
+    }
+
+    @Test
+    public void calculateScore500Tasks20UsersTest() throws Exception {
+        assertSameScoreAsDrl(_500TASKS_20USERS_SOLUTION);
+    }
+
+    @Test
+    public void calculateScoreWithReleasedUsers24Tasks8UsersTest() throws Exception {
+        assertSameScoreAsDrl(_24TASKS_8USERS_SOLUTION, solution -> {
+            for (int i = 0; i < solution.getTaskList().size(); i += 3) {
+                User user = solution.getUserList().get(i % solution.getUserList().size());
+                solution.getTaskList().get(i).setReleasedUser(user.getEntityId());
+            }
+        });
+    }
+
+    @Test
+    public void solveWithFullAssert24Tasks8UsersTest() throws Exception {
+        solveWithFullAssert(_24TASKS_8USERS_SOLUTION);
+    }
+
+    @Test
+    public void solveWithFullAssert50Tasks5UsersTest() throws Exception {
+        solveWithFullAssert(_50TASKS_5USERS_SOLUTION);
+    }
+
+    /**
+     * Solves the solution with the DRL score calculation and asserts that the incremental score calculation produces
+     * the same score for the resulting solution.
+     */
+    private void assertSameScoreAsDrl(String solutionResource) throws Exception {
+        assertSameScoreAsDrl(solutionResource, solution -> {
+        });
+    }
+
+    private void assertSameScoreAsDrl(String solutionResource, Consumer<TaskAssigningSolution> solutionPreparer) throws Exception {
+        Solver<TaskAssigningSolution> solver = createNonDaemonSolver(MILLISECONDS_TIME_SPENT_LIMIT);
+        TaskAssigningSolution solution = readTaskAssigningSolution(solutionResource);
+        solution.getUserList().add(User.PLANNING_USER);
+        solutionPreparer.accept(solution);
+        TaskAssigningSolution result = solver.solve(solution);
+
+        TaskAssigningIncrementalScoreCalculator scoreCalculator = new TaskAssigningIncrementalScoreCalculator();
+        scoreCalculator.resetWorkingSolution(result);
+        assertEquals(result.getScore(), scoreCalculator.calculateScore());
+    }
+
+    /**
+     * Solves the solution with the incremental score calculation in FULL_ASSERT mode and the DRL score calculation
+     * as the assertion score director. The solver fails if any of the incrementally calculated scores differs from
+     * the score calculated by the DRL. The startTime and endTime of the best solution must be up to date as well.
+     */
+    private void solveWithFullAssert(String solutionResource) throws Exception {
+        SolverFactory<TaskAssigningSolution> solverFactory = createSolverFactory();
+        SolverConfig config = solverFactory.getSolverConfig();
+        config.setEnvironmentMode(EnvironmentMode.FULL_ASSERT);
+        ScoreDirectorFactoryConfig scoreDirectorFactoryConfig = new ScoreDirectorFactoryConfig()
+                .withIncrementalScoreCalculatorClass(TaskAssigningIncrementalScoreCalculator.class);
+        scoreDirectorFactoryConfig.setAssertionScoreDirectorFactory(new ScoreDirectorFactoryConfig().withScoreDrls(TASK_ASSIGNING_SCORE_DRL));
+        config.setScoreDirectorFactoryConfig(scoreDirectorFactoryConfig);
+        config.setTerminationConfig(new TerminationConfig().withMillisecondsSpentLimit(MILLISECONDS_TIME_SPENT_LIMIT));
+        Solver<TaskAssigningSolution> solver = solverFactory.buildSolver();
+        TaskAssigningSolution solution = readTaskAssigningSolution(solutionResource);
+        solution.getUserList().add(User.PLANNING_USER);
+        TaskAssigningSolution result = solver.solve(solution);
+
+        for (User user : result.getUserList()) {
+            Integer startTime = user.getEndTime();
+            for (Task task = user.getNextTask(); task != null; task = task.getNextTask()) {
+                assertEquals(startTime, task.getStartTime());
+                assertEquals(Integer.valueOf(startTime + task.getDuration()), task.getEndTime());
+                startTime = task.getEndTime();
+            }
+        }
+    }
+}
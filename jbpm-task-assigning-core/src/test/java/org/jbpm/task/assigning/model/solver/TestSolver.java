@@ -24,6 +24,8 @@ import org.jbpm.task.assigning.model.TaskAssigningSolution;
 import org.jbpm.task.assigning.model.User;
 import org.junit.Test;
 import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
 
 import static org.jbpm.task.assigning.model.solver.TaskHelper.extractTaskList;
 import static org.jbpm.task.assigning.model.solver.TaskHelper.isPotentialOwner;
@@ -53,16 +55,39 @@ public class TestSolver extends BaseTaskAssigningTest {
     }
 
     @Test
-    public void startSolverAndSolution500Tasks5UsersTest() throws Exception {
+    public void startSolverAndSolution500Tasks20UsersTest() throws Exception {
         testSolverStartAndSolution(MILLISECONDS_TIME_SPENT_LIMIT * 2, _500TASKS_20USERS_SOLUTION);
     }
 
+    @Test
+    public void startSolverWithSolverConfigAndSolution24Tasks8UsersTest() throws Exception {
+        testSolverStartAndSolution(createNonDaemonSolver(TASK_ASSIGNING_SOLVER_CONFIG, MILLISECONDS_TIME_SPENT_LIMIT), MILLISECONDS_TIME_SPENT_LIMIT, _24TASKS_8USERS_SOLUTION);
+    }
+
+    @Test
+    public void startSolverWithSolverConfigAndSolution500Tasks20UsersTest() throws Exception {
+        testSolverStartAndSolution(createNonDaemonSolver(TASK_ASSIGNING_SOLVER_CONFIG, MILLISECONDS_TIME_SPENT_LIMIT * 2), MILLISECONDS_TIME_SPENT_LIMIT * 2, _500TASKS_20USERS_SOLUTION);
+    }
+
+    @Test
+    public void startSolverWithPerformanceSolverConfigAndSolution24Tasks8UsersTest() throws Exception {
+        testSolverStartAndSolution(createNonDaemonSolver(TASK_ASSIGNING_SOLVER_CONFIG_PERFORMANCE, MILLISECONDS_TIME_SPENT_LIMIT), MILLISECONDS_TIME_SPENT_LIMIT, _24TASKS_8USERS_SOLUTION);
+    }
+
+    @Test
+    public void startSolverWithPerformanceSolverConfigAndSolution500Tasks20UsersTest() throws Exception {
+        testSolverStartAndSolution(createNonDaemonSolver(TASK_ASSIGNING_SOLVER_CONFIG_PERFORMANCE, MILLISECONDS_TIME_SPENT_LIMIT * 2), MILLISECONDS_TIME_SPENT_LIMIT * 2, _500TASKS_20USERS_SOLUTION);
+    }
+
+    private void testSolverStartAndSolution(long millisecondsSpentLimit, String solutionResource) throws Exception {
+        testSolverStartAndSolution(createNonDaemonSolver(millisecondsSpentLimit), millisecondsSpentLimit, solutionResource);
+    }
+
     /**
      * Tests that solver for the tasks assigning problem definition can be properly started, a solution can be produced,
      * and that some minimal constrains are met by de solution.
      */
-    private void testSolverStartAndSolution(long millisecondsSpentLimit, String solutionResource) throws Exception {
-        Solver<TaskAssigningSolution> solver = createNonDaemonSolver(millisecondsSpentLimit);
+    private void testSolverStartAndSolution(Solver<TaskAssigningSolution> solver, long millisecondsSpentLimit, String solutionResource) throws Exception {
         TaskAssigningSolution solution = readTaskAssigningSolution(solutionResource);
         solution.getUserList().add(User.PLANNING_USER);
         TaskAssigningSolution result = solver.solve(solution);
@@ -79,6 +104,17 @@ public class TestSolver extends BaseTaskAssigningTest {
         System.out.println(builder.toString());
     }
 
+    /**
+     * Creates a non daemon solver from the given solver configuration resource, e.g. one of the configurations
+     * shipped for the runtime, so that the tests exercise exactly the same construction heuristic and move selectors.
+     */
+    private Solver<TaskAssigningSolution> createNonDaemonSolver(String solverConfigResource, long millisecondsSpentLimit) {
+        SolverFactory<TaskAssigningSolution> solverFactory = SolverFactory.createFromXmlResource(solverConfigResource);
+        solverFactory.getSolverConfig().setDaemon(false);
+        solverFactory.getSolverConfig().setTerminationConfig(new TerminationConfig().withMillisecondsSpentLimit(millisecondsSpentLimit));
+        return solverFactory.buildSolver();
+    }
+
     /**
      * Given a TaskAssigningSolution asserts the following constraints.
      * <p>
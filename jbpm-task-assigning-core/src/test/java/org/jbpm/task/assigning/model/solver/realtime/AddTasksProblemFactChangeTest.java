@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.model.solver.realtime;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.User;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AddTasksProblemFactChangeTest extends BaseProblemFactChangeTest {
+
+    @Test
+    public void addTasksProblemFactChange24Tasks8UsersTest() throws Exception {
+        addTasksProblemFactChangeTest(_24TASKS_8USERS_SOLUTION, Arrays.asList(24L, 25L, 30L, 40L));
+    }
+
+    @Test
+    public void addTasksProblemFactChange500Tasks20UsersTest() throws Exception {
+        addTasksProblemFactChangeTest(_500TASKS_20USERS_SOLUTION, Arrays.asList(500L, 501L, 502L, 600L, 700L));
+    }
+
+    @Test
+    public void addTasksProblemFactChangeTaskAlreadyExistsTest() throws Exception {
+        TaskAssigningSolution solution = readTaskAssigningSolution(_24TASKS_8USERS_SOLUTION);
+        List<Task> tasks = Arrays.asList(new Task(24, "NewTask_24", 1), new Task(3, null, 1));
+        expectedException.expectMessage("A task with the given identifier id: 3 already exists");
+        executeSequentialChanges(solution, Collections.singletonList(new ProgrammedProblemFactChange<>(new AddTasksProblemFactChange(tasks))));
+    }
+
+    private void addTasksProblemFactChangeTest(String solutionResource, List<Long> taskIds) throws Exception {
+        TaskAssigningSolution solution = readTaskAssigningSolution(solutionResource);
+        solution.getUserList().add(User.PLANNING_USER);
+        int initialSize = solution.getTaskList().size();
+        List<Task> tasks = taskIds.stream()
+                .map(id -> new Task(id, "NewTask_" + id, 1))
+                .collect(Collectors.toList());
+        ProgrammedProblemFactChange<AddTasksProblemFactChange> change = new ProgrammedProblemFactChange<>(new AddTasksProblemFactChange(tasks));
+        executeSequentialChanges(solution, Collections.singletonList(change));
+
+        TaskAssigningSolution solutionAfterChange = change.getSolutionAfterChange();
+        assertEquals(initialSize + taskIds.size(), solutionAfterChange.getTaskList().size());
+        taskIds.forEach(id -> assertTrue(solutionAfterChange.getTaskList().stream().anyMatch(task -> Objects.equals(id, task.getId()))));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.model.solver.realtime;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.User;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ReleaseTaskProblemFactChangeTest extends BaseProblemFactChangeTest {
+
+    @Test
+    public void releaseTaskProblemFactChange24Tasks8UsersTest() throws Exception {
+        releaseTaskProblemFactChangeTest(_24TASKS_8USERS_SOLUTION, 5, 2);
+    }
+
+    @Test
+    public void releaseTaskProblemFactChange500Tasks20UsersTest() throws Exception {
+        releaseTaskProblemFactChangeTest(_500TASKS_20USERS_SOLUTION, 300, 10);
+    }
+
+    @Test
+    public void releaseTaskProblemFactChangeTaskNotExistsTest() throws Exception {
+        TaskAssigningSolution solution = readTaskAssigningSolution(_24TASKS_8USERS_SOLUTION);
+        ProgrammedProblemFactChange<ReleaseTaskProblemFactChange> release = new ProgrammedProblemFactChange<>(new ReleaseTaskProblemFactChange(1000));
+        executeSequentialChanges(solution, Collections.singletonList(release));
+        assertEquals(solution.getTaskList().size(), release.getSolutionAfterChange().getTaskList().size());
+    }
+
+    private void releaseTaskProblemFactChangeTest(String solutionResource, long taskId, int userIndex) throws Exception {
+        TaskAssigningSolution solution = readTaskAssigningSolution(solutionResource);
+        solution.getUserList().add(User.PLANNING_USER);
+        Task task = findTask(solution, taskId);
+        User user = solution.getUserList().get(userIndex);
+
+        // the task is first directly assigned, so that it's pinned to the user, and then released.
+        ProgrammedProblemFactChange<AssignTaskProblemFactChange> assign = new ProgrammedProblemFactChange<>(new AssignTaskProblemFactChange(task, user));
+        ProgrammedProblemFactChange<ReleaseTaskProblemFactChange> release = new ProgrammedProblemFactChange<>(new ReleaseTaskProblemFactChange(taskId));
+        List<ProgrammedProblemFactChange<?>> changes = Arrays.asList(assign, release);
+        executeSequentialChanges(solution, changes);
+
+        Task releasedTask = findTask(release.getSolutionAfterChange(), taskId);
+        assertFalse(releasedTask.isPinned());
+        assertEquals(user.getEntityId(), releasedTask.getReleasedUser());
+    }
+
+    private static Task findTask(TaskAssigningSolution solution, long id) {
+        return solution.getTaskList().stream()
+                .filter(task -> Objects.equals(task.getId(), id))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Task: " + id + " was not found"));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.model.solver.realtime;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.TaskOrUser;
+import org.jbpm.task.assigning.model.User;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+public class RemoveTasksProblemFactChangeTest extends BaseProblemFactChangeTest {
+
+    @Test
+    public void removeTasksProblemFactChange24Tasks8UsersTest() throws Exception {
+        removeTasksProblemFactChangeTest(_24TASKS_8USERS_SOLUTION, Arrays.asList(0L, 10L, 11L, 4L, 20L, 100L, 78L));
+    }
+
+    @Test
+    public void removeTasksProblemFactChange100Tasks5UsersTest() throws Exception {
+        removeTasksProblemFactChangeTest(_100TASKS_5USERS_SOLUTION, Arrays.asList(5L, 15L, 11L, 4L, 20L, 30L, 36L, 40L, 45L, 58L, 99L, 130L, 200L));
+    }
+
+    @Test
+    public void removeTasksProblemFactChange500Tasks20UsersTest() throws Exception {
+        removeTasksProblemFactChangeTest(_500TASKS_20USERS_SOLUTION, Arrays.asList(5L, 6L, 7L, 8L, 9L, 10L, 11L, 300L, 400L, 25L, 1000L));
+    }
+
+    private void removeTasksProblemFactChangeTest(String solutionResource, List<Long> taskIds) throws Exception {
+        TaskAssigningSolution solution = readTaskAssigningSolution(solutionResource);
+        List<Task> tasks = taskIds.stream()
+                .map(id -> new Task(id, "Task_" + id, 1))
+                .collect(Collectors.toList());
+        ProgrammedProblemFactChange<RemoveTasksProblemFactChange> change = new ProgrammedProblemFactChange<>(new RemoveTasksProblemFactChange(tasks));
+        executeSequentialChanges(solution, Collections.singletonList(change));
+
+        TaskAssigningSolution solutionAfterChange = change.getSolutionAfterChange();
+        Set<Long> removedIds = taskIds.stream().collect(Collectors.toSet());
+        for (Task task : solutionAfterChange.getTaskList()) {
+            assertFalse(removedIds.contains(task.getId()));
+        }
+        assertChainsAreConsistent(solutionAfterChange);
+    }
+
+    /**
+     * Asserts that every task in the solution is reachable from its user, and that the nextTask and user shadow
+     * variables are consistent with the chains.
+     */
+    private void assertChainsAreConsistent(TaskAssigningSolution solution) {
+        int chainedTasks = 0;
+        for (User user : solution.getUserList()) {
+            TaskOrUser previous = user;
+            Task nextTask = user.getNextTask();
+            while (nextTask != null) {
+                assertSame(previous, nextTask.getPreviousTaskOrUser());
+                assertSame(user, nextTask.getUser());
+                chainedTasks++;
+                previous = nextTask;
+                nextTask = nextTask.getNextTask();
+            }
+        }
+        long initializedTasks = solution.getTaskList().stream().filter(task -> Objects.nonNull(task.getPreviousTaskOrUser())).count();
+        assertEquals(initializedTasks, chainedTasks);
+    }
+}
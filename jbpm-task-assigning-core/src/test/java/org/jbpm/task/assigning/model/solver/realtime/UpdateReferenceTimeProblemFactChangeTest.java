@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.model.solver.realtime;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.User;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class UpdateReferenceTimeProblemFactChangeTest extends BaseProblemFactChangeTest {
+
+    private static final LocalDateTime REFERENCE_TIME = LocalDateTime.of(2019, 10, 1, 8, 0);
+
+    @Test
+    public void updateReferenceTimeProblemFactChange24Tasks8UsersTest() throws Exception {
+        TaskAssigningSolution solution = readTaskAssigningSolution(_24TASKS_8USERS_SOLUTION);
+        solution.getUserList().add(User.PLANNING_USER);
+        solution.setReferenceTime(REFERENCE_TIME);
+        solution.getTaskList().forEach(task -> task.setDueTime(null));
+        Task task1 = solution.getTaskList().get(1);
+        task1.setDueDate(REFERENCE_TIME.plusHours(2));
+        task1.setDueTime(Task.calculateDueTime(REFERENCE_TIME, task1.getDueDate()));
+        Task task2 = solution.getTaskList().get(2);
+        task2.setDueDate(REFERENCE_TIME.minusMinutes(10));
+        task2.setDueTime(Task.calculateDueTime(REFERENCE_TIME, task2.getDueDate()));
+        Task taskWithNoDueDate = solution.getTaskList().get(3);
+
+        ProgrammedProblemFactChange<UpdateReferenceTimeProblemFactChange> update30Minutes =
+                new ProgrammedProblemFactChange<>(new UpdateReferenceTimeProblemFactChange(REFERENCE_TIME.plusMinutes(30)));
+        ProgrammedProblemFactChange<UpdateReferenceTimeProblemFactChange> update60Minutes =
+                new ProgrammedProblemFactChange<>(new UpdateReferenceTimeProblemFactChange(REFERENCE_TIME.plusMinutes(60)));
+        executeSequentialChanges(solution, Arrays.asList(update30Minutes, update60Minutes));
+
+        TaskAssigningSolution after30Minutes = update30Minutes.getSolutionAfterChange();
+        assertEquals(REFERENCE_TIME.plusMinutes(30), after30Minutes.getReferenceTime());
+        assertEquals(90, findTask(after30Minutes, task1.getId()).getDueTime(), 0);
+        assertEquals(-40, findTask(after30Minutes, task2.getId()).getDueTime(), 0);
+        assertNull(findTask(after30Minutes, taskWithNoDueDate.getId()).getDueTime());
+
+        TaskAssigningSolution after60Minutes = update60Minutes.getSolutionAfterChange();
+        assertEquals(REFERENCE_TIME.plusMinutes(60), after60Minutes.getReferenceTime());
+        assertEquals(60, findTask(after60Minutes, task1.getId()).getDueTime(), 0);
+        assertEquals(-70, findTask(after60Minutes, task2.getId()).getDueTime(), 0);
+        assertNull(findTask(after60Minutes, taskWithNoDueDate.getId()).getDueTime());
+    }
+
+    @Test
+    public void calculateDueTimeTest() {
+        assertEquals(120, Task.calculateDueTime(REFERENCE_TIME, REFERENCE_TIME.plusHours(2)), 0);
+        assertEquals(-15, Task.calculateDueTime(REFERENCE_TIME, REFERENCE_TIME.minusMinutes(15)), 0);
+        assertEquals(Task.MAX_DUE_TIME, Task.calculateDueTime(REFERENCE_TIME, REFERENCE_TIME.plusYears(10000)), 0);
+        assertEquals(-Task.MAX_DUE_TIME, Task.calculateDueTime(REFERENCE_TIME, REFERENCE_TIME.minusYears(10000)), 0);
+        assertNull(Task.calculateDueTime(null, REFERENCE_TIME));
+        assertNull(Task.calculateDueTime(REFERENCE_TIME, null));
+    }
+
+    private static Task findTask(TaskAssigningSolution solution, long id) {
+        return solution.getTaskList().stream()
+                .filter(task -> Objects.equals(task.getId(), id))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Task: " + id + " was not found"));
+    }
+}
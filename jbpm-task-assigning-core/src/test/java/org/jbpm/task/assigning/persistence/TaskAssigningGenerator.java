@@ -19,8 +19,10 @@ package org.jbpm.task.assigning.persistence;
 import java.io.File;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 
@@ -28,6 +30,8 @@ import org.jbpm.task.assigning.model.Group;
 import org.jbpm.task.assigning.model.OrganizationalEntity;
 import org.jbpm.task.assigning.model.Task;
 import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.TaskOrUser;
+import org.jbpm.task.assigning.model.TypedLabel;
 import org.jbpm.task.assigning.model.User;
 import org.optaplanner.examples.common.app.CommonApp;
 import org.optaplanner.examples.common.app.LoggingMain;
@@ -47,6 +51,11 @@ import static org.optaplanner.examples.common.app.CommonApp.DATA_DIR_SYSTEM_PROP
  * test/resources/data/unsolved/50tasks-5users.xml
  * test/resources/data/unsolved/100tasks-5users.xml
  * test/resources/data/unsolved/500tasks-20users.xml
+ * <p>
+ * Bigger solutions, e.g. for benchmarking purposes, can be created with the createSolution and writeSolution methods
+ * by using a DataSetParameters. Beyond the sizes, the DataSetParameters allows to configure a skewed groups
+ * distribution, in which a few groups concentrate most of the users and tasks, the skills, and the ratio of tasks
+ * that are already pinned or published.
  */
 public class TaskAssigningGenerator extends LoggingMain {
 
@@ -60,12 +69,103 @@ public class TaskAssigningGenerator extends LoggingMain {
     private static final int USER_GROUP_SET_SIZE_MINIMUM = 0;
     private static final int USER_GROUP_SET_MAXIMUM = 3;
 
+    /**
+     * The full names generator has a limited set of combinations, bigger user lists are named as User_[n].
+     */
+    private static final int USER_FULL_NAMES_MAXIMUM_SIZE = 200;
+
+    /**
+     * With a skewed distribution the group at position i is selected with a probability proportional to
+     * (i + 1)^(1 / GROUP_POPULARITY_EXPONENT - 1), so the first groups are much more popular than the last ones.
+     */
+    private static final double GROUP_POPULARITY_EXPONENT = 3;
+
     public static void main(String[] args) {
+        System.setProperty(DATA_DIR_SYSTEM_PROPERTY, "jbpm-task-assigning-core/src/test/resources");
+        File outputDir = new File(CommonApp.determineDataDir("data"), "unsolved");
         TaskAssigningGenerator generator = new TaskAssigningGenerator();
-        generator.writeTaskAssigningSolution(24, 8);
-        generator.writeTaskAssigningSolution(50, 5);
-        generator.writeTaskAssigningSolution(100, 5);
-        generator.writeTaskAssigningSolution(500, 20);
+        generator.writeTaskAssigningSolution(outputDir, new DataSetParameters(24, 8));
+        generator.writeTaskAssigningSolution(outputDir, new DataSetParameters(50, 5));
+        generator.writeTaskAssigningSolution(outputDir, new DataSetParameters(100, 5));
+        generator.writeTaskAssigningSolution(outputDir, new DataSetParameters(500, 20));
+    }
+
+    /**
+     * Parameters for generating a data set. By default the same distributions as in the example solution files are
+     * used.
+     */
+    public static class DataSetParameters {
+
+        private final int taskListSize;
+        private final int userListSize;
+        private int groupListSize = USER_GROUP_SIZE;
+        private int userGroupSetMaximum = USER_GROUP_SET_MAXIMUM;
+        private int taskGroupSetMaximum = TASK_POTENTIAL_OWNERS_GROUP_SIZE_MAXIMUM;
+        private boolean skewedGroups = false;
+        private int skillListSize = 0;
+        private int userSkillSetMaximum = 0;
+        private int taskSkillSetMaximum = 0;
+        private double pinnedRatio = 0;
+        private double publishedRatio = 0;
+        private boolean planningUser = false;
+
+        public DataSetParameters(int taskListSize, int userListSize) {
+            this.taskListSize = taskListSize;
+            this.userListSize = userListSize;
+        }
+
+        /**
+         * @param groupListSize total number of groups.
+         * @param userGroupSetMaximum (exclusive) maximum number of groups per user.
+         * @param taskGroupSetMaximum (exclusive) maximum number of groups in the potential owners of a task.
+         * @param skewedGroups true if a few groups must concentrate most of the users and tasks, false for a uniform
+         * distribution.
+         */
+        public DataSetParameters withGroups(int groupListSize, int userGroupSetMaximum, int taskGroupSetMaximum, boolean skewedGroups) {
+            this.groupListSize = groupListSize;
+            this.userGroupSetMaximum = userGroupSetMaximum;
+            this.taskGroupSetMaximum = taskGroupSetMaximum;
+            this.skewedGroups = skewedGroups;
+            return this;
+        }
+
+        /**
+         * @param skillListSize total number of skills.
+         * @param userSkillSetMaximum (exclusive) maximum number of skills per user.
+         * @param taskSkillSetMaximum (exclusive) maximum number of skills required by a task.
+         */
+        public DataSetParameters withSkills(int skillListSize, int userSkillSetMaximum, int taskSkillSetMaximum) {
+            this.skillListSize = skillListSize;
+            this.userSkillSetMaximum = userSkillSetMaximum;
+            this.taskSkillSetMaximum = taskSkillSetMaximum;
+            return this;
+        }
+
+        /**
+         * @param pinnedRatio ratio of the tasks that are pinned to a potential owner.
+         * @param publishedRatio ratio of the tasks that are published, published tasks are always pinned so it must
+         * be lower or equal than the pinnedRatio.
+         */
+        public DataSetParameters withPinnedAndPublished(double pinnedRatio, double publishedRatio) {
+            if (publishedRatio > pinnedRatio) {
+                throw new IllegalArgumentException("publishedRatio: " + publishedRatio + " must be lower or equal than pinnedRatio: " + pinnedRatio);
+            }
+            this.pinnedRatio = pinnedRatio;
+            this.publishedRatio = publishedRatio;
+            return this;
+        }
+
+        /**
+         * Adds the User.PLANNING_USER to the user list, as the runtime does.
+         */
+        public DataSetParameters withPlanningUser() {
+            this.planningUser = true;
+            return this;
+        }
+
+        public String getName() {
+            return taskListSize + "tasks-" + userListSize + "users";
+        }
     }
 
     private static final StringDataGenerator groupNameGenerator = new StringDataGenerator()
@@ -81,47 +181,80 @@ public class TaskAssigningGenerator extends LoggingMain {
                      "Accounting",
                      "Support");
 
+    private static final int GROUP_NAMES_SIZE = 10;
+
     private static final StringDataGenerator userNameGenerator = StringDataGenerator.buildFullNames();
 
     private final SolutionFileIO<TaskAssigningSolution> solutionFileIO;
-    private final File outputDir;
 
     private Random random;
 
     private TaskAssigningGenerator() {
-        System.setProperty(DATA_DIR_SYSTEM_PROPERTY, "jbpm-task-assigning-core/src/test/resources");
         solutionFileIO = new XStreamSolutionFileIO<>(TaskAssigningSolution.class);
-        outputDir = new File(CommonApp.determineDataDir("data"), "unsolved");
     }
 
-    private void writeTaskAssigningSolution(int taskListSize, int userListSize) {
-        String fileName = determineFileName(taskListSize, userListSize);
-        File outputFile = new File(outputDir, fileName + ".xml");
-        TaskAssigningSolution solution = createTaskAssigningSolution(fileName, taskListSize, USER_GROUP_SIZE, userListSize);
-        solutionFileIO.write(solution, outputFile);
-        logger.info("Saved: {}", outputFile);
+    /**
+     * Creates a TaskAssigningSolution in memory with the same distributions as the example solution files.
+     * @param taskListSize number of tasks to create.
+     * @param userListSize number of users to create.
+     * @return a new TaskAssigningSolution.
+     */
+    public static TaskAssigningSolution createSolution(int taskListSize, int userListSize) {
+        return createSolution(new DataSetParameters(taskListSize, userListSize));
     }
 
-    private String determineFileName(int taskListSize, int userListSize) {
-        return taskListSize + "tasks-" + userListSize + "users";
+    /**
+     * Creates a TaskAssigningSolution in memory.
+     * @param parameters the parameters of the data set to create.
+     * @return a new TaskAssigningSolution.
+     */
+    public static TaskAssigningSolution createSolution(DataSetParameters parameters) {
+        return new TaskAssigningGenerator().createTaskAssigningSolution(parameters);
     }
 
-    private TaskAssigningSolution createTaskAssigningSolution(String fileName, int taskListSize, int groupListSize, int userListSize) {
+    /**
+     * Creates a TaskAssigningSolution and writes it in the given directory.
+     * @param outputDir the directory to write the solution file in.
+     * @param parameters the parameters of the data set to create.
+     * @return the written file, the name of the file is the data set name.
+     */
+    public static File writeSolution(File outputDir, DataSetParameters parameters) {
+        return new TaskAssigningGenerator().writeTaskAssigningSolution(outputDir, parameters);
+    }
+
+    private File writeTaskAssigningSolution(File outputDir, DataSetParameters parameters) {
+        File outputFile = new File(outputDir, parameters.getName() + ".xml");
+        TaskAssigningSolution solution = createTaskAssigningSolution(parameters);
+        solutionFileIO.write(solution, outputFile);
+        logger.info("Saved: {}", outputFile);
+        return outputFile;
+    }
+
+    private TaskAssigningSolution createTaskAssigningSolution(DataSetParameters parameters) {
         random = new Random(37);
         TaskAssigningSolution solution = new TaskAssigningSolution();
         solution.setId(0L);
 
-        List<Group> groupList = createGroupList(groupListSize);
-        createUserList(solution, userListSize, groupList);
-        createTaskList(solution, taskListSize, groupList);
+        List<Group> groupList = createGroupList(parameters.groupListSize);
+        List<TypedLabel> skillList = createSkillList(parameters.skillListSize);
+        createUserList(solution, parameters, groupList, skillList);
+        createTaskList(solution, parameters, groupList, skillList);
+        if (parameters.pinnedRatio > 0) {
+            pinTasks(solution, parameters);
+        }
+        if (parameters.planningUser) {
+            solution.getUserList().add(User.PLANNING_USER);
+        }
 
+        int taskListSize = parameters.taskListSize;
+        int userListSize = parameters.userListSize;
         BigInteger a = AbstractSolutionImporter.factorial(taskListSize + userListSize - 1);
         BigInteger b = AbstractSolutionImporter.factorial(userListSize - 1);
         BigInteger possibleSolutionSize = (a == null || b == null) ? null : a.divide(b);
         logger.info("TaskAssigningSolution {} has {} tasks, {} groups, and {} users with a search space of {}.",
-                    fileName,
+                    parameters.getName(),
                     taskListSize,
-                    groupListSize,
+                    parameters.groupListSize,
                     userListSize,
                     AbstractSolutionImporter.getFlooredPossibleSolutionSize(possibleSolutionSize));
         return solution;
@@ -129,11 +262,11 @@ public class TaskAssigningGenerator extends LoggingMain {
 
     private List<Group> createGroupList(int groupListSize) {
         List<Group> groupList = new ArrayList<>(groupListSize);
-        groupNameGenerator.predictMaximumSizeAndReset(groupListSize);
+        groupNameGenerator.predictMaximumSizeAndReset(Math.min(groupListSize, GROUP_NAMES_SIZE));
         for (int i = 0; i < groupListSize; i++) {
             Group group = new Group();
             group.setId((long) i);
-            String groupName = groupNameGenerator.generateNextValue();
+            String groupName = i < GROUP_NAMES_SIZE ? groupNameGenerator.generateNextValue() : "Group_" + i;
             group.setEntityId(groupName);
             logger.trace("Created Group with entityId: ({}).", groupName);
             groupList.add(group);
@@ -141,32 +274,43 @@ public class TaskAssigningGenerator extends LoggingMain {
         return groupList;
     }
 
-    private void createUserList(TaskAssigningSolution solution, int userListSize, List<Group> groupList) {
+    private List<TypedLabel> createSkillList(int skillListSize) {
+        List<TypedLabel> skillList = new ArrayList<>(skillListSize);
+        for (int i = 0; i < skillListSize; i++) {
+            skillList.add(TypedLabel.newSkill("Skill_" + i));
+        }
+        return skillList;
+    }
+
+    private void createUserList(TaskAssigningSolution solution, DataSetParameters parameters, List<Group> groupList, List<TypedLabel> skillList) {
+        int userListSize = parameters.userListSize;
+        boolean fullNames = userListSize <= USER_FULL_NAMES_MAXIMUM_SIZE;
         List<User> userList = new ArrayList<>(userListSize);
-        userNameGenerator.predictMaximumSizeAndReset(userListSize);
+        if (fullNames) {
+            userNameGenerator.predictMaximumSizeAndReset(userListSize);
+        }
         for (int i = 0; i < userListSize; i++) {
             User user = new User();
             user.setId((long) i);
-            String userName = userNameGenerator.generateNextValue();
+            String userName = fullNames ? userNameGenerator.generateNextValue() : "User_" + i;
             user.setEntityId(userName);
-            int groupListSize = USER_GROUP_SET_SIZE_MINIMUM + random.nextInt(USER_GROUP_SET_MAXIMUM - USER_GROUP_SET_SIZE_MINIMUM);
+            int groupListSize = USER_GROUP_SET_SIZE_MINIMUM + random.nextInt(parameters.userGroupSetMaximum - USER_GROUP_SET_SIZE_MINIMUM);
             if (groupListSize > groupList.size()) {
                 groupListSize = groupList.size();
             }
-            Set<Group> groupSet = new LinkedHashSet<>(groupListSize);
             int groupListIndex = random.nextInt(groupList.size());
-            for (int j = 0; j < groupListSize; j++) {
-                groupSet.add(groupList.get(groupListIndex));
-                groupListIndex = (groupListIndex + 1) % groupList.size();
+            user.setGroups(selectGroups(groupList, groupListIndex, groupListSize, parameters.skewedGroups));
+            if (!skillList.isEmpty()) {
+                user.setTypedLabels(selectSkills(skillList, parameters.userSkillSetMaximum));
             }
-            user.setGroups(groupSet);
             logger.trace("Created user with entityId ({}).", userName);
             userList.add(user);
         }
         solution.setUserList(userList);
     }
 
-    private void createTaskList(TaskAssigningSolution solution, int taskListSize, List<Group> groupList) {
+    private void createTaskList(TaskAssigningSolution solution, DataSetParameters parameters, List<Group> groupList, List<TypedLabel> skillList) {
+        int taskListSize = parameters.taskListSize;
         List<User> userList = solution.getUserList();
         List<Task> taskList = new ArrayList<>(taskListSize);
 
@@ -179,14 +323,11 @@ public class TaskAssigningGenerator extends LoggingMain {
             Set<OrganizationalEntity> potentialOwners = new LinkedHashSet<>();
 
             int groupListIndex = random.nextInt(groupList.size());
-            int groupPotentialOwnersSize = TASK_POTENTIAL_OWNERS_GROUP_SIZE_MINIMUM + random.nextInt(TASK_POTENTIAL_OWNERS_GROUP_SIZE_MAXIMUM - TASK_POTENTIAL_OWNERS_GROUP_SIZE_MINIMUM);
+            int groupPotentialOwnersSize = TASK_POTENTIAL_OWNERS_GROUP_SIZE_MINIMUM + random.nextInt(parameters.taskGroupSetMaximum - TASK_POTENTIAL_OWNERS_GROUP_SIZE_MINIMUM);
             if (groupPotentialOwnersSize > groupList.size()) {
                 groupPotentialOwnersSize = groupList.size();
             }
-            for (int j = 0; j < groupPotentialOwnersSize; j++) {
-                potentialOwners.add(groupList.get(groupListIndex));
-                groupListIndex = (groupListIndex + 1) % groupList.size();
-            }
+            potentialOwners.addAll(selectGroups(groupList, groupListIndex, groupPotentialOwnersSize, parameters.skewedGroups));
 
             int userListIndex = random.nextInt(userList.size());
             int userPotentialOwnersSize = TASK_POTENTIAL_OWNERS_USER_SIZE_MINIMUM + random.nextInt(TASK_POTENTIAL_OWNERS_USER_SIZE_MAXIMUM - TASK_POTENTIAL_OWNERS_USER_SIZE_MINIMUM);
@@ -199,8 +340,90 @@ public class TaskAssigningGenerator extends LoggingMain {
             }
 
             task.setPotentialOwners(potentialOwners);
+            if (!skillList.isEmpty()) {
+                task.setTypedLabels(selectSkills(skillList, parameters.taskSkillSetMaximum));
+            }
             taskList.add(task);
         }
         solution.setTaskList(taskList);
     }
+
+    /**
+     * Selects groupSetSize groups. With the uniform distribution consecutive groups starting at the groupListIndex
+     * are selected, while with the skewed distribution the groups at the beginning of the list are preferred.
+     */
+    private Set<Group> selectGroups(List<Group> groupList, int groupListIndex, int groupSetSize, boolean skewed) {
+        Set<Group> groupSet = new LinkedHashSet<>(groupSetSize);
+        if (skewed) {
+            for (int j = 0; j < groupSetSize; j++) {
+                groupSet.add(groupList.get(nextSkewedIndex(groupList.size())));
+            }
+        } else {
+            for (int j = 0; j < groupSetSize; j++) {
+                groupSet.add(groupList.get(groupListIndex));
+                groupListIndex = (groupListIndex + 1) % groupList.size();
+            }
+        }
+        return groupSet;
+    }
+
+    private Set<TypedLabel> selectSkills(List<TypedLabel> skillList, int skillSetMaximum) {
+        int skillSetSize = skillSetMaximum > 0 ? random.nextInt(skillSetMaximum) : 0;
+        Set<TypedLabel> skillSet = new LinkedHashSet<>(skillSetSize);
+        for (int j = 0; j < skillSetSize; j++) {
+            skillSet.add(skillList.get(nextSkewedIndex(skillList.size())));
+        }
+        return skillSet;
+    }
+
+    private int nextSkewedIndex(int size) {
+        return (int) (size * Math.pow(random.nextDouble(), GROUP_POPULARITY_EXPONENT));
+    }
+
+    /**
+     * Pins the configured ratio of tasks to one of its potential owners. The pinned tasks are placed at the beginning
+     * of the user chains and all the chained and shadow variables are set accordingly. Tasks that has no user that can
+     * own them are not pinned.
+     */
+    private void pinTasks(TaskAssigningSolution solution, DataSetParameters parameters) {
+        Map<String, List<User>> usersByGroup = new HashMap<>();
+        for (User user : solution.getUserList()) {
+            user.getGroups().forEach(group -> usersByGroup.computeIfAbsent(group.getEntityId(), key -> new ArrayList<>()).add(user));
+        }
+        Map<User, TaskOrUser> lastTaskOrUser = new HashMap<>();
+        for (Task task : solution.getTaskList()) {
+            double pinnedValue = random.nextDouble();
+            if (pinnedValue >= parameters.pinnedRatio) {
+                continue;
+            }
+            User user = selectPotentialOwner(task, usersByGroup);
+            if (user != null) {
+                TaskOrUser previousTaskOrUser = lastTaskOrUser.getOrDefault(user, user);
+                previousTaskOrUser.setNextTask(task);
+                task.setPreviousTaskOrUser(previousTaskOrUser);
+                task.setUser(user);
+                task.setStartTime(previousTaskOrUser.getEndTime());
+                task.setEndTime(task.getStartTime() + task.getDuration());
+                task.setPinned(true);
+                task.setPublished(pinnedValue < parameters.publishedRatio);
+                lastTaskOrUser.put(user, task);
+            }
+        }
+    }
+
+    private User selectPotentialOwner(Task task, Map<String, List<User>> usersByGroup) {
+        List<OrganizationalEntity> potentialOwners = new ArrayList<>(task.getPotentialOwners());
+        int index = potentialOwners.isEmpty() ? 0 : random.nextInt(potentialOwners.size());
+        for (int i = 0; i < potentialOwners.size(); i++) {
+            OrganizationalEntity potentialOwner = potentialOwners.get((index + i) % potentialOwners.size());
+            if (potentialOwner.isUser()) {
+                return (User) potentialOwner;
+            }
+            List<User> groupUsers = usersByGroup.get(potentialOwner.getEntityId());
+            if (groupUsers != null && !groupUsers.isEmpty()) {
+                return groupUsers.get(random.nextInt(groupUsers.size()));
+            }
+        }
+        return null;
+    }
 }
@@ -16,13 +16,104 @@
 
 package org.jbpm.task.assigning.process.runtime.integration.client;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ProcessRuntimeIntegrationClient {
 
+    /**
+     * Finds the tasks in the given status. The planning parameters and the input variables are loaded for all the
+     * returned tasks.
+     * @param status the status of the tasks to look for.
+     * @param page the page number to read.
+     * @param pageSize the page size.
+     * @return a list with the tasks that meets the criteria.
+     */
     List<TaskInfo> findTasks(List<TaskStatus> status,
                              Integer page,
                              Integer pageSize);
 
+    /**
+     * Finds the tasks in the given status that were modified at, or after, the given date.
+     * @param status the status of the tasks to look for.
+     * @param fromLastModificationDate lower bound (inclusive) for the task lastModificationDate. When null, no filtering
+     * by the lastModificationDate is applied.
+     * @param page the page number to read.
+     * @param pageSize the page size.
+     * @param inputVariablesReadMode determines if the task input variables must be loaded.
+     * @return a list with the tasks that meets the criteria.
+     */
+    List<TaskInfo> findTasks(List<TaskStatus> status,
+                             LocalDateTime fromLastModificationDate,
+                             Integer page,
+                             Integer pageSize,
+                             TaskInputVariablesReadMode inputVariablesReadMode);
+
+    /**
+     * Lightweight version of the findTasks method intended for discovering the tasks that has transitioned to a given
+     * status, e.g. Completed or Exited. Neither the potential owners, the input data nor the planning parameters are
+     * loaded, and only the taskId, containerId, status, lastModificationDate, activationTime, processId, name and
+     * actualOwner are populated in the returned TaskInfos.
+     * @param status the status of the tasks to look for.
+     * @param fromLastModificationDate lower bound (inclusive) for the task lastModificationDate. When null, no filtering
+     * by the lastModificationDate is applied.
+     * @param page the page number to read.
+     * @param pageSize the page size.
+     * @return a list with the tasks that meets the criteria.
+     */
+    List<TaskInfo> findTasksStatus(List<TaskStatus> status,
+                                   LocalDateTime fromLastModificationDate,
+                                   Integer page,
+                                   Integer pageSize);
+
+    /**
+     * Streaming version of the findTasks method. The tasks are read page by page with a keyset pagination on the
+     * taskId, and every page is passed to the pageConsumer as soon as it's read. In this way the full result is never
+     * materialized, and there's no limit in the number of tasks that can be read.
+     * @param status the status of the tasks to look for.
+     * @param fromLastModificationDate lower bound (inclusive) for the task lastModificationDate. When null, no filtering
+     * by the lastModificationDate is applied.
+     * @param pageSize the max number of rows to read in a single query. Note that a task returns one row per each
+     * potential owner.
+     * @param inputVariablesReadMode determines if the task input variables must be loaded.
+     * @param pageConsumer consumer for the tasks of every page. The pages are delivered in taskId order and a task is
+     * never split between two pages.
+     */
+    void streamTasks(List<TaskStatus> status,
+                     LocalDateTime fromLastModificationDate,
+                     int pageSize,
+                     TaskInputVariablesReadMode inputVariablesReadMode,
+                     Consumer<List<TaskInfo>> pageConsumer);
+
+    /**
+     * Streaming version of the findTasksStatus method. The tasks are read page by page with a keyset pagination on the
+     * taskId, and every page is passed to the pageConsumer as soon as it's read.
+     * @param status the status of the tasks to look for.
+     * @param fromLastModificationDate lower bound (inclusive) for the task lastModificationDate. When null, no filtering
+     * by the lastModificationDate is applied.
+     * @param pageSize the max number of tasks to read in a single query.
+     * @param pageConsumer consumer for the tasks of every page. The pages are delivered in taskId order.
+     */
+    void streamTasksStatus(List<TaskStatus> status,
+                           LocalDateTime fromLastModificationDate,
+                           int pageSize,
+                           Consumer<List<TaskInfo>> pageConsumer);
+
+    /**
+     * Applies the planning into the jBPM runtime. Every task is delegated to the assigned user, unless it's already
+     * reserved by that user, and the planning parameters are updated if they have changed.
+     * @param planningInfos the planning to apply.
+     * @param userId the user in which behalf the planning is applied.
+     * @return a list with one TaskPlanningResult per each planningInfo, with the outcome for the given task. A failure
+     * while applying the planning for a task, or for a batch of tasks, is reported as an ERROR result for the affected
+     * tasks, and the results of the remaining tasks are still returned.
+     */
     List<TaskPlanningResult> applyPlanning(List<TaskPlanningInfo> planningInfos, String userId);
+
+    /**
+     * Releases the resources held by the client, e.g. the threads used for applying the planning. The client must not
+     * be used after this method is invoked.
+     */
+    void close();
 }
@@ -22,8 +22,20 @@ import java.util.Set;
 
 public class TaskInfo {
 
+    /**
+     * Name of the task input variable with the skills required by the task, a comma separated list of values.
+     */
+    public static final String SKILLS_INPUT_VARIABLE = "skills";
+
+    /**
+     * Name of the task input variable with the affinities desired by the task, a comma separated list of values.
+     */
+    public static final String AFFINITIES_INPUT_VARIABLE = "affinities";
+
     private long taskId;
     private LocalDateTime createdOn;
+    private LocalDateTime activationTime;
+    private LocalDateTime dueDate;
     private long processInstanceId;
     private String processId;
     private String containerId;
@@ -52,6 +64,22 @@ public class TaskInfo {
         this.createdOn = createdOn;
     }
 
+    public LocalDateTime getActivationTime() {
+        return activationTime;
+    }
+
+    public void setActivationTime(LocalDateTime activationTime) {
+        this.activationTime = activationTime;
+    }
+
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDateTime dueDate) {
+        this.dueDate = dueDate;
+    }
+
     public long getProcessInstanceId() {
         return processInstanceId;
     }
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.process.runtime.integration.client;
+
+/**
+ * Determines how the task input variables are populated when the tasks are read from the jBPM runtime.
+ */
+public enum TaskInputVariablesReadMode {
+
+    /**
+     * The task input variables are not read, TaskInfo.getInputData() returns null. Recommended when no constraint
+     * depends on the task input variables since it saves a considerable amount of data transfer.
+     */
+    DONT_READ,
+
+    /**
+     * The task input variables are read in bulk for all the tasks from the task variables log. Since the log stores
+     * the String representation of the variables, all the values are returned as Strings.
+     */
+    READ_FOR_ALL,
+
+    /**
+     * Only the task input variables with the task labels, see TaskInfo.SKILLS_INPUT_VARIABLE and
+     * TaskInfo.AFFINITIES_INPUT_VARIABLE, are read in bulk for all the tasks. The remaining input variables are not
+     * present in TaskInfo.getInputData().
+     */
+    READ_LABELS
+}
@@ -16,6 +16,75 @@
 
 package org.jbpm.task.assigning.process.runtime.integration.client;
 
+/**
+ * Keeps the outcome of applying the planning for a given task into the jBPM engine.
+ */
 public class TaskPlanningResult {
 
+    public enum Status {
+        /**
+         * The task was delegated to the assigned user and/or the planning parameters were updated.
+         */
+        APPLIED,
+        /**
+         * The task was already assigned to the assigned user and the planning parameters were up to date, nothing
+         * had to be done.
+         */
+        UNCHANGED,
+        /**
+         * The task is no longer in a status where the planning can be applied, e.g. it was started or completed in
+         * the meantime.
+         */
+        SKIPPED,
+        /**
+         * An error was produced while applying the planning.
+         */
+        ERROR
+    }
+
+    private long taskId;
+    private String containerId;
+    private Status status;
+    private Exception error;
+
+    public TaskPlanningResult(long taskId, String containerId, Status status) {
+        this(taskId, containerId, status, null);
+    }
+
+    public TaskPlanningResult(long taskId, String containerId, Status status, Exception error) {
+        this.taskId = taskId;
+        this.containerId = containerId;
+        this.status = status;
+        this.error = error;
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    public String getContainerId() {
+        return containerId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean hasError() {
+        return status == Status.ERROR;
+    }
+
+    public Exception getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskPlanningResult{" +
+                "taskId=" + taskId +
+                ", containerId='" + containerId + '\'' +
+                ", status=" + status +
+                ", error=" + error +
+                '}';
+    }
 }
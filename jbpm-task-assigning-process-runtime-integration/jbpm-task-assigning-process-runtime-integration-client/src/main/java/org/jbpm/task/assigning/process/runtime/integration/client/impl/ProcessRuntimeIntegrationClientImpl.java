@@ -26,9 +26,16 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -37,6 +44,7 @@ import org.jbpm.task.assigning.process.runtime.integration.client.PlanningParame
 import org.jbpm.task.assigning.process.runtime.integration.client.PotentialOwner;
 import org.jbpm.task.assigning.process.runtime.integration.client.ProcessRuntimeIntegrationClient;
 import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskInputVariablesReadMode;
 import org.jbpm.task.assigning.process.runtime.integration.client.TaskPlanningInfo;
 import org.jbpm.task.assigning.process.runtime.integration.client.TaskPlanningResult;
 import org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus;
@@ -52,9 +60,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
+import static org.jbpm.task.assigning.process.runtime.integration.client.impl.ProcessRuntimeIntegrationClientImpl.TASK_QUERY_COLUMN.ACTIVATION_TIME;
 import static org.jbpm.task.assigning.process.runtime.integration.client.impl.ProcessRuntimeIntegrationClientImpl.TASK_QUERY_COLUMN.ACTUAL_OWNER;
 import static org.jbpm.task.assigning.process.runtime.integration.client.impl.ProcessRuntimeIntegrationClientImpl.TASK_QUERY_COLUMN.CREATED_ON;
 import static org.jbpm.task.assigning.process.runtime.integration.client.impl.ProcessRuntimeIntegrationClientImpl.TASK_QUERY_COLUMN.DEPLOYMENT_ID;
+import static org.jbpm.task.assigning.process.runtime.integration.client.impl.ProcessRuntimeIntegrationClientImpl.TASK_QUERY_COLUMN.DUE_DATE;
 import static org.jbpm.task.assigning.process.runtime.integration.client.impl.ProcessRuntimeIntegrationClientImpl.TASK_QUERY_COLUMN.LAST_MODIFICATION_DATE;
 import static org.jbpm.task.assigning.process.runtime.integration.client.impl.ProcessRuntimeIntegrationClientImpl.TASK_QUERY_COLUMN.POTENTIAL_OWNER_ID;
 import static org.jbpm.task.assigning.process.runtime.integration.client.impl.ProcessRuntimeIntegrationClientImpl.TASK_QUERY_COLUMN.PRIORITY;
@@ -68,9 +78,49 @@ public class ProcessRuntimeIntegrationClientImpl implements ProcessRuntimeIntegr
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProcessRuntimeIntegrationClient.class);
 
+    private static final String TASK_VARIABLES_QUERY = "jbpm-task-assigning-task-variables";
+
+    /**
+     * Max number of tasks for which the variables are read in a single query.
+     */
+    private static final int TASK_VARIABLES_BATCH_SIZE = 500;
+
+    private static final int TASK_VARIABLES_PAGE_SIZE = 10000;
+
+    /**
+     * Max number of rows read per query when the tasks are streamed, e.g. for applying the planning.
+     */
+    private static final int TASKS_PAGE_SIZE = 10000;
+
+    /**
+     * Max number of threads used for applying the planning, each thread typically executes the delegateTask and
+     * saveTaskContent remote invocations for a batch of tasks.
+     */
+    public static final String APPLY_PLANNING_THREADS_PROPERTY = "org.jbpm.task.assigning.applyPlanning.threads";
+
+    /**
+     * Max number of tasks, all belonging to the same container, that are processed by a thread as a unit of work.
+     */
+    public static final String APPLY_PLANNING_BATCH_SIZE_PROPERTY = "org.jbpm.task.assigning.applyPlanning.batchSize";
+
+    private static final int DEFAULT_APPLY_PLANNING_THREADS = 4;
+
+    private static final int DEFAULT_APPLY_PLANNING_BATCH_SIZE = 50;
+
+    private static final String TASK_VARIABLES_NAME_COLUMN = "name";
+
+    private static final String TASK_VARIABLES_ID_COLUMN = "id";
+
     private UserTaskServicesClient userTaskServicesClient;
     private QueryServicesClient queryServicesClient;
 
+    /**
+     * Executor for applying the planning, it lives as long as the client. The bounded queue plus the caller runs
+     * policy ensures that no more work than the threads can process is accepted, when the queue is full the calling
+     * thread processes the batch by itself. The idle threads are released after the keep alive time.
+     */
+    private final ThreadPoolExecutor applyPlanningExecutor;
+
     protected enum POTENTIAL_OWNER_TYPE {
         USER("User"),
         GROUP("Group");
@@ -189,9 +239,100 @@ public class ProcessRuntimeIntegrationClientImpl implements ProcessRuntimeIntegr
 
     }
 
+    /**
+     * Represents the columns returned by the "jbpm-task-assigning-task-status" query.
+     * This enum must be kept in sync with any change made in this query.
+     */
+    protected enum TASK_STATUS_QUERY_COLUMN {
+        /**
+         * A Long value with the taskId. Is never null.
+         */
+        TASK_ID,
+
+        /**
+         * A String with the deploymentId (containerId) to where the task belong. Is never null.
+         */
+        DEPLOYMENT_ID,
+
+        /**
+         * A String value with the task status. Is never null.
+         */
+        STATUS,
+
+        /**
+         * A time stamp without time zone with the task last modification date. Is never null.
+         */
+        LAST_MODIFICATION_DATE,
+
+        /**
+         * A time stamp without time zone with the task activation date/time. Can be null.
+         */
+        ACTIVATION_TIME,
+
+        /**
+         * A String with the process identifier. Is never null.
+         */
+        PROCESS_ID,
+
+        /**
+         * A String with the task name. Is never null.
+         */
+        TASK_NAME,
+
+        /**
+         * A String with the task actual owner id. Can be null.
+         */
+        ACTUAL_OWNER
+    }
+
+    /**
+     * Represents the columns returned by the "jbpm-task-assigning-task-variables" query.
+     * This enum must be kept in sync with any change made in this query.
+     */
+    protected enum TASK_VARIABLES_QUERY_COLUMN {
+        /**
+         * A Long value with the taskId. Is never null.
+         */
+        TASK_ID,
+
+        /**
+         * A String with the variable name. Is never null.
+         */
+        NAME,
+
+        /**
+         * A String with the String representation of the variable value. Can be null.
+         */
+        VALUE,
+
+        /**
+         * The variable type, 0 (or "INPUT") for the input variables, 1 (or "OUTPUT") for the output variables.
+         * Is never null.
+         */
+        TYPE,
+
+        /**
+         * A Long value with the identifier of the variable log row, the greater the newer. Is never null.
+         */
+        ID
+    }
+
     public ProcessRuntimeIntegrationClientImpl(UserTaskServicesClient userTaskServicesClient, QueryServicesClient queryServicesClient) {
         this.userTaskServicesClient = userTaskServicesClient;
         this.queryServicesClient = queryServicesClient;
+        final int threads = Math.max(1, Integer.getInteger(APPLY_PLANNING_THREADS_PROPERTY, DEFAULT_APPLY_PLANNING_THREADS));
+        this.applyPlanningExecutor = new ThreadPoolExecutor(threads,
+                                                            threads,
+                                                            60L,
+                                                            TimeUnit.SECONDS,
+                                                            new ArrayBlockingQueue<>(threads),
+                                                            (runnable, executor) -> {
+                                                                if (executor.isShutdown()) {
+                                                                    throw new RejectedExecutionException("Client was already closed.");
+                                                                }
+                                                                runnable.run();
+                                                            });
+        this.applyPlanningExecutor.allowCoreThreadTimeOut(true);
         init();
     }
 
@@ -201,34 +342,212 @@ public class ProcessRuntimeIntegrationClientImpl implements ProcessRuntimeIntegr
                                  .withStatusIn(status)
                                  .build(),
                          page,
-                         pageSize);
+                         pageSize,
+                         TaskInputVariablesReadMode.READ_FOR_ALL);
+    }
+
+    @Override
+    public List<TaskInfo> findTasks(List<TaskStatus> status, LocalDateTime fromLastModificationDate, Integer page, Integer pageSize,
+                                    TaskInputVariablesReadMode inputVariablesReadMode) {
+        return findTasks(new FindTasksQueryFilterSpecBuilder()
+                                 .withStatusIn(status)
+                                 .fromLastModificationDate(fromLastModificationDate)
+                                 .build(),
+                         page,
+                         pageSize,
+                         inputVariablesReadMode);
+    }
+
+    @Override
+    public List<TaskInfo> findTasksStatus(List<TaskStatus> status, LocalDateTime fromLastModificationDate, Integer page, Integer pageSize) {
+        final QueryFilterSpec queryFilter = new FindTasksQueryFilterSpecBuilder()
+                .withStatusIn(status)
+                .fromLastModificationDate(fromLastModificationDate)
+                .build();
+        final List rawList = queryServicesClient.query("jbpm-task-assigning-task-status",
+                                                       "RawList",
+                                                       queryFilter,
+                                                       page,
+                                                       pageSize,
+                                                       List.class);
+        return toTaskStatusInfos(rawList);
+    }
+
+    @Override
+    public void streamTasks(List<TaskStatus> status,
+                            LocalDateTime fromLastModificationDate,
+                            int pageSize,
+                            TaskInputVariablesReadMode inputVariablesReadMode,
+                            Consumer<List<TaskInfo>> pageConsumer) {
+        streamTasks(new FindTasksQueryFilterSpecBuilder()
+                            .withStatusIn(status)
+                            .fromLastModificationDate(fromLastModificationDate),
+                    pageSize,
+                    inputVariablesReadMode,
+                    pageConsumer);
+    }
+
+    @Override
+    public void streamTasksStatus(List<TaskStatus> status,
+                                  LocalDateTime fromLastModificationDate,
+                                  int pageSize,
+                                  Consumer<List<TaskInfo>> pageConsumer) {
+        final FindTasksQueryFilterSpecBuilder filterBuilder = new FindTasksQueryFilterSpecBuilder()
+                .withStatusIn(status)
+                .fromLastModificationDate(fromLastModificationDate);
+        List<TaskInfo> taskInfos;
+        do {
+            // one row per task, so the next page simply starts after the last read task.
+            taskInfos = toTaskStatusInfos(queryServicesClient.query("jbpm-task-assigning-task-status",
+                                                                    "RawList",
+                                                                    filterBuilder.build(),
+                                                                    0,
+                                                                    pageSize,
+                                                                    List.class));
+            if (!taskInfos.isEmpty()) {
+                filterBuilder.fromTaskId(taskInfos.get(taskInfos.size() - 1).getTaskId() + 1);
+                pageConsumer.accept(taskInfos);
+            }
+        } while (taskInfos.size() == pageSize);
+    }
+
+    private List<TaskInfo> toTaskStatusInfos(List rawList) {
+        final List<TaskInfo> result = new ArrayList<>();
+        List<Object> row;
+        TaskInfo taskInfo;
+        for (Object o : rawList) {
+            row = (List<Object>) o;
+            taskInfo = new TaskInfo();
+            taskInfo.setTaskId(toLong(row.get(TASK_STATUS_QUERY_COLUMN.TASK_ID.ordinal())));
+            taskInfo.setContainerId(toString(row.get(TASK_STATUS_QUERY_COLUMN.DEPLOYMENT_ID.ordinal())));
+            taskInfo.setStatus(TaskStatus.valueOf(toString(row.get(TASK_STATUS_QUERY_COLUMN.STATUS.ordinal()))));
+            taskInfo.setLastModificationDate(toLocalDateTime(row.get(TASK_STATUS_QUERY_COLUMN.LAST_MODIFICATION_DATE.ordinal())));
+            taskInfo.setActivationTime(toLocalDateTime(row.get(TASK_STATUS_QUERY_COLUMN.ACTIVATION_TIME.ordinal())));
+            taskInfo.setProcessId(toString(row.get(TASK_STATUS_QUERY_COLUMN.PROCESS_ID.ordinal())));
+            taskInfo.setName(toString(row.get(TASK_STATUS_QUERY_COLUMN.TASK_NAME.ordinal())));
+            taskInfo.setActualOwner(toString(row.get(TASK_STATUS_QUERY_COLUMN.ACTUAL_OWNER.ordinal())));
+            result.add(taskInfo);
+        }
+        return result;
     }
 
     @Override
     public List<TaskPlanningResult> applyPlanning(List<TaskPlanningInfo> planningInfos, String userId) {
+        if (planningInfos.isEmpty()) {
+            return Collections.emptyList();
+        }
         long minTaskId = planningInfos.stream().mapToLong(TaskPlanningInfo::getTaskId).min().orElse(0);
         long maxTaskId = planningInfos.stream().mapToLong(TaskPlanningInfo::getTaskId).max().orElse(0);
 
-        final Map<Long, TaskPlanningInfo> taskToPlanningInfo = planningInfos.stream()
-                .collect(Collectors.toMap(TaskPlanningInfo::getTaskId, Function.identity()));
+        final Map<Long, TaskInfo> taskInfoById = new HashMap<>();
+        streamTasks(new FindTasksQueryFilterSpecBuilder()
+                            .withStatusIn(Arrays.asList(TaskStatus.Ready, TaskStatus.Reserved))
+                            .fromTaskId(minTaskId)
+                            .toTaskId(maxTaskId),
+                    TASKS_PAGE_SIZE,
+                    TaskInputVariablesReadMode.DONT_READ,
+                    taskInfos -> taskInfos.forEach(taskInfo -> taskInfoById.put(taskInfo.getTaskId(), taskInfo)));
+
+        // group the tasks by container and split them into batches, every batch is a unit of work.
+        final int batchSize = Integer.getInteger(APPLY_PLANNING_BATCH_SIZE_PROPERTY, DEFAULT_APPLY_PLANNING_BATCH_SIZE);
+        final Map<String, List<TaskPlanningInfo>> planningInfosByContainer = planningInfos.stream()
+                .collect(Collectors.groupingBy(TaskPlanningInfo::getContainerId, LinkedHashMap::new, Collectors.toList()));
+        final List<List<TaskPlanningInfo>> batches = new ArrayList<>();
+        for (List<TaskPlanningInfo> containerPlanningInfos : planningInfosByContainer.values()) {
+            for (int from = 0; from < containerPlanningInfos.size(); from += batchSize) {
+                batches.add(containerPlanningInfos.subList(from, Math.min(from + batchSize, containerPlanningInfos.size())));
+            }
+        }
+        if (batches.size() == 1) {
+            return applyPlanning(batches.get(0), taskInfoById, userId);
+        }
 
-        final List<TaskInfo> taskInfos = findTasks(minTaskId,
-                                                   maxTaskId,
-                                                   Arrays.asList(TaskStatus.Ready, TaskStatus.Reserved),
-                                                   0,
-                                                   100000);
-        TaskPlanningInfo planningInfo;
-        for (TaskInfo taskInfo : taskInfos) {
-            planningInfo = taskToPlanningInfo.get(taskInfo.getTaskId());
-            if (planningInfo != null) {
-                userTaskServicesClient.delegateTask(planningInfo.getContainerId(), planningInfo.getTaskId(), userId, planningInfo.getPlanningParameters().getAssignedUser());
-                if (!planningInfo.getPlanningParameters().equals(taskInfo.getPlanningParameters())) {
-                    updatePlanningParameters(taskInfo.getContainerId(), taskInfo.getTaskId(), planningInfo.getPlanningParameters());
+        final List<Future<List<TaskPlanningResult>>> futures = new ArrayList<>();
+        for (List<TaskPlanningInfo> batch : batches) {
+            futures.add(applyPlanningExecutor.submit(() -> applyPlanning(batch, taskInfoById, userId)));
+        }
+        // a failed batch must not discard the results of the others, its tasks are reported as ERROR instead.
+        final List<TaskPlanningResult> result = new ArrayList<>(planningInfos.size());
+        boolean interrupted = false;
+        for (int i = 0; i < futures.size(); i++) {
+            final Future<List<TaskPlanningResult>> future = futures.get(i);
+            try {
+                if (interrupted) {
+                    future.cancel(true);
+                    result.addAll(toErrorResults(batches.get(i), new InterruptedException("Planning application was interrupted.")));
+                } else {
+                    result.addAll(future.get());
                 }
+            } catch (InterruptedException e) {
+                interrupted = true;
+                future.cancel(true);
+                result.addAll(toErrorResults(batches.get(i), e));
+            } catch (ExecutionException e) {
+                final Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                LOGGER.error("An error was produced during planning application for a batch of " + batches.get(i).size() + " tasks.", cause);
+                result.addAll(toErrorResults(batches.get(i), cause));
             }
         }
-        //TODO analyze if in the end we'll return something here
-        return Collections.emptyList();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+
+    private static List<TaskPlanningResult> toErrorResults(List<TaskPlanningInfo> planningInfos, Exception error) {
+        return planningInfos.stream()
+                .map(planningInfo -> new TaskPlanningResult(planningInfo.getTaskId(),
+                                                            planningInfo.getContainerId(),
+                                                            TaskPlanningResult.Status.ERROR,
+                                                            error))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void close() {
+        applyPlanningExecutor.shutdown();
+        try {
+            if (!applyPlanningExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                applyPlanningExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            LOGGER.debug("An exception was thrown during applyPlanningExecutor graceful termination.", e);
+            applyPlanningExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<TaskPlanningResult> applyPlanning(List<TaskPlanningInfo> planningInfos, Map<Long, TaskInfo> taskInfoById, String userId) {
+        final List<TaskPlanningResult> result = new ArrayList<>(planningInfos.size());
+        for (TaskPlanningInfo planningInfo : planningInfos) {
+            result.add(applyPlanning(planningInfo, taskInfoById.get(planningInfo.getTaskId()), userId));
+        }
+        return result;
+    }
+
+    private TaskPlanningResult applyPlanning(TaskPlanningInfo planningInfo, TaskInfo taskInfo, String userId) {
+        if (taskInfo == null) {
+            return new TaskPlanningResult(planningInfo.getTaskId(), planningInfo.getContainerId(), TaskPlanningResult.Status.SKIPPED);
+        }
+        final PlanningParameters planningParameters = planningInfo.getPlanningParameters();
+        boolean applied = false;
+        try {
+            if (taskInfo.getStatus() != TaskStatus.Reserved || !planningParameters.getAssignedUser().equals(taskInfo.getActualOwner())) {
+                userTaskServicesClient.delegateTask(planningInfo.getContainerId(), planningInfo.getTaskId(), userId, planningParameters.getAssignedUser());
+                applied = true;
+            }
+            if (!planningParameters.equals(taskInfo.getPlanningParameters())) {
+                updatePlanningParameters(taskInfo.getContainerId(), taskInfo.getTaskId(), planningParameters);
+                applied = true;
+            }
+            return new TaskPlanningResult(planningInfo.getTaskId(),
+                                          planningInfo.getContainerId(),
+                                          applied ? TaskPlanningResult.Status.APPLIED : TaskPlanningResult.Status.UNCHANGED);
+        } catch (Exception e) {
+            LOGGER.error(String.format("An error was produced during planning application for task: %s, containerId: %s",
+                                       planningInfo.getTaskId(), planningInfo.getContainerId()), e);
+            return new TaskPlanningResult(planningInfo.getTaskId(), planningInfo.getContainerId(), TaskPlanningResult.Status.ERROR, e);
+        }
     }
 
     private void init() {
@@ -239,22 +558,15 @@ public class ProcessRuntimeIntegrationClientImpl implements ProcessRuntimeIntegr
         userTaskServicesClient.saveTaskContent(containerId, taskId, toMap(planningParameters));
     }
 
-    private List<TaskInfo> findTasks(Long fromTaskId, Long toTaskId, List<TaskStatus> status, Integer page, Integer pageSize) {
-        return findTasks(new FindTasksQueryFilterSpecBuilder()
-                                 .withStatusIn(status)
-                                 .fromTaskId(fromTaskId)
-                                 .toTaskId(toTaskId).build(),
-                         page,
-                         pageSize);
-    }
-
     private static class FindTasksQueryFilterSpecBuilder {
 
         private Long fromTaskId;
         private Long toTaskId;
         private List<TaskStatus> statusIn;
-        private static final String TASK_ID_COLUMN = "taskId";
+        private LocalDateTime fromLastModificationDate;
+        static final String TASK_ID_COLUMN = "taskId";
         private static final String STATUS_COLUMN = "status";
+        private static final String LAST_MODIFICATION_DATE_COLUMN = "lastModificationDate";
 
         private FindTasksQueryFilterSpecBuilder() {
         }
@@ -274,6 +586,11 @@ public class ProcessRuntimeIntegrationClientImpl implements ProcessRuntimeIntegr
             return this;
         }
 
+        private FindTasksQueryFilterSpecBuilder fromLastModificationDate(LocalDateTime lastModificationDate) {
+            this.fromLastModificationDate = lastModificationDate;
+            return this;
+        }
+
         private QueryFilterSpec build() {
             final QueryFilterSpecBuilder builder = new QueryFilterSpecBuilder();
             if (statusIn != null && !statusIn.isEmpty()) {
@@ -286,18 +603,60 @@ public class ProcessRuntimeIntegrationClientImpl implements ProcessRuntimeIntegr
             } else if (toTaskId != null) {
                 builder.lowerOrEqualTo(TASK_ID_COLUMN, toTaskId);
             }
+            if (fromLastModificationDate != null) {
+                builder.greaterOrEqualTo(LAST_MODIFICATION_DATE_COLUMN, toDate(fromLastModificationDate));
+            }
             builder.oderBy(TASK_ID_COLUMN, true);
             return builder.get();
         }
     }
 
-    private List<TaskInfo> findTasks(QueryFilterSpec queryFilter, Integer page, Integer pageSize) {
-        final List rawList = queryServicesClient.query("jbpm-task-assigning-human-task-with-user",
-                                                       "RawList",
-                                                       queryFilter,
-                                                       page,
-                                                       pageSize,
-                                                       List.class);
+    private List<TaskInfo> findTasks(QueryFilterSpec queryFilter, Integer page, Integer pageSize, TaskInputVariablesReadMode inputVariablesReadMode) {
+        final List<TaskInfo> result = toTaskInfos(queryTasks(queryFilter, page, pageSize));
+        loadTaskVariables(result, inputVariablesReadMode);
+        return result;
+    }
+
+    /**
+     * Reads the tasks with a keyset pagination on the taskId, the filterBuilder lower bound for the taskId is moved
+     * forward after each page. Since the query returns one row per each task potential owner, the last task of a full
+     * page might continue in the next one, so it's not delivered and the next page starts from it.
+     */
+    private void streamTasks(FindTasksQueryFilterSpecBuilder filterBuilder,
+                             int pageSize,
+                             TaskInputVariablesReadMode inputVariablesReadMode,
+                             Consumer<List<TaskInfo>> pageConsumer) {
+        boolean lastPage;
+        do {
+            final List rawList = queryTasks(filterBuilder.build(), 0, pageSize);
+            final List<TaskInfo> taskInfos = toTaskInfos(rawList);
+            lastPage = rawList.size() < pageSize;
+            if (!lastPage) {
+                if (taskInfos.size() > 1) {
+                    filterBuilder.fromTaskId(taskInfos.remove(taskInfos.size() - 1).getTaskId());
+                } else {
+                    LOGGER.warn(String.format("Task %s has more than %s potential owners, and only the first ones were read.",
+                                              taskInfos.get(0).getTaskId(), pageSize));
+                    filterBuilder.fromTaskId(taskInfos.get(0).getTaskId() + 1);
+                }
+            }
+            if (!taskInfos.isEmpty()) {
+                loadTaskVariables(taskInfos, inputVariablesReadMode);
+                pageConsumer.accept(taskInfos);
+            }
+        } while (!lastPage);
+    }
+
+    private List queryTasks(QueryFilterSpec queryFilter, Integer page, Integer pageSize) {
+        return queryServicesClient.query("jbpm-task-assigning-human-task-with-user",
+                                         "RawList",
+                                         queryFilter,
+                                         page,
+                                         pageSize,
+                                         List.class);
+    }
+
+    private List<TaskInfo> toTaskInfos(List rawList) {
         final List<TaskInfo> result = new ArrayList<>();
         List<Object> row;
         long previousTaskId = -1;
@@ -317,6 +676,8 @@ public class ProcessRuntimeIntegrationClientImpl implements ProcessRuntimeIntegr
 
                 taskInfo.setTaskId(taskId);
                 taskInfo.setCreatedOn(toLocalDateTime(row.get(CREATED_ON.ordinal())));
+                taskInfo.setActivationTime(toLocalDateTime(row.get(ACTIVATION_TIME.ordinal())));
+                taskInfo.setDueDate(toLocalDateTime(row.get(DUE_DATE.ordinal())));
                 taskInfo.setProcessInstanceId(toLong(row.get(PROCESS_INSTANCE_ID.ordinal())));
                 taskInfo.setProcessId(toString(row.get(PROCESS_ID.ordinal())));
                 taskInfo.setContainerId(toString(row.get(DEPLOYMENT_ID.ordinal())));
@@ -328,10 +689,6 @@ public class ProcessRuntimeIntegrationClientImpl implements ProcessRuntimeIntegr
                 if (isNotEmpty(actualOwner)) {
                     taskInfo.setActualOwner(actualOwner);
                 }
-                taskInfo.setInputData(userTaskServicesClient.getTaskInputContentByTaskId(taskInfo.getContainerId(), taskId));
-                //TODO use another repository for storing this information.
-                taskInfo.setPlanningParameters(fromMap(userTaskServicesClient.getTaskOutputContentByTaskId(taskInfo.getContainerId(), taskId)));
-
                 result.add(taskInfo);
             }
 
@@ -344,6 +701,88 @@ public class ProcessRuntimeIntegrationClientImpl implements ProcessRuntimeIntegr
         return result;
     }
 
+    /**
+     * Loads the planning parameters, and optionally all or only the label input variables, of the given tasks from
+     * the task variables log. The variables are read in batches of TASK_VARIABLES_BATCH_SIZE tasks instead of consuming the task input
+     * and output contents one by one, which costs two remote invocations per task.
+     * <p>
+     * The log keeps a row for every value a variable had, so the rows are ordered by its id, which makes the paging
+     * stable since new rows are always added at the end, and only the newest row of each task variable is kept.
+     */
+    private void loadTaskVariables(List<TaskInfo> taskInfos, TaskInputVariablesReadMode inputVariablesReadMode) {
+        final boolean readAllInputVariables = inputVariablesReadMode == TaskInputVariablesReadMode.READ_FOR_ALL;
+        final boolean readInputVariables = readAllInputVariables || inputVariablesReadMode == TaskInputVariablesReadMode.READ_LABELS;
+        final Map<Long, TaskInfo> taskInfoById = new HashMap<>();
+        final Map<Long, Map<String, Object>> outputVariablesById = new HashMap<>();
+        final Map<Long, Map<String, Long>> variableRowIdsById = new HashMap<>();
+        for (TaskInfo taskInfo : taskInfos) {
+            taskInfoById.put(taskInfo.getTaskId(), taskInfo);
+            if (readInputVariables) {
+                taskInfo.setInputData(new HashMap<>());
+            }
+        }
+        final Stream<String> planningParameterNames = Stream.of(PLANNING_PARAMETER.values())
+                .map(PLANNING_PARAMETER::paramName);
+        final String[] variableNames = (readInputVariables ?
+                Stream.concat(planningParameterNames, Stream.of(TaskInfo.SKILLS_INPUT_VARIABLE, TaskInfo.AFFINITIES_INPUT_VARIABLE)) :
+                planningParameterNames).toArray(String[]::new);
+        final List<Long> taskIds = new ArrayList<>(taskInfoById.keySet());
+        for (int from = 0; from < taskIds.size(); from += TASK_VARIABLES_BATCH_SIZE) {
+            final List<Long> batch = taskIds.subList(from, Math.min(from + TASK_VARIABLES_BATCH_SIZE, taskIds.size()));
+            final QueryFilterSpecBuilder builder = new QueryFilterSpecBuilder()
+                    .equalsTo(FindTasksQueryFilterSpecBuilder.TASK_ID_COLUMN, batch.toArray(new Long[0]));
+            if (!readAllInputVariables) {
+                builder.equalsTo(TASK_VARIABLES_NAME_COLUMN, variableNames);
+            }
+            builder.oderBy(TASK_VARIABLES_ID_COLUMN, true);
+            final QueryFilterSpec queryFilter = builder.get();
+            int page = 0;
+            List rawList;
+            do {
+                rawList = queryServicesClient.query(TASK_VARIABLES_QUERY,
+                                                    "RawList",
+                                                    queryFilter,
+                                                    page++,
+                                                    TASK_VARIABLES_PAGE_SIZE,
+                                                    List.class);
+                List<Object> row;
+                long taskId;
+                long rowId;
+                for (Object o : rawList) {
+                    row = (List<Object>) o;
+                    taskId = toLong(row.get(TASK_VARIABLES_QUERY_COLUMN.TASK_ID.ordinal()));
+                    final String name = toString(row.get(TASK_VARIABLES_QUERY_COLUMN.NAME.ordinal()));
+                    final String value = toString(row.get(TASK_VARIABLES_QUERY_COLUMN.VALUE.ordinal()));
+                    final boolean input = isInputVariable(row.get(TASK_VARIABLES_QUERY_COLUMN.TYPE.ordinal()));
+                    rowId = toLong(row.get(TASK_VARIABLES_QUERY_COLUMN.ID.ordinal()));
+                    final Map<String, Long> rowIds = variableRowIdsById.computeIfAbsent(taskId, id -> new HashMap<>());
+                    final String variableKey = (input ? "in:" : "out:") + name;
+                    final Long previousRowId = rowIds.get(variableKey);
+                    if (previousRowId != null && previousRowId > rowId) {
+                        // an older value of an already read variable.
+                        continue;
+                    }
+                    rowIds.put(variableKey, rowId);
+                    if (input) {
+                        if (readInputVariables) {
+                            taskInfoById.get(taskId).getInputData().put(name, value);
+                        }
+                    } else {
+                        outputVariablesById.computeIfAbsent(taskId, id -> new HashMap<>()).put(name, value);
+                    }
+                }
+            } while (rawList.size() == TASK_VARIABLES_PAGE_SIZE);
+        }
+        outputVariablesById.forEach((taskId, outputVariables) -> taskInfoById.get(taskId).setPlanningParameters(fromMap(outputVariables)));
+    }
+
+    private static boolean isInputVariable(Object type) {
+        if (type instanceof Number) {
+            return ((Number) type).intValue() == 0;
+        }
+        return "INPUT".equals(toString(type));
+    }
+
     private void registerQueries() {
         try (InputStream stream = this.getClass().getResourceAsStream("/jbpm-task-assigning-query-definitions.json")) {
             if (stream == null) {
@@ -413,6 +852,10 @@ public class ProcessRuntimeIntegrationClientImpl implements ProcessRuntimeIntegr
         throw new RuntimeException(String.format("Unexpected type %s for toLocalDateTime conversion.", value.getClass()));
     }
 
+    private static Date toDate(LocalDateTime value) {
+        return Date.from(value.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
     private static String toString(Object value) {
         return value != null ? value.toString() : null;
     }
@@ -0,0 +1,582 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.process.runtime.integration.client.impl;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import org.jbpm.task.assigning.process.runtime.integration.client.PlanningParameters;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskInputVariablesReadMode;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskPlanningInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskPlanningResult;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.kie.server.api.model.definition.QueryFilterSpec;
+import org.kie.server.api.model.definition.QueryParam;
+import org.kie.server.client.QueryServicesClient;
+import org.kie.server.client.UserTaskServicesClient;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.jbpm.task.assigning.process.runtime.integration.client.impl.ProcessRuntimeIntegrationClientImpl.APPLY_PLANNING_BATCH_SIZE_PROPERTY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the queries and the remote invocations performed by the ProcessRuntimeIntegrationClientImpl against mocked
+ * kie-server clients. The mocked queries return the rows configured by each test and honor the paging and the taskId
+ * filters, in the same way as the kie-server does.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ProcessRuntimeIntegrationClientImplMockedTest {
+
+    private static final String TASKS_QUERY = "jbpm-task-assigning-human-task-with-user";
+    private static final String TASK_STATUS_QUERY = "jbpm-task-assigning-task-status";
+    private static final String TASK_VARIABLES_QUERY = "jbpm-task-assigning-task-variables";
+
+    private static final String CONTAINER_ID = "container";
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 1, 1, 12, 0);
+    private static final String ADMIN_USER = "admin";
+
+    @Mock
+    private UserTaskServicesClient userTaskServicesClient;
+
+    @Mock
+    private QueryServicesClient queryServicesClient;
+
+    private ProcessRuntimeIntegrationClientImpl client;
+
+    private final Map<String, List<List<Object>>> rowsByQuery = new HashMap<>();
+
+    /**
+     * The invoked queries in order, with its filter and page.
+     */
+    private final List<ExecutedQuery> executedQueries = new ArrayList<>();
+
+    private static class ExecutedQuery {
+
+        private final String name;
+        private final QueryFilterSpec filter;
+        private final int page;
+        private final int pageSize;
+
+        private ExecutedQuery(String name, QueryFilterSpec filter, int page, int pageSize) {
+            this.name = name;
+            this.filter = filter;
+            this.page = page;
+            this.pageSize = pageSize;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        when(queryServicesClient.query(anyString(), anyString(), any(QueryFilterSpec.class), anyInt(), anyInt(), eq(List.class)))
+                .thenAnswer(invocation -> {
+                    final Object[] arguments = invocation.getArguments();
+                    final ExecutedQuery query = new ExecutedQuery((String) arguments[0],
+                                                                  (QueryFilterSpec) arguments[2],
+                                                                  (Integer) arguments[3],
+                                                                  (Integer) arguments[4]);
+                    executedQueries.add(query);
+                    return execute(query);
+                });
+        client = new ProcessRuntimeIntegrationClientImpl(userTaskServicesClient, queryServicesClient);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+    }
+
+    @Test
+    public void loadNewestTaskVariablesTest() {
+        addTask(1L, TaskStatus.Ready, "group1");
+        // rows are returned out of order on purpose, only the newest value of each variable must be kept.
+        addVariable(1L, 4L, "planning_param_assigned_user", "user2", false);
+        addVariable(1L, 2L, "planning_param_assigned_user", "user1", false);
+        addVariable(1L, 3L, "planning_param_pinned", "true", false);
+        addVariable(1L, 7L, "skills", "skill1,skill2", true);
+        addVariable(1L, 5L, "skills", "skill1", true);
+        // an output variable with the same name than an input variable is not mixed with it.
+        addVariable(1L, 6L, "skills", "skill3", false);
+
+        List<TaskInfo> result = client.findTasks(Collections.singletonList(TaskStatus.Ready), 0, 10);
+        assertEquals(1, result.size());
+        TaskInfo taskInfo = result.get(0);
+        assertEquals("user2", taskInfo.getPlanningParameters().getAssignedUser());
+        assertTrue(taskInfo.getPlanningParameters().isPinned());
+        assertEquals("skill1,skill2", taskInfo.getInputData().get("skills"));
+    }
+
+    @Test
+    public void taskVariablesAreReadInIdOrderTest() {
+        addTask(1L, TaskStatus.Ready, "group1");
+        addTask(2L, TaskStatus.Ready, "group1");
+
+        client.findTasks(Collections.singletonList(TaskStatus.Ready), 0, 10);
+        List<ExecutedQuery> variableQueries = queriesOf(TASK_VARIABLES_QUERY);
+        assertEquals(1, variableQueries.size());
+        QueryFilterSpec filter = variableQueries.get(0).filter;
+        assertEquals("id", filter.getOrderBy());
+        assertTrue(filter.isAscending());
+        assertEquals(Arrays.asList(1L, 2L), sorted(paramOf(filter, "taskId").getValue()));
+    }
+
+    @Test
+    public void taskVariablesPagingTest() {
+        addTask(1L, TaskStatus.Reserved, "user1");
+        // more rows than the variables page size, e.g. a variable that was saved many times.
+        for (long id = 0; id <= 10000; id++) {
+            addVariable(1L, id, "planning_param_assigned_user", "user" + id, false);
+        }
+        List<TaskInfo> result = client.findTasks(Collections.singletonList(TaskStatus.Reserved), 0, 10);
+        assertEquals("user10000", result.get(0).getPlanningParameters().getAssignedUser());
+        List<ExecutedQuery> variableQueries = queriesOf(TASK_VARIABLES_QUERY);
+        assertEquals(2, variableQueries.size());
+        assertEquals(0, variableQueries.get(0).page);
+        assertEquals(1, variableQueries.get(1).page);
+    }
+
+    @Test
+    public void taskWithoutPlanningParametersTest() {
+        addTask(1L, TaskStatus.Ready, "group1");
+        List<TaskInfo> result = client.findTasks(Collections.singletonList(TaskStatus.Ready), 0, 10);
+        assertNull(result.get(0).getPlanningParameters());
+    }
+
+    @Test
+    public void streamTasksFromLastModificationDateTest() {
+        addTask(1L, TaskStatus.Ready, "group1");
+        LocalDateTime fromDate = NOW.minusSeconds(2);
+        List<TaskInfo> result = new ArrayList<>();
+        client.streamTasks(Collections.singletonList(TaskStatus.Ready), fromDate, 10, TaskInputVariablesReadMode.READ_FOR_ALL, result::addAll);
+        assertEquals(1, result.size());
+        List<ExecutedQuery> taskQueries = queriesOf(TASKS_QUERY);
+        assertEquals(1, taskQueries.size());
+        assertLastModificationDateFilter(taskQueries.get(0).filter, fromDate);
+    }
+
+    @Test
+    public void streamTasksStatusFromLastModificationDateTest() {
+        addTask(1L, TaskStatus.Completed, "user1");
+        LocalDateTime fromDate = NOW.minusSeconds(2);
+        List<TaskInfo> result = new ArrayList<>();
+        client.streamTasksStatus(Collections.singletonList(TaskStatus.Completed), fromDate, 10, result::addAll);
+        assertEquals(1, result.size());
+        List<ExecutedQuery> statusQueries = queriesOf(TASK_STATUS_QUERY);
+        assertEquals(1, statusQueries.size());
+        assertLastModificationDateFilter(statusQueries.get(0).filter, fromDate);
+    }
+
+    @Test
+    public void findTasksStatusFromLastModificationDateTest() {
+        addTask(1L, TaskStatus.Completed, "user1");
+        LocalDateTime fromDate = NOW.minusSeconds(2);
+        assertEquals(1, client.findTasksStatus(Collections.singletonList(TaskStatus.Completed), fromDate, 0, 10).size());
+        assertLastModificationDateFilter(queriesOf(TASK_STATUS_QUERY).get(0).filter, fromDate);
+    }
+
+    @Test
+    public void streamTasksWithoutLastModificationDateTest() {
+        addTask(1L, TaskStatus.Ready, "group1");
+        client.streamTasks(Collections.singletonList(TaskStatus.Ready), null, 10, TaskInputVariablesReadMode.READ_FOR_ALL, taskInfos -> {
+        });
+        QueryFilterSpec filter = queriesOf(TASKS_QUERY).get(0).filter;
+        assertTrue(Arrays.stream(filter.getParameters()).noneMatch(param -> "lastModificationDate".equals(param.getColumn())));
+    }
+
+    @Test
+    public void streamTasksRereadsTheLastTaskOfAFullPageTest() {
+        addTask(1L, TaskStatus.Ready, "group1", "group2");
+        addTask(2L, TaskStatus.Ready, "group1", "group2", "group3");
+        List<List<TaskInfo>> pages = new ArrayList<>();
+        // the first page is full and ends in the middle of task 2, so it must be read again in the next page.
+        client.streamTasks(Collections.singletonList(TaskStatus.Ready), null, 4, TaskInputVariablesReadMode.DONT_READ, pages::add);
+        assertEquals(2, pages.size());
+        assertEquals(Collections.singletonList(1L), taskIds(pages.get(0)));
+        assertEquals(Collections.singletonList(2L), taskIds(pages.get(1)));
+        assertEquals(2, pages.get(0).get(0).getPotentialOwners().size());
+        assertEquals(3, pages.get(1).get(0).getPotentialOwners().size());
+
+        List<ExecutedQuery> taskQueries = queriesOf(TASKS_QUERY);
+        assertEquals(2, taskQueries.size());
+        assertNoTaskIdFilter(taskQueries.get(0).filter);
+        assertTaskIdFilter(taskQueries.get(1).filter, 2L);
+    }
+
+    @Test
+    public void streamTasksFullPageWithCompleteTasksTest() {
+        addTask(1L, TaskStatus.Ready, "group1", "group2");
+        addTask(2L, TaskStatus.Ready, "group1", "group2");
+        List<List<TaskInfo>> pages = new ArrayList<>();
+        client.streamTasks(Collections.singletonList(TaskStatus.Ready), null, 4, TaskInputVariablesReadMode.DONT_READ, pages::add);
+        // a full page can't tell if the last task is complete, so it's always read again.
+        assertEquals(2, pages.size());
+        assertEquals(Collections.singletonList(1L), taskIds(pages.get(0)));
+        assertEquals(Collections.singletonList(2L), taskIds(pages.get(1)));
+        assertEquals(2, pages.get(1).get(0).getPotentialOwners().size());
+        assertEquals(2, queriesOf(TASKS_QUERY).size());
+    }
+
+    @Test
+    public void streamTasksWithMorePotentialOwnersThanPageSizeTest() {
+        addTask(1L, TaskStatus.Ready, "group1", "group2", "group3");
+        addTask(2L, TaskStatus.Ready, "group1");
+        List<List<TaskInfo>> pages = new ArrayList<>();
+        client.streamTasks(Collections.singletonList(TaskStatus.Ready), null, 2, TaskInputVariablesReadMode.DONT_READ, pages::add);
+        // only the first potential owners of task 1 fit in a page, the streaming continues with the next task.
+        assertEquals(2, pages.size());
+        assertEquals(Collections.singletonList(1L), taskIds(pages.get(0)));
+        assertEquals(2, pages.get(0).get(0).getPotentialOwners().size());
+        assertEquals(Collections.singletonList(2L), taskIds(pages.get(1)));
+        assertTaskIdFilter(queriesOf(TASKS_QUERY).get(1).filter, 2L);
+    }
+
+    @Test
+    public void streamTasksEmptyTest() {
+        List<List<TaskInfo>> pages = new ArrayList<>();
+        client.streamTasks(Collections.singletonList(TaskStatus.Ready), null, 4, TaskInputVariablesReadMode.DONT_READ, pages::add);
+        assertTrue(pages.isEmpty());
+        assertEquals(1, queriesOf(TASKS_QUERY).size());
+    }
+
+    @Test
+    public void streamTasksStatusPagingTest() {
+        for (long taskId = 1; taskId <= 5; taskId++) {
+            addTask(taskId, TaskStatus.Completed, "user1");
+        }
+        List<List<TaskInfo>> pages = new ArrayList<>();
+        client.streamTasksStatus(Collections.singletonList(TaskStatus.Completed), null, 2, pages::add);
+        assertEquals(3, pages.size());
+        assertEquals(Arrays.asList(1L, 2L), taskIds(pages.get(0)));
+        assertEquals(Arrays.asList(3L, 4L), taskIds(pages.get(1)));
+        assertEquals(Collections.singletonList(5L), taskIds(pages.get(2)));
+
+        List<ExecutedQuery> statusQueries = queriesOf(TASK_STATUS_QUERY);
+        assertEquals(3, statusQueries.size());
+        assertNoTaskIdFilter(statusQueries.get(0).filter);
+        assertTaskIdFilter(statusQueries.get(1).filter, 3L);
+        assertTaskIdFilter(statusQueries.get(2).filter, 5L);
+        statusQueries.forEach(query -> assertEquals(0, query.page));
+    }
+
+    @Test
+    public void streamTasksStatusExactPagesTest() {
+        for (long taskId = 1; taskId <= 4; taskId++) {
+            addTask(taskId, TaskStatus.Completed, "user1");
+        }
+        List<List<TaskInfo>> pages = new ArrayList<>();
+        client.streamTasksStatus(Collections.singletonList(TaskStatus.Completed), null, 2, pages::add);
+        // the last page is full, so one more query is needed for knowing that there are no more tasks.
+        assertEquals(2, pages.size());
+        assertEquals(Arrays.asList(3L, 4L), taskIds(pages.get(1)));
+        List<ExecutedQuery> statusQueries = queriesOf(TASK_STATUS_QUERY);
+        assertEquals(3, statusQueries.size());
+        assertTaskIdFilter(statusQueries.get(2).filter, 5L);
+    }
+
+    @Test
+    public void applyPlanningAppliedTest() {
+        addTask(1L, TaskStatus.Ready, "group1");
+        TaskPlanningInfo planningInfo = planningInfo(CONTAINER_ID, 1L, "user1");
+
+        List<TaskPlanningResult> results = client.applyPlanning(Collections.singletonList(planningInfo), ADMIN_USER);
+        assertEquals(1, results.size());
+        assertResult(results.get(0), 1L, TaskPlanningResult.Status.APPLIED);
+        verify(userTaskServicesClient).delegateTask(CONTAINER_ID, 1L, ADMIN_USER, "user1");
+        verify(userTaskServicesClient).saveTaskContent(CONTAINER_ID, 1L, toMap(planningInfo.getPlanningParameters()));
+    }
+
+    @Test
+    public void applyPlanningUnchangedTest() {
+        addTask(1L, TaskStatus.Reserved, "user1");
+        TaskPlanningInfo planningInfo = planningInfo(CONTAINER_ID, 1L, "user1");
+        long id = 0;
+        for (Map.Entry<String, Object> parameter : toMap(planningInfo.getPlanningParameters()).entrySet()) {
+            addVariable(1L, id++, parameter.getKey(), parameter.getValue().toString(), false);
+        }
+
+        List<TaskPlanningResult> results = client.applyPlanning(Collections.singletonList(planningInfo), ADMIN_USER);
+        assertResult(results.get(0), 1L, TaskPlanningResult.Status.UNCHANGED);
+        verify(userTaskServicesClient, never()).delegateTask(anyString(), any(Long.class), anyString(), anyString());
+        verify(userTaskServicesClient, never()).saveTaskContent(anyString(), any(Long.class), anyMap());
+    }
+
+    @Test
+    public void applyPlanningSkippedTest() {
+        // the task is no longer Ready or Reserved, e.g. it was started in the meantime.
+        TaskPlanningInfo planningInfo = planningInfo(CONTAINER_ID, 1L, "user1");
+
+        List<TaskPlanningResult> results = client.applyPlanning(Collections.singletonList(planningInfo), ADMIN_USER);
+        assertResult(results.get(0), 1L, TaskPlanningResult.Status.SKIPPED);
+        verify(userTaskServicesClient, never()).delegateTask(anyString(), any(Long.class), anyString(), anyString());
+        verify(userTaskServicesClient, never()).saveTaskContent(anyString(), any(Long.class), anyMap());
+    }
+
+    @Test
+    public void applyPlanningErrorTest() {
+        addTask(1L, TaskStatus.Ready, "group1");
+        addTask(2L, TaskStatus.Ready, "group1");
+        RuntimeException error = new RuntimeException("saveTaskContent failed");
+        when(userTaskServicesClient.saveTaskContent(eq(CONTAINER_ID), eq(1L), anyMap())).thenThrow(error);
+
+        List<TaskPlanningResult> results = client.applyPlanning(Arrays.asList(planningInfo(CONTAINER_ID, 1L, "user1"),
+                                                                              planningInfo(CONTAINER_ID, 2L, "user1")),
+                                                                ADMIN_USER);
+        assertEquals(2, results.size());
+        assertResult(results.get(0), 1L, TaskPlanningResult.Status.ERROR);
+        assertEquals(error, results.get(0).getError());
+        // the error doesn't prevent the remaining tasks from being applied.
+        assertResult(results.get(1), 2L, TaskPlanningResult.Status.APPLIED);
+    }
+
+    @Test
+    public void applyPlanningBatchesTest() {
+        System.setProperty(APPLY_PLANNING_BATCH_SIZE_PROPERTY, "2");
+        try {
+            addTask(1L, TaskStatus.Ready, "group1");
+            addTask(2L, TaskStatus.Reserved, "user2");
+            addTask(3L, TaskStatus.Ready, "group1");
+            addTask(5L, TaskStatus.Ready, "group1");
+            addTask(6L, TaskStatus.Ready, "group1");
+            when(userTaskServicesClient.saveTaskContent(eq(CONTAINER_ID), eq(3L), anyMap())).thenThrow(new RuntimeException("saveTaskContent failed"));
+            String otherContainerId = "otherContainer";
+            // 3 batches for the first container and 1 for the other one.
+            List<TaskPlanningInfo> planningInfos = Arrays.asList(planningInfo(CONTAINER_ID, 1L, "user1"),
+                                                                 planningInfo(otherContainerId, 6L, "user1"),
+                                                                 planningInfo(CONTAINER_ID, 2L, "user2"),
+                                                                 planningInfo(CONTAINER_ID, 3L, "user1"),
+                                                                 planningInfo(CONTAINER_ID, 4L, "user1"),
+                                                                 planningInfo(CONTAINER_ID, 5L, "user1"));
+
+            List<TaskPlanningResult> results = client.applyPlanning(planningInfos, ADMIN_USER);
+            assertEquals(6, results.size());
+            assertResult(results.get(0), 1L, TaskPlanningResult.Status.APPLIED);
+            assertResult(results.get(1), 2L, TaskPlanningResult.Status.APPLIED);
+            assertResult(results.get(2), 3L, TaskPlanningResult.Status.ERROR);
+            assertResult(results.get(3), 4L, TaskPlanningResult.Status.SKIPPED);
+            assertResult(results.get(4), 5L, TaskPlanningResult.Status.APPLIED);
+            assertResult(results.get(5), 6L, TaskPlanningResult.Status.APPLIED);
+            assertEquals(otherContainerId, results.get(5).getContainerId());
+            verify(userTaskServicesClient).delegateTask(CONTAINER_ID, 1L, ADMIN_USER, "user1");
+            verify(userTaskServicesClient, never()).delegateTask(CONTAINER_ID, 2L, ADMIN_USER, "user2");
+            verify(userTaskServicesClient).delegateTask(CONTAINER_ID, 3L, ADMIN_USER, "user1");
+            verify(userTaskServicesClient).delegateTask(CONTAINER_ID, 5L, ADMIN_USER, "user1");
+            verify(userTaskServicesClient).delegateTask(otherContainerId, 6L, ADMIN_USER, "user1");
+            // the tasks are read once for all the batches.
+            assertEquals(1, queriesOf(TASKS_QUERY).size());
+        } finally {
+            System.clearProperty(APPLY_PLANNING_BATCH_SIZE_PROPERTY);
+        }
+    }
+
+    @Test
+    public void applyPlanningFailedBatchTest() {
+        addTask(1L, TaskStatus.Ready, "group1");
+        addTask(2L, TaskStatus.Ready, "group1");
+        addTask(3L, TaskStatus.Ready, "group1");
+        String otherContainerId = "otherContainer";
+        // an unexpected error that escapes the per task error handling breaks the whole batch.
+        NoClassDefFoundError error = new NoClassDefFoundError("org/kie/server/api/model/KieServiceResponse");
+        when(userTaskServicesClient.saveTaskContent(anyString(), eq(3L), anyMap())).thenThrow(error);
+
+        List<TaskPlanningResult> results = client.applyPlanning(Arrays.asList(planningInfo(CONTAINER_ID, 1L, "user1"),
+                                                                              planningInfo(CONTAINER_ID, 2L, "user1"),
+                                                                              planningInfo(otherContainerId, 3L, "user1")),
+                                                                ADMIN_USER);
+        assertEquals(3, results.size());
+        // the results of the batch that succeeded are kept.
+        assertResult(results.get(0), 1L, TaskPlanningResult.Status.APPLIED);
+        assertResult(results.get(1), 2L, TaskPlanningResult.Status.APPLIED);
+        assertResult(results.get(2), 3L, TaskPlanningResult.Status.ERROR);
+        assertEquals(otherContainerId, results.get(2).getContainerId());
+        assertTrue(results.get(2).hasError());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void applyPlanningAfterCloseTest() {
+        addTask(1L, TaskStatus.Ready, "group1");
+        addTask(2L, TaskStatus.Ready, "group1");
+        client.close();
+        client.applyPlanning(Arrays.asList(planningInfo(CONTAINER_ID, 1L, "user1"),
+                                           planningInfo("otherContainer", 2L, "user1")),
+                             ADMIN_USER);
+    }
+
+    private void addTask(long taskId, TaskStatus status, String... potentialOwners) {
+        addTask(taskId, status, NOW, potentialOwners);
+    }
+
+    /**
+     * Adds the rows of a task to the tasks and task status queries, the tasks query returns one row per potential
+     * owner, being the users the potential owners that starts with "user".
+     */
+    private void addTask(long taskId, TaskStatus status, LocalDateTime lastModificationDate, String... potentialOwners) {
+        final Date date = toDate(lastModificationDate);
+        final String actualOwner = status == TaskStatus.Ready ? null : potentialOwners[0];
+        for (String potentialOwner : potentialOwners) {
+            rowsByQuery.computeIfAbsent(TASKS_QUERY, key -> new ArrayList<>())
+                    .add(Arrays.asList(taskId, date, date, actualOwner, CONTAINER_ID, null, "Task" + taskId, 0, "process",
+                                       taskId, status.name(), date, "description", potentialOwner,
+                                       potentialOwner.startsWith("user") ? "User" : "Group"));
+        }
+        rowsByQuery.computeIfAbsent(TASK_STATUS_QUERY, key -> new ArrayList<>())
+                .add(Arrays.asList(taskId, CONTAINER_ID, status.name(), date, date, "process", "Task" + taskId, actualOwner));
+    }
+
+    private void addVariable(long taskId, long id, String name, String value, boolean input) {
+        rowsByQuery.computeIfAbsent(TASK_VARIABLES_QUERY, key -> new ArrayList<>())
+                .add(Arrays.asList(taskId, name, value, input ? 0 : 1, id));
+    }
+
+    /**
+     * Resolves a query like the kie-server does, only the taskId filters are honored, the rows are expected to be
+     * already in the query order.
+     */
+    private List<List<Object>> execute(ExecutedQuery query) {
+        final List<List<Object>> rows = rowsByQuery.getOrDefault(query.name, Collections.emptyList()).stream()
+                .filter(row -> acceptsTaskId(query.filter, ((Number) row.get(0)).longValue()))
+                .collect(Collectors.toList());
+        final int from = Math.min(query.page * query.pageSize, rows.size());
+        return new ArrayList<>(rows.subList(from, Math.min(from + query.pageSize, rows.size())));
+    }
+
+    private static boolean acceptsTaskId(QueryFilterSpec filter, long taskId) {
+        if (filter == null || filter.getParameters() == null) {
+            return true;
+        }
+        for (QueryParam param : filter.getParameters()) {
+            if (!"taskId".equals(param.getColumn())) {
+                continue;
+            }
+            final List<?> values = param.getValue();
+            switch (param.getOperator()) {
+                case "EQUALS_TO":
+                    if (!values.contains(taskId)) {
+                        return false;
+                    }
+                    break;
+                case "GREATER_OR_EQUALS_TO":
+                    if (taskId < ((Number) values.get(0)).longValue()) {
+                        return false;
+                    }
+                    break;
+                case "LOWER_OR_EQUALS_TO":
+                    if (taskId > ((Number) values.get(0)).longValue()) {
+                        return false;
+                    }
+                    break;
+                case "BETWEEN":
+                    if (taskId < ((Number) values.get(0)).longValue() || taskId > ((Number) values.get(1)).longValue()) {
+                        return false;
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unexpected operator: " + param.getOperator());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The tasks must be read from the given date on, inclusive, since many tasks might have the same
+     * lastModificationDate.
+     */
+    private static void assertLastModificationDateFilter(QueryFilterSpec filter, LocalDateTime fromDate) {
+        QueryParam param = paramOf(filter, "lastModificationDate");
+        assertEquals("GREATER_OR_EQUALS_TO", param.getOperator());
+        assertEquals(Collections.singletonList(toDate(fromDate)), param.getValue());
+    }
+
+    private static List<Long> taskIds(List<TaskInfo> taskInfos) {
+        return taskInfos.stream().map(TaskInfo::getTaskId).collect(Collectors.toList());
+    }
+
+    private static void assertTaskIdFilter(QueryFilterSpec filter, long fromTaskId) {
+        QueryParam param = paramOf(filter, "taskId");
+        assertEquals("GREATER_OR_EQUALS_TO", param.getOperator());
+        assertEquals(Collections.singletonList(fromTaskId), param.getValue());
+    }
+
+    private static void assertNoTaskIdFilter(QueryFilterSpec filter) {
+        assertTrue(filter.getParameters() == null ||
+                           Arrays.stream(filter.getParameters()).noneMatch(param -> "taskId".equals(param.getColumn())));
+    }
+
+    private static TaskPlanningInfo planningInfo(String containerId, long taskId, String assignedUser) {
+        TaskPlanningInfo planningInfo = new TaskPlanningInfo(containerId, taskId, taskId);
+        planningInfo.getPlanningParameters().setAssignedUser(assignedUser);
+        planningInfo.getPlanningParameters().setPublished(true);
+        return planningInfo;
+    }
+
+    private static void assertResult(TaskPlanningResult result, long taskId, TaskPlanningResult.Status status) {
+        assertEquals(taskId, result.getTaskId());
+        assertEquals(status, result.getStatus());
+    }
+
+    private static Map<String, Object> toMap(PlanningParameters planningParameters) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("planning_param_assigned_user", planningParameters.getAssignedUser());
+        result.put("planning_param_order", planningParameters.getIndex());
+        result.put("planning_param_pinned", planningParameters.isPinned());
+        result.put("planning_param_published", planningParameters.isPublished());
+        return result;
+    }
+
+    private List<ExecutedQuery> queriesOf(String name) {
+        return executedQueries.stream().filter(query -> name.equals(query.name)).collect(Collectors.toList());
+    }
+
+    private static QueryParam paramOf(QueryFilterSpec filter, String column) {
+        return Arrays.stream(filter.getParameters())
+                .filter(param -> column.equals(param.getColumn()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No parameter was found for column: " + column));
+    }
+
+    private static List<Object> sorted(List<?> values) {
+        return values.stream().sorted().collect(Collectors.toList());
+    }
+
+    private static Date toDate(LocalDateTime value) {
+        return Date.from(value.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
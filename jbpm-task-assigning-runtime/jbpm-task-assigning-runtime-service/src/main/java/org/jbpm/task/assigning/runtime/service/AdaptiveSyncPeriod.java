@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.runtime.service;
+
+import static org.kie.soup.commons.validation.PortablePreconditions.checkCondition;
+
+/**
+ * Calculates the period for polling the jBPM runtime from the number of changes read by the previous polls. The
+ * period is halved, down to the minPeriod, while the polls read many changes or the number of changes is growing,
+ * and it's doubled, up to the maxPeriod, while the polls read no changes at all. In any other case the period is
+ * kept. This class is not thread-safe.
+ */
+public class AdaptiveSyncPeriod {
+
+    /**
+     * Number of changes read by a poll from which the jBPM runtime is considered busy.
+     */
+    static final int BUSY_CHANGES = 100;
+
+    private final long minPeriod;
+    private final long basePeriod;
+    private final long maxPeriod;
+
+    private long period;
+    private int lastChanges = 0;
+
+    /**
+     * @param minPeriod the lowest period in milliseconds, used when the jBPM runtime is busy.
+     * @param basePeriod the initial period in milliseconds.
+     * @param maxPeriod the highest period in milliseconds, used when the jBPM runtime is idle.
+     */
+    public AdaptiveSyncPeriod(long minPeriod, long basePeriod, long maxPeriod) {
+        checkCondition("minPeriod", minPeriod > 5);
+        checkCondition("basePeriod", basePeriod >= minPeriod);
+        checkCondition("maxPeriod", maxPeriod >= basePeriod);
+        this.minPeriod = minPeriod;
+        this.basePeriod = basePeriod;
+        this.maxPeriod = maxPeriod;
+        this.period = basePeriod;
+    }
+
+    /**
+     * @return the period for the next poll.
+     */
+    public long getPeriod() {
+        return period;
+    }
+
+    public long getBasePeriod() {
+        return basePeriod;
+    }
+
+    /**
+     * Adjusts the period with the result of a poll.
+     * @param changes the number of changes read by the poll.
+     * @return the period for the next poll.
+     */
+    public long update(int changes) {
+        if (changes == 0) {
+            period = Math.min(period * 2, maxPeriod);
+        } else if (changes >= BUSY_CHANGES || changes > lastChanges) {
+            period = Math.max(period / 2, minPeriod);
+        }
+        lastChanges = changes;
+        return period;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Immutable snapshot of the statistics collected for a measured operation. Durations are expressed in milliseconds.
+ */
+public class DurationStatistics {
+
+    private final long count;
+    private final double lastMillis;
+    private final double maxMillis;
+    private final double totalMillis;
+
+    @ConstructorProperties({"count", "lastMillis", "maxMillis", "totalMillis"})
+    public DurationStatistics(long count, double lastMillis, double maxMillis, double totalMillis) {
+        this.count = count;
+        this.lastMillis = lastMillis;
+        this.maxMillis = maxMillis;
+        this.totalMillis = totalMillis;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getLastMillis() {
+        return lastMillis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    public double getAverageMillis() {
+        return count > 0 ? totalMillis / count : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "DurationStatistics{" +
+                "count=" + count +
+                ", lastMillis=" + lastMillis +
+                ", maxMillis=" + maxMillis +
+                ", averageMillis=" + getAverageMillis() +
+                '}';
+    }
+}
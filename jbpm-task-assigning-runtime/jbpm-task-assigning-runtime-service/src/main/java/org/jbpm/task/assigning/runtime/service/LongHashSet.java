@@ -0,0 +1,172 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash set of primitive longs with linear probing. Removals are performed by shifting back the
+ * following entries of the cluster, so no tombstones are left and the table is shrunk when it becomes too sparse.
+ * This class is not thread-safe.
+ */
+class LongHashSet {
+
+    private static final long FREE = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    private boolean containsFree;
+
+    LongHashSet() {
+        allocate(MIN_CAPACITY);
+    }
+
+    private LongHashSet(LongHashSet other) {
+        this.keys = other.keys.clone();
+        this.mask = other.mask;
+        this.size = other.size;
+        this.containsFree = other.containsFree;
+    }
+
+    boolean contains(long key) {
+        if (key == FREE) {
+            return containsFree;
+        }
+        int slot = slot(key);
+        long current;
+        while ((current = keys[slot]) != FREE) {
+            if (current == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the key was added, false if it was already present.
+     */
+    boolean add(long key) {
+        if (key == FREE) {
+            if (containsFree) {
+                return false;
+            }
+            containsFree = true;
+            size++;
+            return true;
+        }
+        int slot = slot(key);
+        long current;
+        while ((current = keys[slot]) != FREE) {
+            if (current == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        if (++size > (keys.length >> 1) + (keys.length >> 2)) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the key was removed, false if it wasn't present.
+     */
+    boolean remove(long key) {
+        if (key == FREE) {
+            if (!containsFree) {
+                return false;
+            }
+            containsFree = false;
+            size--;
+            return true;
+        }
+        int slot = slot(key);
+        long current;
+        while ((current = keys[slot]) != key) {
+            if (current == FREE) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        shiftKeys(slot);
+        if (--size < keys.length >> 3 && keys.length > MIN_CAPACITY) {
+            rehash(keys.length >> 1);
+        }
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    LongHashSet copy() {
+        return new LongHashSet(this);
+    }
+
+    /**
+     * Removes the key at the given slot and moves back the following keys of the cluster that can't be reached
+     * from their home slot any more.
+     */
+    private void shiftKeys(int slot) {
+        int last = slot;
+        int next = slot;
+        long key;
+        while (true) {
+            next = (next + 1) & mask;
+            if ((key = keys[next]) == FREE) {
+                break;
+            }
+            final int home = slot(key);
+            final boolean reachable = last <= next ? last < home && home <= next : last < home || home <= next;
+            if (!reachable) {
+                keys[last] = key;
+                last = next;
+            }
+        }
+        keys[last] = FREE;
+    }
+
+    private void rehash(int capacity) {
+        final long[] oldKeys = keys;
+        allocate(capacity);
+        for (long key : oldKeys) {
+            if (key != FREE) {
+                int slot = slot(key);
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+    }
+
+    private int slot(long key) {
+        // Fibonacci hashing, the upper bits are used since the lower ones are shared by all the keys of a segment.
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Open addressing hash map with primitive long keys and linear probing, the same strategy as the LongHashSet. Null
+ * values are not supported. This class is not thread-safe.
+ */
+class LongObjectHashMap<V> {
+
+    private static final long FREE = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private Object freeKeyValue;
+
+    LongObjectHashMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        if (key == FREE) {
+            return (V) freeKeyValue;
+        }
+        int slot = slot(key);
+        long current;
+        while ((current = keys[slot]) != FREE) {
+            if (current == key) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * @return the previous value for the key, or null if there was no value.
+     */
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        if (key == FREE) {
+            final V previous = (V) freeKeyValue;
+            freeKeyValue = value;
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+        int slot = slot(key);
+        long current;
+        while ((current = keys[slot]) != FREE) {
+            if (current == key) {
+                final V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (keys.length >> 1) + (keys.length >> 2)) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * @return the removed value, or null if there was no value for the key.
+     */
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        if (key == FREE) {
+            final V previous = (V) freeKeyValue;
+            if (previous != null) {
+                freeKeyValue = null;
+                size--;
+            }
+            return previous;
+        }
+        int slot = slot(key);
+        long current;
+        while ((current = keys[slot]) != key) {
+            if (current == FREE) {
+                return null;
+            }
+            slot = (slot + 1) & mask;
+        }
+        final V previous = (V) values[slot];
+        shiftKeys(slot);
+        if (--size < keys.length >> 3 && keys.length > MIN_CAPACITY) {
+            rehash(keys.length >> 1);
+        }
+        return previous;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        allocate(MIN_CAPACITY);
+        freeKeyValue = null;
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEachValue(Consumer<V> consumer) {
+        if (freeKeyValue != null) {
+            consumer.accept((V) freeKeyValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                consumer.accept((V) values[i]);
+            }
+        }
+    }
+
+    private void shiftKeys(int slot) {
+        int last = slot;
+        int next = slot;
+        long key;
+        while (true) {
+            next = (next + 1) & mask;
+            if ((key = keys[next]) == FREE) {
+                break;
+            }
+            final int home = slot(key);
+            final boolean reachable = last <= next ? last < home && home <= next : last < home || home <= next;
+            if (!reachable) {
+                keys[last] = key;
+                values[last] = values[next];
+                last = next;
+            }
+        }
+        keys[last] = FREE;
+        values[last] = null;
+    }
+
+    private void rehash(int capacity) {
+        final long[] oldKeys = keys;
+        final Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.jbpm.task.assigning.process.runtime.integration.client.ProcessRuntimeIntegrationClient;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskInputVariablesReadMode;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskPlanningInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskPlanningResult;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus;
+
+import static org.kie.soup.commons.validation.PortablePreconditions.checkNotNull;
+
+/**
+ * ProcessRuntimeIntegrationClient decorator that records the duration of every invocation, failed ones included, in
+ * the SolverHandlerMetrics. For the streaming methods the time spent by the page consumer is not included.
+ */
+class MeteredRuntimeClient implements ProcessRuntimeIntegrationClient {
+
+    private final ProcessRuntimeIntegrationClient delegate;
+    private final SolverHandlerMetrics metrics;
+
+    MeteredRuntimeClient(final ProcessRuntimeIntegrationClient delegate, final SolverHandlerMetrics metrics) {
+        checkNotNull("delegate", delegate);
+        checkNotNull("metrics", metrics);
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public List<TaskInfo> findTasks(List<TaskStatus> status, Integer page, Integer pageSize) {
+        return measure("findTasks", () -> delegate.findTasks(status, page, pageSize));
+    }
+
+    @Override
+    public List<TaskInfo> findTasks(List<TaskStatus> status,
+                                    LocalDateTime fromLastModificationDate,
+                                    Integer page,
+                                    Integer pageSize,
+                                    TaskInputVariablesReadMode inputVariablesReadMode) {
+        return measure("findTasks", () -> delegate.findTasks(status, fromLastModificationDate, page, pageSize, inputVariablesReadMode));
+    }
+
+    @Override
+    public List<TaskInfo> findTasksStatus(List<TaskStatus> status,
+                                          LocalDateTime fromLastModificationDate,
+                                          Integer page,
+                                          Integer pageSize) {
+        return measure("findTasksStatus", () -> delegate.findTasksStatus(status, fromLastModificationDate, page, pageSize));
+    }
+
+    @Override
+    public void streamTasks(List<TaskStatus> status,
+                            LocalDateTime fromLastModificationDate,
+                            int pageSize,
+                            TaskInputVariablesReadMode inputVariablesReadMode,
+                            Consumer<List<TaskInfo>> pageConsumer) {
+        measureStream("streamTasks", pageConsumer,
+                      meteredConsumer -> delegate.streamTasks(status, fromLastModificationDate, pageSize, inputVariablesReadMode, meteredConsumer));
+    }
+
+    @Override
+    public void streamTasksStatus(List<TaskStatus> status,
+                                  LocalDateTime fromLastModificationDate,
+                                  int pageSize,
+                                  Consumer<List<TaskInfo>> pageConsumer) {
+        measureStream("streamTasksStatus", pageConsumer,
+                      meteredConsumer -> delegate.streamTasksStatus(status, fromLastModificationDate, pageSize, meteredConsumer));
+    }
+
+    @Override
+    public List<TaskPlanningResult> applyPlanning(List<TaskPlanningInfo> planningInfos, String userId) {
+        return measure("applyPlanning", () -> delegate.applyPlanning(planningInfos, userId));
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private <T> T measure(String method, Supplier<T> call) {
+        final long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            metrics.recordRuntimeClientCall(method, System.nanoTime() - start);
+        }
+    }
+
+    private void measureStream(String method, Consumer<List<TaskInfo>> pageConsumer, Consumer<Consumer<List<TaskInfo>>> call) {
+        final long[] consumerNanos = {0};
+        final long start = System.nanoTime();
+        try {
+            call.accept(page -> {
+                final long consumerStart = System.nanoTime();
+                try {
+                    pageConsumer.accept(page);
+                } finally {
+                    consumerNanos[0] += System.nanoTime() - consumerStart;
+                }
+            });
+        } finally {
+            metrics.recordRuntimeClientCall(method, System.nanoTime() - start - consumerNanos[0]);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
+
+import static org.kie.soup.commons.validation.PortablePreconditions.checkCondition;
+
+/**
+ * Keeps the lower bound of the task lastModificationDate for the incremental synchronizations with the jBPM runtime.
+ * <p>
+ * The lastModificationDate of a task is set when it's modified, but the change is only visible when the jBPM
+ * transaction commits, so a task might become visible with a date lower than the highest one already read. For not
+ * missing these tasks, the next read starts an overlap before the highest read date, and the tasks read within the
+ * overlap are remembered together with their lastModificationDate for discarding them when they are read again with
+ * no changes. This class is not thread-safe.
+ */
+public class ModificationWatermark {
+
+    private final long overlap;
+
+    /**
+     * Highest task lastModificationDate observed in the jBPM runtime.
+     */
+    private LocalDateTime lastModificationDate;
+
+    /**
+     * The tasks read within the overlap, taskId -> lastModificationDate.
+     */
+    private final Map<Long, LocalDateTime> overlapTasks = new HashMap<>();
+
+    /**
+     * @param overlap time in milliseconds that the next read starts before the highest observed lastModificationDate.
+     */
+    public ModificationWatermark(long overlap) {
+        checkCondition("overlap", overlap >= 0);
+        this.overlap = overlap;
+    }
+
+    /**
+     * @return the highest task lastModificationDate observed, or null if no task was observed yet.
+     */
+    public LocalDateTime getLastModificationDate() {
+        return lastModificationDate;
+    }
+
+    /**
+     * @return the lower bound for reading the modified tasks, this is the highest task lastModificationDate observed
+     * minus the overlap, or null if no task was observed yet.
+     */
+    public LocalDateTime getFromDate() {
+        return lastModificationDate != null ? lastModificationDate.minus(overlap, ChronoUnit.MILLIS) : null;
+    }
+
+    /**
+     * @return true if the task was already read with the same lastModificationDate, false in any other case.
+     */
+    public boolean isAlreadyRead(TaskInfo taskInfo) {
+        final LocalDateTime readDate = overlapTasks.get(taskInfo.getTaskId());
+        return readDate != null && readDate.equals(taskInfo.getLastModificationDate());
+    }
+
+    /**
+     * Records the read tasks and moves the watermark forward if any of them was modified later than the highest
+     * lastModificationDate observed.
+     * @param taskInfos the read tasks.
+     */
+    public void update(List<TaskInfo> taskInfos) {
+        boolean moved = false;
+        for (TaskInfo taskInfo : taskInfos) {
+            final LocalDateTime taskLastModificationDate = taskInfo.getLastModificationDate();
+            if (taskLastModificationDate != null && (lastModificationDate == null || taskLastModificationDate.isAfter(lastModificationDate))) {
+                lastModificationDate = taskLastModificationDate;
+                moved = true;
+            }
+        }
+        if (lastModificationDate == null) {
+            return;
+        }
+        final LocalDateTime fromDate = getFromDate();
+        if (moved) {
+            // the tasks out of the overlap won't be read again.
+            overlapTasks.values().removeIf(date -> date.isBefore(fromDate));
+        }
+        for (TaskInfo taskInfo : taskInfos) {
+            final LocalDateTime taskLastModificationDate = taskInfo.getLastModificationDate();
+            if (taskLastModificationDate != null && !taskLastModificationDate.isBefore(fromDate)) {
+                overlapTasks.put(taskInfo.getTaskId(), taskLastModificationDate);
+            }
+        }
+    }
+}
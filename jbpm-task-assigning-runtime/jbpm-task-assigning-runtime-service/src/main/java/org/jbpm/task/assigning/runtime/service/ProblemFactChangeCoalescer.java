@@ -0,0 +1,249 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.solver.realtime.AddTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.AddTasksProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.AssignTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.ReleaseTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.RemoveTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.RemoveTasksProblemFactChange;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.kie.soup.commons.validation.PortablePreconditions.checkCondition;
+import static org.kie.soup.commons.validation.PortablePreconditions.checkNotNull;
+
+/**
+ * Accumulates the ProblemFactChanges produced by the consecutive synchronizations and submits them to the solver in
+ * batches, since every submission restarts the solver phase. Changes are submitted as soon as the batchSize is reached,
+ * or when the window has elapsed since the first pending change was added.
+ * <p>
+ * The pending changes are coalesced by task before the submission:
+ * - an AddTaskProblemFactChange followed by a RemoveTaskProblemFactChange of the same task cancel each other.
+ * - consecutive AssignTaskProblemFactChanges of the same task are collapsed into the last one.
+ * - consecutive AddTaskProblemFactChanges, and consecutive RemoveTaskProblemFactChanges, are grouped into a single
+ * AddTasksProblemFactChange or RemoveTasksProblemFactChange respectively.
+ * The relative order of the remaining changes is preserved.
+ * <p>
+ * The submissions due to the window are executed by the run() method, so the coalescer is expected to be executed
+ * by a thread of the SolverHandler executor like the other components.
+ */
+public class ProblemFactChangeCoalescer implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProblemFactChangeCoalescer.class);
+
+    private final long window;
+    private final int batchSize;
+    private final Consumer<List<ProblemFactChange<TaskAssigningSolution>>> consumer;
+    private final Consumer<Exception> errorHandler;
+    private final AtomicBoolean destroyed = new AtomicBoolean(false);
+
+    /**
+     * Pending changes in arrival order, null entries are the changes that were discarded by the coalescing.
+     */
+    private List<ProblemFactChange<TaskAssigningSolution>> pending = new ArrayList<>();
+    private Map<Long, Integer> lastPendingChangeByTask = new HashMap<>();
+    private int pendingSize = 0;
+    /**
+     * Time in milliseconds when the pending changes must be submitted, or 0 if there are no pending changes.
+     */
+    private long flushTime = 0;
+
+    /**
+     * @param window max time in milliseconds a change can wait before being submitted.
+     * @param batchSize number of pending changes that produces the immediate submission.
+     * @param consumer the consumer that submits the changes to the solver.
+     * @param errorHandler receives the error produced when the consumer fails. The submitted changes are lost, so the
+     * caller must typically recover from the jBPM runtime.
+     */
+    public ProblemFactChangeCoalescer(final long window,
+                                      final int batchSize,
+                                      final Consumer<List<ProblemFactChange<TaskAssigningSolution>>> consumer,
+                                      final Consumer<Exception> errorHandler) {
+        checkCondition("window", window >= 0);
+        checkCondition("batchSize", batchSize > 0);
+        checkNotNull("consumer", consumer);
+        checkNotNull("errorHandler", errorHandler);
+        this.window = window;
+        this.batchSize = batchSize;
+        this.consumer = consumer;
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Adds a list of changes to the pending ones. This method is thread-safe.
+     */
+    public synchronized void add(List<ProblemFactChange<TaskAssigningSolution>> changes) {
+        for (ProblemFactChange<TaskAssigningSolution> change : changes) {
+            merge(change);
+        }
+        if (pendingSize >= batchSize || window == 0) {
+            flush();
+        } else if (pendingSize > 0 && flushTime == 0) {
+            flushTime = System.currentTimeMillis() + window;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Submits the pending changes, if any. This method is thread-safe.
+     */
+    public synchronized void flush() {
+        flushTime = 0;
+        if (pendingSize == 0) {
+            pending.clear();
+            lastPendingChangeByTask.clear();
+            return;
+        }
+        final List<ProblemFactChange<TaskAssigningSolution>> changes = group(pending);
+        LOGGER.debug(pending.size() + " changes were coalesced into " + changes.size() + " changes.");
+        pending = new ArrayList<>();
+        lastPendingChangeByTask = new HashMap<>();
+        pendingSize = 0;
+        try {
+            consumer.accept(changes);
+        } catch (Exception e) {
+            LOGGER.error("An error was produced during the submission of the changes.", e);
+            errorHandler.accept(e);
+        }
+    }
+
+    public void destroy() {
+        destroyed.set(true);
+        synchronized (this) {
+            notifyAll(); //in case it was waiting for the window.
+        }
+    }
+
+    @Override
+    public synchronized void run() {
+        while (!destroyed.get() && !Thread.currentThread().isInterrupted()) {
+            try {
+                final long now = System.currentTimeMillis();
+                if (flushTime == 0) {
+                    wait();
+                } else if (now < flushTime) {
+                    wait(flushTime - now);
+                } else {
+                    flush();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.error("ProblemFactChangeCoalescer was interrupted", e);
+            }
+        }
+    }
+
+    private void merge(ProblemFactChange<TaskAssigningSolution> change) {
+        final Long taskId = getTaskId(change);
+        if (taskId == null) {
+            append(change, null);
+            return;
+        }
+        final Integer lastIndex = lastPendingChangeByTask.get(taskId);
+        final ProblemFactChange<TaskAssigningSolution> lastChange = lastIndex != null ? pending.get(lastIndex) : null;
+        if (change instanceof RemoveTaskProblemFactChange && lastChange instanceof AddTaskProblemFactChange) {
+            // the task was never seen by the solver.
+            discard(lastIndex);
+            lastPendingChangeByTask.remove(taskId);
+        } else if (change instanceof AssignTaskProblemFactChange && lastChange instanceof AssignTaskProblemFactChange) {
+            discard(lastIndex);
+            append(change, taskId);
+        } else {
+            append(change, taskId);
+        }
+    }
+
+    private void append(ProblemFactChange<TaskAssigningSolution> change, Long taskId) {
+        pending.add(change);
+        pendingSize++;
+        if (taskId != null) {
+            lastPendingChangeByTask.put(taskId, pending.size() - 1);
+        }
+    }
+
+    private void discard(int index) {
+        pending.set(index, null);
+        pendingSize--;
+    }
+
+    private static List<ProblemFactChange<TaskAssigningSolution>> group(List<ProblemFactChange<TaskAssigningSolution>> changes) {
+        final List<ProblemFactChange<TaskAssigningSolution>> result = new ArrayList<>();
+        List<ProblemFactChange<TaskAssigningSolution>> run = new ArrayList<>();
+        for (ProblemFactChange<TaskAssigningSolution> change : changes) {
+            if (change == null) {
+                continue;
+            }
+            if (!run.isEmpty() && (!isGroupable(change) || change.getClass() != run.get(0).getClass())) {
+                addRun(run, result);
+                run = new ArrayList<>();
+            }
+            if (isGroupable(change)) {
+                run.add(change);
+            } else {
+                result.add(change);
+            }
+        }
+        addRun(run, result);
+        return result;
+    }
+
+    private static void addRun(List<ProblemFactChange<TaskAssigningSolution>> run, List<ProblemFactChange<TaskAssigningSolution>> result) {
+        if (run.isEmpty()) {
+            return;
+        }
+        if (run.size() == 1) {
+            result.add(run.get(0));
+        } else if (run.get(0) instanceof AddTaskProblemFactChange) {
+            result.add(new AddTasksProblemFactChange(run.stream()
+                                                             .map(change -> ((AddTaskProblemFactChange) change).getTask())
+                                                             .collect(Collectors.toList())));
+        } else {
+            result.add(new RemoveTasksProblemFactChange(run.stream()
+                                                                .map(change -> ((RemoveTaskProblemFactChange) change).getTask())
+                                                                .collect(Collectors.toList())));
+        }
+    }
+
+    private static boolean isGroupable(ProblemFactChange<TaskAssigningSolution> change) {
+        return change instanceof AddTaskProblemFactChange || change instanceof RemoveTaskProblemFactChange;
+    }
+
+    private static Long getTaskId(ProblemFactChange<TaskAssigningSolution> change) {
+        if (change instanceof AddTaskProblemFactChange) {
+            return ((AddTaskProblemFactChange) change).getTask().getId();
+        } else if (change instanceof RemoveTaskProblemFactChange) {
+            return ((RemoveTaskProblemFactChange) change).getTask().getId();
+        } else if (change instanceof AssignTaskProblemFactChange) {
+            return ((AssignTaskProblemFactChange) change).getTask().getId();
+        } else if (change instanceof ReleaseTaskProblemFactChange) {
+            return ((ReleaseTaskProblemFactChange) change).getTaskId();
+        }
+        return null;
+    }
+}
@@ -16,32 +16,110 @@
 
 package org.jbpm.task.assigning.runtime.service;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Arrays;
 
 /**
  * Convenient repository for keeping track published tasks during runtime. Used for optimization purposes.
+ * <p>
+ * The task ids are kept in primitive long sets, and the tasks must be removed when they are finished in the jBPM
+ * runtime, see SolutionChangesBuilder, so the cache size is bounded by the number of active tasks.
+ * <p>
+ * The task ids are spread into a fixed number of segments that are shared with the snapshots produced by the
+ * snapshot() method. A segment is copied only when it's modified for the first time after being shared, in this way
+ * taking a snapshot costs O(SEGMENTS) regardless of the number of published tasks, and the snapshots are never
+ * affected by the subsequent modifications of the cache.
  */
-public class PublishedTaskCache implements Cloneable {
+public class PublishedTaskCache {
 
-    private Set<Long> publishedTasks = new HashSet<>();
+    private static final int SEGMENTS = 128;
 
-    public void put(Long taskId) {
-        publishedTasks.add(taskId);
+    private final LongHashSet[] segments = newSegments();
+    private final boolean[] shared = new boolean[SEGMENTS];
+    private long version = 0;
+    private int size = 0;
+
+    public synchronized void put(long taskId) {
+        final int index = segmentIndex(taskId);
+        if (!segments[index].contains(taskId)) {
+            writableSegment(index).add(taskId);
+            version++;
+            size++;
+        }
+    }
+
+    public synchronized void remove(long taskId) {
+        final int index = segmentIndex(taskId);
+        if (segments[index].contains(taskId)) {
+            writableSegment(index).remove(taskId);
+            version++;
+            size--;
+        }
+    }
+
+    public synchronized boolean isPublished(long taskId) {
+        return segments[segmentIndex(taskId)].contains(taskId);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return an immutable view of the currently published tasks.
+     */
+    public synchronized Snapshot snapshot() {
+        Arrays.fill(shared, true);
+        return new Snapshot(segments.clone(), version, size);
+    }
+
+    /**
+     * Immutable view of the published tasks at the time the snapshot was taken.
+     */
+    public static class Snapshot {
+
+        private final LongHashSet[] segments;
+        private final long version;
+        private final int size;
+
+        private Snapshot(LongHashSet[] segments, long version, int size) {
+            this.segments = segments;
+            this.version = version;
+            this.size = size;
+        }
+
+        public boolean isPublished(long taskId) {
+            return segments[segmentIndex(taskId)].contains(taskId);
+        }
+
+        /**
+         * @return the number of modifications the cache had received when the snapshot was taken.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+
+    private LongHashSet writableSegment(int index) {
+        if (shared[index]) {
+            segments[index] = segments[index].copy();
+            shared[index] = false;
+        }
+        return segments[index];
     }
 
-    public boolean isPublished(Long taskId) {
-        return publishedTasks.contains(taskId);
+    private static int segmentIndex(long taskId) {
+        return (int) (taskId ^ (taskId >>> 32)) & (SEGMENTS - 1);
     }
 
-    public Object clone() {
-        try {
-            final PublishedTaskCache clone = (PublishedTaskCache) super.clone();
-            clone.publishedTasks = new HashSet<>(this.publishedTasks);
-            return clone;
-        } catch (CloneNotSupportedException e) {
-            //will never happen.
-            throw new RuntimeException("Failed to clone PublishedTaskCache", e);
+    private static LongHashSet[] newSegments() {
+        final LongHashSet[] segments = new LongHashSet[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new LongHashSet();
         }
+        return segments;
     }
 }
@@ -16,7 +16,10 @@
 
 package org.jbpm.task.assigning.runtime.service;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -32,7 +35,9 @@ import org.jbpm.task.assigning.model.Group;
 import org.jbpm.task.assigning.model.Task;
 import org.jbpm.task.assigning.model.TaskAssigningSolution;
 import org.jbpm.task.assigning.model.TaskOrUser;
+import org.jbpm.task.assigning.model.TypedLabel;
 import org.jbpm.task.assigning.model.User;
+import org.jbpm.task.assigning.model.solver.EligibilityIndex;
 import org.jbpm.task.assigning.process.runtime.integration.client.PlanningParameters;
 import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
 
@@ -44,9 +49,22 @@ import static org.jbpm.task.assigning.process.runtime.integration.client.TaskSta
 /**
  * This class is intended for the construction of a TaskAssigningSolution given a set TaskInfo and a set of User.
  * The solution is constructed considering the PlanningParameters for each task.
+ * <p>
+ * The TaskInfos can be added in pages, e.g. as they are read from the jBPM runtime, every TaskInfo is converted into
+ * a Task when it's added, so it can be discarded by the caller immediately after.
  */
 public class SolutionBuilder {
 
+    /**
+     * Name of the user attribute with the user skills, a comma separated list of values.
+     */
+    public static final String SKILLS_ATTRIBUTE = "skills";
+
+    /**
+     * Name of the user attribute with the user affinities, a comma separated list of values.
+     */
+    public static final String AFFINITIES_ATTRIBUTE = "affinities";
+
     public static final Task DUMMY_TASK;
 
     static {
@@ -90,15 +108,27 @@ public class SolutionBuilder {
         }
     }
 
-    private List<TaskInfo> taskInfos;
+    private final List<Task> unAssignedTasks = new ArrayList<>();
+    private final Map<String, List<SolutionBuilder.AssignedTask>> assignedTasksByUserId = new HashMap<>();
+    private final List<Long> publishedTaskIds = new ArrayList<>();
     private List<org.jbpm.task.assigning.user.system.integration.User> externalUsers;
     private PublishedTaskCache publishedTasks;
+    private TaskDurationEstimates durationEstimates;
+    private LocalDateTime referenceTime;
 
     public SolutionBuilder() {
     }
 
     public SolutionBuilder withTasks(List<TaskInfo> taskInfos) {
-        this.taskInfos = taskInfos;
+        return addTasks(taskInfos);
+    }
+
+    /**
+     * Adds a page of tasks to the solution.
+     * @param taskInfos the tasks to add.
+     */
+    public SolutionBuilder addTasks(List<TaskInfo> taskInfos) {
+        taskInfos.forEach(this::addTask);
         return this;
     }
 
@@ -112,47 +142,28 @@ public class SolutionBuilder {
         return this;
     }
 
-    public TaskAssigningSolution build() {
-        final List<Task> unAssignedTasks = new ArrayList<>();
-        final Map<String, List<SolutionBuilder.AssignedTask>> assignedTasksByUserId = new HashMap<>();
-
-        taskInfos.forEach(taskInfo -> {
-            final Task task = fromTaskInfo(taskInfo);
-            if (Ready == taskInfo.getStatus()) {
-                //ready tasks are assigned to nobody.
-                unAssignedTasks.add(task);
-            } else if (Reserved == taskInfo.getStatus() || InProgress == taskInfo.getStatus() || Suspended == taskInfo.getStatus()) {
-                if (StringUtils.isNoneEmpty(taskInfo.getActualOwner())) {
-                    // If actualOwner is empty the only chance is that the task was in Ready status and changed to
-                    // Suspended, since Reserved and InProgress tasks has always an owner in jBPM.
-                    // Finally tasks with no actualOwner (Suspended) are skipped, since they'll be properly added to the
-                    // solution when they change to Ready status and the proper jBPM event is raised.
-
-                    final PlanningParameters currentParameters = taskInfo.getPlanningParameters();
-                    boolean published;
-                    boolean pinned;
-                    if (currentParameters != null) {
-                        //the task was already planned.
-                        published = InProgress == taskInfo.getStatus() || currentParameters.isPublished();
-                        pinned = published || currentParameters.isPinned();
-                        if (Objects.equals(currentParameters.getAssignedUser(), taskInfo.getActualOwner())) {
-                            //preserve currentParameters.
-                            addTaskToUser(assignedTasksByUserId, task, currentParameters.getAssignedUser(), currentParameters.getIndex(), published, pinned);
-                        } else {
-                            addTaskToUser(assignedTasksByUserId, task, taskInfo.getActualOwner(), -1, published, pinned);
-                        }
-                    } else {
-                        published = InProgress == taskInfo.getStatus();
-                        pinned = published;
-                        addTaskToUser(assignedTasksByUserId, task, taskInfo.getActualOwner(), -1, published, pinned);
-                    }
-                    if (published && publishedTasks != null) {
-                        publishedTasks.put(taskInfo.getTaskId());
-                    }
-                }
-            }
-        });
+    /**
+     * Sets the estimates for the duration of the tasks. Since the tasks are converted as soon as they are added, the
+     * estimates must be set before adding them.
+     */
+    public SolutionBuilder withDurationEstimates(TaskDurationEstimates durationEstimates) {
+        this.durationEstimates = durationEstimates;
+        return this;
+    }
 
+    /**
+     * Sets the reference time of the solution, the dueTime of the tasks is calculated from it. If not set, the
+     * currentReferenceTime() at the moment of building the solution is used.
+     */
+    public SolutionBuilder withReferenceTime(LocalDateTime referenceTime) {
+        this.referenceTime = referenceTime;
+        return this;
+    }
+
+    public TaskAssigningSolution build() {
+        if (publishedTasks != null) {
+            publishedTaskIds.forEach(publishedTasks::put);
+        }
         final List<Task> allTasks = new ArrayList<>();
         final List<User> allUsers = new ArrayList<>();
         final Map<String, User> usersById = externalUsers.stream()
@@ -181,7 +192,54 @@ public class SolutionBuilder {
             }
         });
         allTasks.addAll(unAssignedTasks);
-        return new TaskAssigningSolution(-1, allUsers, allTasks);
+        final TaskAssigningSolution solution = new TaskAssigningSolution(-1, allUsers, allTasks);
+        solution.setReferenceTime(referenceTime != null ? referenceTime : currentReferenceTime());
+        allTasks.forEach(task -> {
+            if (task.getDueDate() != null) {
+                task.setDueTime(Task.calculateDueTime(solution.getReferenceTime(), task.getDueDate()));
+            }
+        });
+        final EligibilityIndex eligibilityIndex = new EligibilityIndex();
+        eligibilityIndex.index(solution);
+        solution.setEligibilityIndex(eligibilityIndex);
+        return solution;
+    }
+
+    private void addTask(TaskInfo taskInfo) {
+        final Task task = fromTaskInfo(taskInfo, durationEstimates);
+        if (Ready == taskInfo.getStatus()) {
+            //ready tasks are assigned to nobody.
+            unAssignedTasks.add(task);
+        } else if (Reserved == taskInfo.getStatus() || InProgress == taskInfo.getStatus() || Suspended == taskInfo.getStatus()) {
+            if (StringUtils.isNoneEmpty(taskInfo.getActualOwner())) {
+                // If actualOwner is empty the only chance is that the task was in Ready status and changed to
+                // Suspended, since Reserved and InProgress tasks has always an owner in jBPM.
+                // Finally tasks with no actualOwner (Suspended) are skipped, since they'll be properly added to the
+                // solution when they change to Ready status and the proper jBPM event is raised.
+
+                final PlanningParameters currentParameters = taskInfo.getPlanningParameters();
+                boolean published;
+                boolean pinned;
+                if (currentParameters != null) {
+                    //the task was already planned.
+                    published = InProgress == taskInfo.getStatus() || currentParameters.isPublished();
+                    pinned = published || currentParameters.isPinned();
+                    if (Objects.equals(currentParameters.getAssignedUser(), taskInfo.getActualOwner())) {
+                        //preserve currentParameters.
+                        addTaskToUser(assignedTasksByUserId, task, currentParameters.getAssignedUser(), currentParameters.getIndex(), published, pinned);
+                    } else {
+                        addTaskToUser(assignedTasksByUserId, task, taskInfo.getActualOwner(), -1, published, pinned);
+                    }
+                } else {
+                    published = InProgress == taskInfo.getStatus();
+                    pinned = published;
+                    addTaskToUser(assignedTasksByUserId, task, taskInfo.getActualOwner(), -1, published, pinned);
+                }
+                if (published) {
+                    publishedTaskIds.add(taskInfo.getTaskId());
+                }
+            }
+        }
     }
 
     /**
@@ -231,7 +289,22 @@ public class SolutionBuilder {
         assignedTasks.add(insertIndex, new SolutionBuilder.AssignedTask(task, index, published, pinned));
     }
 
+    /**
+     * @return the current time truncated to minutes, the resolution of the task times.
+     */
+    static LocalDateTime currentReferenceTime() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+    }
+
     static Task fromTaskInfo(TaskInfo taskInfo) {
+        return fromTaskInfo(taskInfo, null);
+    }
+
+    /**
+     * Converts the TaskInfo into a Task. The duration is taken from the estimates, if any. Only the due date is set,
+     * the dueTime is calculated against the reference time of the solution the task is added to.
+     */
+    static Task fromTaskInfo(TaskInfo taskInfo, TaskDurationEstimates durationEstimates) {
         final Task task = new Task(taskInfo.getTaskId(),
                                    taskInfo.getProcessInstanceId(),
                                    taskInfo.getProcessId(),
@@ -248,6 +321,14 @@ public class SolutionBuilder {
                 }
             });
         }
+        if (durationEstimates != null) {
+            task.setDuration(durationEstimates.estimate(taskInfo.getProcessId(), taskInfo.getName(), taskInfo.getActualOwner()));
+        }
+        task.setDueDate(taskInfo.getDueDate());
+        if (taskInfo.getInputData() != null) {
+            task.setTypedLabels(toTypedLabels(taskInfo.getInputData().get(TaskInfo.SKILLS_INPUT_VARIABLE),
+                                              taskInfo.getInputData().get(TaskInfo.AFFINITIES_INPUT_VARIABLE)));
+        }
         return task;
     }
 
@@ -258,7 +339,36 @@ public class SolutionBuilder {
         if (externalUser.getGroups() != null) {
             externalUser.getGroups().forEach(externalGroup -> groups.add(new Group(externalGroup.getId().hashCode(), externalGroup.getId())));
         }
+        if (externalUser.getAttributes() != null) {
+            user.setTypedLabels(toTypedLabels(externalUser.getAttributes().get(SKILLS_ATTRIBUTE),
+                                              externalUser.getAttributes().get(AFFINITIES_ATTRIBUTE)));
+        }
         return user;
     }
+
+    /**
+     * @param skills a comma separated String, or a Collection, with the skill values. Can be null.
+     * @param affinities a comma separated String, or a Collection, with the affinity values. Can be null.
+     */
+    static Set<TypedLabel> toTypedLabels(Object skills, Object affinities) {
+        final Set<TypedLabel> result = new HashSet<>();
+        toLabelValues(skills).forEach(value -> result.add(TypedLabel.newSkill(value)));
+        toLabelValues(affinities).forEach(value -> result.add(TypedLabel.newAffinity(value)));
+        return result;
+    }
+
+    private static List<String> toLabelValues(Object labels) {
+        final List<String> result = new ArrayList<>();
+        if (labels instanceof Collection) {
+            ((Collection<?>) labels).forEach(label -> result.addAll(toLabelValues(label)));
+        } else if (labels != null) {
+            for (String value : labels.toString().split(",")) {
+                if (StringUtils.isNotBlank(value)) {
+                    result.add(value.trim());
+                }
+            }
+        }
+        return result;
+    }
 }
 
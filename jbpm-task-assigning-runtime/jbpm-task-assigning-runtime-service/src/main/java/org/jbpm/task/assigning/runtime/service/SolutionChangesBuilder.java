@@ -18,9 +18,7 @@ package org.jbpm.task.assigning.runtime.service;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.function.LongPredicate;
 
 import org.jbpm.task.assigning.model.Task;
 import org.jbpm.task.assigning.model.TaskAssigningSolution;
@@ -32,17 +30,24 @@ import org.jbpm.task.assigning.model.solver.realtime.RemoveTaskProblemFactChange
 import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
 import org.optaplanner.core.impl.solver.ProblemFactChange;
 
-import static org.jbpm.task.assigning.runtime.service.SolutionBuilder.DUMMY_TASK;
 import static org.jbpm.task.assigning.runtime.service.SolutionBuilder.fromTaskInfo;
 
 public class SolutionChangesBuilder {
 
     private TaskAssigningSolution solution;
 
+    private TaskStateIndex index;
+
     private List<TaskInfo> taskInfos;
 
     private PublishedTaskCache publishedTasks;
 
+    private boolean incrementalMode = false;
+
+    private LongPredicate activeTasks;
+
+    private TaskDurationEstimates durationEstimates;
+
     public SolutionChangesBuilder() {
     }
 
@@ -51,6 +56,17 @@ public class SolutionChangesBuilder {
         return this;
     }
 
+    /**
+     * Sets the index with the current tasks and users of the solution. When set, the solution passed with the
+     * withSolution method is not used and the cost of building the changes only depends on the number of tasks passed
+     * to the builder (and on the number of indexed tasks for a full synchronization). Note that the index is not
+     * updated by the builder, see TaskStateIndex.apply(changes).
+     */
+    public SolutionChangesBuilder withIndex(TaskStateIndex index) {
+        this.index = index;
+        return this;
+    }
+
     public SolutionChangesBuilder withTasks(List<TaskInfo> taskInfos) {
         this.taskInfos = taskInfos;
         return this;
@@ -61,33 +77,71 @@ public class SolutionChangesBuilder {
         return this;
     }
 
+    /**
+     * Indicates if the tasks passed to the builder are the full set of active tasks in the jBPM runtime, or only the
+     * tasks that has been modified since the previous synchronization.
+     * @param incrementalMode true if the tasks are only the tasks that has been modified since the previous
+     * synchronization. In this case, the tasks in the solution that are not present in the tasks won't be removed,
+     * and it's expected that the finished tasks are informed with the corresponding status, e.g. Completed. false if
+     * the tasks are the full set of active tasks. (default value)
+     */
+    public SolutionChangesBuilder withIncrementalMode(boolean incrementalMode) {
+        this.incrementalMode = incrementalMode;
+        return this;
+    }
+
+    /**
+     * Only applies when the incrementalMode is false. Indicates the tasks that are still active in the jBPM runtime
+     * although they are not present in the tasks passed to the builder, e.g. because they were already delivered by
+     * a previous page of the same synchronization.
+     * @param activeTasks a predicate that returns true for the active taskIds, or null if the tasks passed to the
+     * builder are the full set of active tasks. (default value)
+     */
+    public SolutionChangesBuilder withActiveTasks(LongPredicate activeTasks) {
+        this.activeTasks = activeTasks;
+        return this;
+    }
+
+    /**
+     * Sets the estimates for the duration of the new tasks.
+     */
+    public SolutionChangesBuilder withDurationEstimates(TaskDurationEstimates durationEstimates) {
+        this.durationEstimates = durationEstimates;
+        return this;
+    }
+
     public List<ProblemFactChange<TaskAssigningSolution>> build() {
         //TODO OJO, siempre puede estar el caso donde nada ha cambiado y no hay q hacer nada. Lo tengo contemplado???
         final List<ProblemFactChange<TaskAssigningSolution>> changes = new ArrayList<>();
-        final Map<Long, Task> tasksById = solution.getTaskList()
-                .stream()
-                .filter(task -> !DUMMY_TASK.getId().equals(task.getId()))
-                .collect(Collectors.toMap(Task::getId, Function.identity()));
-        final Map<String, User> userById = solution.getUserList()
-                .stream()
-                .collect(Collectors.toMap(User::getEntityId, Function.identity()));
+        final TaskStateIndex index = this.index != null ? this.index : TaskStateIndex.fromSolution(solution);
+        // only needed for removing the tasks that are no longer in the jBPM runtime.
+        final LongHashSet visitedTaskIds = incrementalMode ? null : new LongHashSet();
 
+        TaskStateIndex.TaskState taskState;
         Task task;
         for (TaskInfo taskInfo : taskInfos) {
-            task = tasksById.remove(taskInfo.getTaskId());
+            taskState = index.getTask(taskInfo.getTaskId());
+            task = taskState != null ? taskState.getTask() : null;
+            if (visitedTaskIds != null) {
+                visitedTaskIds.add(taskInfo.getTaskId());
+            }
 
             switch (taskInfo.getStatus()) {
                 case Ready:
                     if (task == null) {
                         // it's a new task
-                        final Task newTask = fromTaskInfo(taskInfo);
+                        final Task newTask = fromTaskInfo(taskInfo, durationEstimates);
                         changes.add(new AddTaskProblemFactChange(newTask));
+                    } else if (publishedTasks != null && !publishedTasks.isPublished(taskInfo.getTaskId())) {
+                        // the task was never published, so it's still Ready in the jBPM runtime as expected, do nothing.
+                        // e.g. the task was informed by a task event and by the polling.
                     } else {
                         // task was probably assigned to someone else in the past and released from the task list administration
                         // since the planner never leave tasks in Released status.
-                        // release the task in the plan and let it be assigned again.
-                        // (ideally a different user should be prioritized for the next time...)
+                        // release the task in the plan and let it be assigned again, preferably to a different user.
                         changes.add(new ReleaseTaskProblemFactChange(taskInfo.getTaskId()));
+                        // the task is no longer published, it'll be published again when reassigned.
+                        markAsUnpublished(taskInfo.getTaskId());
                     }
                     break;
                 case Reserved:
@@ -100,11 +154,11 @@ public class SolutionChangesBuilder {
 
                         // ensure the published status is true, since the task was already seen by the public audience.
                         markAsPublished(taskInfo.getTaskId());
-                        final Task newTask = fromTaskInfo(taskInfo);
-                        final User user = userById.get(taskInfo.getActualOwner());
+                        final Task newTask = fromTaskInfo(taskInfo, durationEstimates);
+                        final User user = index.getUser(taskInfo.getActualOwner());
                         // TODO check that the user exists.
                         changes.add(new AssignTaskProblemFactChange(newTask, user));
-                    } else if (taskInfo.getActualOwner().equals(task.getUser().getEntityId())) {
+                    } else if (taskInfo.getActualOwner().equals(taskState.getAssignedUser())) {
                         // that's fine, the task still belongs to the previously assigned user, do nothing.
                         // double check that the task is marked as published.
                         markAsPublished(taskInfo.getTaskId());
@@ -118,7 +172,7 @@ public class SolutionChangesBuilder {
 
                         // ensure the published status is true, since the task was already seen by the public audience.
                         markAsPublished(taskInfo.getTaskId());
-                        final User user = userById.get(taskInfo.getActualOwner());
+                        final User user = index.getUser(taskInfo.getActualOwner());
                         // TODO, check that the user exists.
                         changes.add(new AssignTaskProblemFactChange(task, user));
                     }
@@ -134,13 +188,13 @@ public class SolutionChangesBuilder {
                             // we add it to the solution since this assignment might affect the workload, etc., of the plan.
                             // ensure the published status is true, since the task was already seen by the public audience.
                             markAsPublished(taskInfo.getTaskId());
-                            final Task newTask = fromTaskInfo(taskInfo);
-                            final User user = userById.get(taskInfo.getActualOwner());
+                            final Task newTask = fromTaskInfo(taskInfo, durationEstimates);
+                            final User user = index.getUser(taskInfo.getActualOwner());
                             // TODO check that the user exists.
                             changes.add(new AssignTaskProblemFactChange(newTask, user));
                         }
                     } else {
-                        if (taskInfo.getActualOwner().equals(task.getUser().getEntityId())) {
+                        if (taskInfo.getActualOwner().equals(taskState.getAssignedUser())) {
                             // that's fine, the task still belongs to the previously assigned user, do nothing.
                             // double check that the task is marked as published might not be bad.
                             markAsPublished(taskInfo.getTaskId());
@@ -149,19 +203,38 @@ public class SolutionChangesBuilder {
                             // reflect that change in the plan.
                             // ensure the published status is true, since the task was already seen by the public audience.
                             markAsPublished(taskInfo.getTaskId());
-                            final User user = userById.get(taskInfo.getActualOwner());
+                            final User user = index.getUser(taskInfo.getActualOwner());
                             // TODO check that the user exists.
                             changes.add(new AssignTaskProblemFactChange(task, user));
                         }
                     }
+                    break;
+                case Completed:
+                case Exited:
+                case Failed:
+                case Error:
+                case Obsolete:
+                    if (task != null) {
+                        // the task was finished in the jBPM runtime, no users will work on this task any more.
+                        changes.add(new RemoveTaskProblemFactChange(task));
+                    }
+                    // the task will never be published again.
+                    markAsUnpublished(taskInfo.getTaskId());
+                    break;
             }
         }
 
-        // finally all the tasks that were part of the solution and are no longer in the taskInfos must be removed
-        // since they were already Completed, Exited, or any other status were get out from. No users will work on
-        // this tasks any more.
-        for (Task oldTask : tasksById.values()) {
-            changes.add(new RemoveTaskProblemFactChange(oldTask));
+        if (!incrementalMode) {
+            // finally all the tasks that were part of the solution and are no longer in the taskInfos must be removed
+            // since they were already Completed, Exited, or any other status were get out from. No users will work on
+            // this tasks any more.
+            index.forEachTask(oldTaskState -> {
+                final Task oldTask = oldTaskState.getTask();
+                if (!visitedTaskIds.contains(oldTask.getId()) && (activeTasks == null || !activeTasks.test(oldTask.getId()))) {
+                    changes.add(new RemoveTaskProblemFactChange(oldTask));
+                    markAsUnpublished(oldTask.getId());
+                }
+            });
         }
         return changes;
     }
@@ -171,4 +244,10 @@ public class SolutionChangesBuilder {
             publishedTasks.put(taskId);
         }
     }
+
+    private void markAsUnpublished(long taskId) {
+        if (publishedTasks != null) {
+            publishedTasks.remove(taskId);
+        }
+    }
 }
@@ -17,8 +17,13 @@
 package org.jbpm.task.assigning.runtime.service;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
@@ -26,8 +31,15 @@ import java.util.function.Consumer;
 import org.jbpm.task.assigning.model.Task;
 import org.jbpm.task.assigning.model.TaskAssigningSolution;
 import org.jbpm.task.assigning.model.User;
+import org.jbpm.task.assigning.model.solver.realtime.AddTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.AssignTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.ReleaseTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.RemoveTaskProblemFactChange;
+import org.jbpm.task.assigning.process.runtime.integration.client.PlanningParameters;
 import org.jbpm.task.assigning.process.runtime.integration.client.ProcessRuntimeIntegrationClient;
 import org.jbpm.task.assigning.process.runtime.integration.client.TaskPlanningInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskPlanningResult;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +55,8 @@ public class SolutionProcessor implements Runnable {
     private static final Logger LOGGER = LoggerFactory.getLogger(SolutionProcessor.class);
 
     private final ProcessRuntimeIntegrationClient runtimeClient;
+    private final SolverHandlerMetrics metrics;
+    private final Consumer<List<TaskPlanningInfo>> planningConsumer;
     private final Consumer<Result> resultConsumer;
 
     private final Semaphore solutionResource = new Semaphore(0);
@@ -50,15 +64,37 @@ public class SolutionProcessor implements Runnable {
     private final AtomicBoolean destroyed = new AtomicBoolean(false);
 
     private TaskAssigningSolution solution;
-    private PublishedTaskCache publishedTasks;
+    private PublishedTaskCache.Snapshot publishedTasks;
+
+    /**
+     * Snapshot of the last planning successfully applied in the jBPM runtime (taskId -> planning parameters). Only
+     * the tasks which planning parameters differs from this snapshot are sent to the jBPM runtime when a new solution
+     * is processed. It's only accessed from the processing thread.
+     */
+    private Map<Long, PlanningParameters> appliedPlanning = new HashMap<>();
+
+    /**
+     * Tasks which state was changed in the jBPM runtime by others than the SolutionProcessor, their entries in the
+     * appliedPlanning snapshot are discarded before the next solution is processed.
+     */
+    private final Queue<Long> evictedTaskIds = new ConcurrentLinkedQueue<>();
 
     public static class Result {
 
         private Exception error;
 
+        private List<TaskPlanningInfo> appliedPlanningInfos = Collections.emptyList();
+
+        private List<TaskPlanningResult> planningResults = Collections.emptyList();
+
         public Result() {
         }
 
+        private Result(List<TaskPlanningInfo> appliedPlanningInfos, List<TaskPlanningResult> planningResults) {
+            this.appliedPlanningInfos = appliedPlanningInfos;
+            this.planningResults = planningResults;
+        }
+
         private Result(Exception error) {
             this.error = error;
         }
@@ -70,12 +106,42 @@ public class SolutionProcessor implements Runnable {
         public Exception getError() {
             return error;
         }
+
+        /**
+         * @return the planning that was applied into the jBPM runtime while processing the solution, only the tasks
+         * that changed since the previously applied planning are included.
+         */
+        public List<TaskPlanningInfo> getAppliedPlanningInfos() {
+            return appliedPlanningInfos;
+        }
+
+        /**
+         * @return the results of applying the planning into the jBPM runtime, one per each task that was sent to the
+         * planningConsumer.
+         */
+        public List<TaskPlanningResult> getPlanningResults() {
+            return planningResults;
+        }
     }
 
-    public SolutionProcessor(final ProcessRuntimeIntegrationClient runtimeClient, final Consumer<Result> resultConsumer) {
+    /**
+     * @param runtimeClient client for applying the planning into the jBPM runtime.
+     * @param metrics metrics to record the processing in.
+     * @param planningConsumer receives the planning that is about to be applied, it's invoked before any change is
+     * sent to the jBPM runtime and the processing waits for it to return.
+     * @param resultConsumer receives the result of processing a solution.
+     */
+    public SolutionProcessor(final ProcessRuntimeIntegrationClient runtimeClient,
+                             final SolverHandlerMetrics metrics,
+                             final Consumer<List<TaskPlanningInfo>> planningConsumer,
+                             final Consumer<Result> resultConsumer) {
         checkNotNull("runtimeClient", runtimeClient);
+        checkNotNull("metrics", metrics);
+        checkNotNull("planningConsumer", planningConsumer);
         checkNotNull("resultConsumer", resultConsumer);
         this.runtimeClient = runtimeClient;
+        this.metrics = metrics;
+        this.planningConsumer = planningConsumer;
         this.resultConsumer = resultConsumer;
     }
 
@@ -98,8 +164,9 @@ public class SolutionProcessor implements Runnable {
      * }
      * A null value will throw an exception.
      * @param solution a solution to process.
+     * @param publishedTasks snapshot of the published tasks at the time the solution is handed off.
      */
-    public void process(final TaskAssigningSolution solution, final PublishedTaskCache publishedTasks) {
+    public void process(final TaskAssigningSolution solution, final PublishedTaskCache.Snapshot publishedTasks) {
         checkNotNull("solution", solution);
         checkNotNull("publishedTasks", publishedTasks);
         processing.set(true);
@@ -108,6 +175,27 @@ public class SolutionProcessor implements Runnable {
         solutionResource.release();
     }
 
+    /**
+     * Discards the applied planning of the tasks touched by the given changes, i.e. tasks that were added, assigned,
+     * released or removed as a consequence of a change in the jBPM runtime. In this way, if the solver proposes again
+     * the planning that was applied before the change, the task is sent to the jBPM runtime instead of being considered
+     * as unchanged. This method can be invoked from any thread.
+     * @param changes the changes produced by a synchronization.
+     */
+    public void evictAppliedPlanning(List<ProblemFactChange<TaskAssigningSolution>> changes) {
+        for (ProblemFactChange<TaskAssigningSolution> change : changes) {
+            if (change instanceof AddTaskProblemFactChange) {
+                evictedTaskIds.add(((AddTaskProblemFactChange) change).getTask().getId());
+            } else if (change instanceof AssignTaskProblemFactChange) {
+                evictedTaskIds.add(((AssignTaskProblemFactChange) change).getTask().getId());
+            } else if (change instanceof ReleaseTaskProblemFactChange) {
+                evictedTaskIds.add(((ReleaseTaskProblemFactChange) change).getTaskId());
+            } else if (change instanceof RemoveTaskProblemFactChange) {
+                evictedTaskIds.add(((RemoveTaskProblemFactChange) change).getTask().getId());
+            }
+        }
+    }
+
     public void destroy() {
         destroyed.set(true);
         solutionResource.release(); //in case it was waiting for a solution to process.
@@ -127,8 +215,9 @@ public class SolutionProcessor implements Runnable {
         }
     }
 
-    private void doProcess(final TaskAssigningSolution solution, final PublishedTaskCache publishedTasks) {
+    private void doProcess(final TaskAssigningSolution solution, final PublishedTaskCache.Snapshot publishedTasks) {
         LOGGER.debug("Starting processing of solution: " + solution);
+        final long start = System.nanoTime();
         final int publishWindowSize = 4;
         final List<TaskPlanningInfo> taskPlanningInfos = new ArrayList<>(solution.getTaskList().size());
         List<TaskPlanningInfo> userTaskPlanningInfos;
@@ -168,12 +257,68 @@ public class SolutionProcessor implements Runnable {
             }
             taskPlanningInfos.addAll(userTaskPlanningInfos);
         }
-        //TODO set the proper user insead of "wbadmin"
-        runtimeClient.applyPlanning(taskPlanningInfos, "wbadmin");
 
-        //TODO check the error management.
+        Long evictedTaskId;
+        while ((evictedTaskId = evictedTaskIds.poll()) != null) {
+            appliedPlanning.remove(evictedTaskId);
+        }
+
+        // only the tasks that changed since the last applied planning must be sent. Tasks no longer in the solution
+        // are discarded from the snapshot.
+        final Map<Long, PlanningParameters> nextAppliedPlanning = new HashMap<>(taskPlanningInfos.size());
+        final Map<Long, TaskPlanningInfo> changedPlanningInfos = new HashMap<>();
+        PlanningParameters appliedParameters;
+        for (TaskPlanningInfo planningInfo : taskPlanningInfos) {
+            appliedParameters = appliedPlanning.get(planningInfo.getTaskId());
+            if (planningInfo.getPlanningParameters().equals(appliedParameters)) {
+                nextAppliedPlanning.put(planningInfo.getTaskId(), appliedParameters);
+            } else {
+                changedPlanningInfos.put(planningInfo.getTaskId(), planningInfo);
+            }
+        }
+        LOGGER.debug(changedPlanningInfos.size() + " of " + taskPlanningInfos.size() + " tasks has changed since the last applied planning.");
+
+        Result result;
+        try {
+            final List<TaskPlanningInfo> appliedPlanningInfos = new ArrayList<>();
+            List<TaskPlanningResult> planningResults = Collections.emptyList();
+            if (!changedPlanningInfos.isEmpty()) {
+                final List<TaskPlanningInfo> planningInfosToApply = new ArrayList<>(changedPlanningInfos.values());
+                // the task events produced by the delegations might arrive before this method returns.
+                planningConsumer.accept(planningInfosToApply);
+                //TODO set the proper user insead of "wbadmin"
+                planningResults = runtimeClient.applyPlanning(planningInfosToApply, "wbadmin");
+                long errors = 0;
+                for (TaskPlanningResult planningResult : planningResults) {
+                    if (planningResult.getStatus() == TaskPlanningResult.Status.APPLIED ||
+                            planningResult.getStatus() == TaskPlanningResult.Status.UNCHANGED) {
+                        final TaskPlanningInfo appliedPlanningInfo = changedPlanningInfos.get(planningResult.getTaskId());
+                        nextAppliedPlanning.put(planningResult.getTaskId(), appliedPlanningInfo.getPlanningParameters());
+                        appliedPlanningInfos.add(appliedPlanningInfo);
+                    } else if (planningResult.getStatus() == TaskPlanningResult.Status.SKIPPED) {
+                        // the task can't accept the planning anymore, e.g. it was started in the meantime. It's kept in
+                        // the snapshot so that it's not sent again with every new solution until the solver gets
+                        // the change, but it's not reported as applied.
+                        nextAppliedPlanning.put(planningResult.getTaskId(), changedPlanningInfos.get(planningResult.getTaskId()).getPlanningParameters());
+                    } else if (planningResult.hasError()) {
+                        // not added to the snapshot, so it'll be sent again with the next solution.
+                        errors++;
+                    }
+                }
+                if (errors > 0) {
+                    LOGGER.warn("Planning application finished with errors for " + errors + " of " + planningResults.size() + " tasks.");
+                }
+            }
+            appliedPlanning = nextAppliedPlanning;
+            result = new Result(appliedPlanningInfos, planningResults);
+        } catch (Exception e) {
+            LOGGER.error("An error was produced during solution processing.", e);
+            result = new Result(e);
+        }
+
+        metrics.recordSolutionProcessing(System.nanoTime() - start, changedPlanningInfos.size());
         processing.set(false);
-        resultConsumer.accept(new Result());
+        resultConsumer.accept(result);
 
         LOGGER.debug("Solution processing finished: " + solution);
     }
@@ -16,20 +16,35 @@
 
 package org.jbpm.task.assigning.runtime.service;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 
 import org.jbpm.task.assigning.model.TaskAssigningSolution;
 import org.jbpm.task.assigning.process.runtime.integration.client.ProcessRuntimeIntegrationClient;
 import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskInputVariablesReadMode;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus;
 import org.jbpm.task.assigning.user.system.integration.UserSystemService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus.Completed;
+import static org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus.Error;
+import static org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus.Exited;
+import static org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus.Failed;
 import static org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus.InProgress;
+import static org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus.Obsolete;
 import static org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus.Ready;
 import static org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus.Reserved;
 import static org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus.Suspended;
@@ -40,40 +55,142 @@ import static org.kie.soup.commons.validation.PortablePreconditions.checkNotNull
  * This class manages reading of current jBPM state and offer the results to the consumer for updating current solution
  * with the potential changes. Additionally at the first time, when the SolverExecutor is not yet started, it manages
  * the initial solution recovery from the proper repository and invokes the SolverExecutor start.
- * As soon the SolverExecutor was started it starts the synchronization with the configured period by implementing a
- * polling strategy.
+ * As soon the SolverExecutor was started it starts the synchronization by implementing a polling strategy, with a
+ * period that is adapted to the number of changes read by the previous polls, see AdaptiveSyncPeriod. Additionally,
+ * the task events produced by the TaskAssigningTaskEventListener are applied as soon as they are received, and in this
+ * case the polling is only executed with the reconciliationPeriod for recovering potentially lost changes.
  */
 public class SolutionSynchronizer implements Runnable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SolutionSynchronizer.class);
 
+    /**
+     * Max number of rows read per query when the tasks are loaded from the jBPM runtime.
+     */
+    public static final String PAGE_SIZE_PROPERTY = "org.jbpm.task.assigning.sync.pageSize";
+
+    private static final int PAGE_SIZE = Integer.getInteger(PAGE_SIZE_PROPERTY, 5000);
+
+    /**
+     * Time in milliseconds that every incremental synchronization starts before the highest task lastModificationDate
+     * already read, for reading the tasks which changes were committed late, see ModificationWatermark.
+     */
+    public static final String SYNC_OVERLAP_PROPERTY = "org.jbpm.task.assigning.sync.overlap";
+
+    private static final long SYNC_OVERLAP = Long.getLong(SYNC_OVERLAP_PROPERTY, 2000);
+
+    private static final List<TaskStatus> ACTIVE_STATUS = Arrays.asList(Ready, Reserved, InProgress, Suspended);
+
+    private static final List<TaskStatus> FINISHED_STATUS = Arrays.asList(Completed, Exited, Failed, Error, Obsolete);
+
+    /**
+     * Only the skills and affinities constraints depend on the task input variables, so there's no need to read the
+     * others.
+     */
+    private static final TaskInputVariablesReadMode INPUT_VARIABLES_READ_MODE = TaskInputVariablesReadMode.READ_LABELS;
+
+    /**
+     * Time in milliseconds for grouping the task events that are produced close in time, e.g. by the same jBPM
+     * transaction, into the same set of changes.
+     */
+    private static final long EVENTS_BATCH_WINDOW = 50;
+
+    private static final int EVENTS_BATCH_SIZE = 1000;
+
     private final SolverExecutor solverExecutor;
     private final PublishedTaskCache publishedTasks;
+    private final TaskDurationEstimates durationEstimates;
+    private final TaskEventQueue eventQueue;
     private final ProcessRuntimeIntegrationClient runtimeClient;
     private final UserSystemService userSystemService;
-    private final long period;
-    private final Consumer<List<TaskInfo>> taskInfoConsumer;
+    private final AdaptiveSyncPeriod syncPeriod;
+    private final long reconciliationPeriod;
+    private final long durationHistoryPeriod;
+    private final SolverHandlerMetrics metrics;
+    private final Consumer<Result> resultConsumer;
 
     private final Semaphore startPermit = new Semaphore(0);
     private final AtomicBoolean destroyed = new AtomicBoolean(false);
+    private final AtomicBoolean fullSynchronizationRequested = new AtomicBoolean(false);
+
+    /**
+     * Lower bound for the next incremental synchronization, the tasks already read within its overlap are discarded
+     * unless they were modified again.
+     */
+    private final ModificationWatermark watermark = new ModificationWatermark(SYNC_OVERLAP);
+
+    private boolean durationHistoryLoaded = false;
+
+    public static class Result {
+
+        private final List<TaskInfo> taskInfos;
+        private final boolean incremental;
+        private final LongPredicate activeTasks;
+
+        private Result(List<TaskInfo> taskInfos, boolean incremental) {
+            this(taskInfos, incremental, null);
+        }
+
+        private Result(List<TaskInfo> taskInfos, boolean incremental, LongPredicate activeTasks) {
+            this.taskInfos = taskInfos;
+            this.incremental = incremental;
+            this.activeTasks = activeTasks;
+        }
+
+        public List<TaskInfo> getTaskInfos() {
+            return taskInfos;
+        }
+
+        /**
+         * @return true if the taskInfos contains only the tasks modified since the previous synchronization,
+         * including the ones that has been finished. false if the taskInfos contains the full set of active tasks.
+         */
+        public boolean isIncremental() {
+            return incremental;
+        }
+
+        /**
+         * @return for a non incremental result, the predicate that tells if a task not present in the taskInfos is
+         * still active. It's used by the full synchronization, where the tasks were already delivered in pages by
+         * previous incremental results, and this one only informs the tasks that are no longer active. null if the
+         * taskInfos are the full set of active tasks.
+         */
+        public LongPredicate getActiveTasks() {
+            return activeTasks;
+        }
+    }
 
     public SolutionSynchronizer(final SolverExecutor solverExecutor,
                                 final PublishedTaskCache publishedTasks,
+                                final TaskDurationEstimates durationEstimates,
+                                final TaskEventQueue eventQueue,
                                 final ProcessRuntimeIntegrationClient runtimeClient,
                                 final UserSystemService userSystemService,
-                                final long period,
-                                final Consumer<List<TaskInfo>> taskInfoConsumer) {
+                                final AdaptiveSyncPeriod syncPeriod,
+                                final long reconciliationPeriod,
+                                final long durationHistoryPeriod,
+                                final SolverHandlerMetrics metrics,
+                                final Consumer<Result> resultConsumer) {
         checkNotNull("solverExecutor", solverExecutor);
         checkNotNull("publishedTasks", publishedTasks);
+        checkNotNull("durationEstimates", durationEstimates);
+        checkNotNull("eventQueue", eventQueue);
         checkNotNull("runtimeClient", runtimeClient);
-        checkNotNull("taskInfoConsumer", taskInfoConsumer);
-        checkCondition("period", period > 5);
+        checkNotNull("metrics", metrics);
+        checkNotNull("resultConsumer", resultConsumer);
+        checkNotNull("syncPeriod", syncPeriod);
+        checkCondition("reconciliationPeriod", reconciliationPeriod >= syncPeriod.getBasePeriod());
         this.solverExecutor = solverExecutor;
         this.publishedTasks = publishedTasks;
+        this.durationEstimates = durationEstimates;
+        this.eventQueue = eventQueue;
         this.runtimeClient = runtimeClient;
         this.userSystemService = userSystemService;
-        this.period = period;
-        this.taskInfoConsumer = taskInfoConsumer;
+        this.syncPeriod = syncPeriod;
+        this.reconciliationPeriod = reconciliationPeriod;
+        this.durationHistoryPeriod = durationHistoryPeriod;
+        this.metrics = metrics;
+        this.resultConsumer = resultConsumer;
     }
 
     /**
@@ -93,6 +210,14 @@ public class SolutionSynchronizer implements Runnable {
         startPermit.release(); //in case it's still waiting for start.
     }
 
+    /**
+     * Programmes a full synchronization of the solution with the jBPM runtime for the next synchronization period,
+     * instead of the incremental one. This method is thread-safe.
+     */
+    public void requestFullSynchronization() {
+        fullSynchronizationRequested.set(true);
+    }
+
     @Override
     public void run() {
         LOGGER.debug("Solution Synchronizer Started");
@@ -102,38 +227,29 @@ public class SolutionSynchronizer implements Runnable {
         } catch (InterruptedException e) {
             LOGGER.error("Solution Synchronizer was interrupted while waiting for start.", e);
         }
+        long nextSynchronization = 0;
         while (notExit()) {
             try {
-                Thread.sleep(period);
-                if (notExit()) {
-                    if (!solverExecutor.isStarted()) {
-                        try {
-                            LOGGER.debug("Solution Synchronizer loading initial solution.");
-                            final TaskAssigningSolution recoveredSolution = recoverSolution();
-                            if (notExit() && !solverExecutor.isDestroyed()) {
-                                if (!recoveredSolution.getTaskList().isEmpty()) {
-                                    solverExecutor.start(recoveredSolution);
-                                    LOGGER.debug("Initial solution was successfully loaded.");
-                                } else {
-                                    LOGGER.debug("It looks like there are no tasks for loading an initial solution at this moment. " +
-                                                         "Next attempt will be in " + period + " milliseconds");
-                                }
-                            }
-                        } catch (Exception e) {
-                            LOGGER.error("An error was produced during initial solution loading. " +
-                                                 "Next attempt will be in " + period + " milliseconds", e);
-                        }
-                    } else {
-                        try {
-                            LOGGER.debug("Refreshing solution status from external repository.");
-                            final List<TaskInfo> updatedTaskInfos = loadTaskInfos();
-                            LOGGER.debug("Status was read successful.");
-                            if (notExit()) {
-                                taskInfoConsumer.accept(updatedTaskInfos);
-                            }
-                        } catch (Exception e) {
-                            LOGGER.error("An error was produced during solution status refresh from external repository" +
-                                                 "Next attempt will be in " + period + " milliseconds", e);
+                if (!solverExecutor.isStarted()) {
+                    Thread.sleep(syncPeriod.getBasePeriod());
+                    if (notExit()) {
+                        loadInitialSolution();
+                        nextSynchronization = System.currentTimeMillis() + currentPeriod();
+                    }
+                } else {
+                    // wait for task events until the next synchronization is due.
+                    final TaskInfo event = eventQueue.poll(Math.max(nextSynchronization - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+                    if (eventQueue.checkAndResetOverflow()) {
+                        // some events were lost, only a full synchronization can recover them.
+                        fullSynchronizationRequested.set(true);
+                        nextSynchronization = 0;
+                    }
+                    if (notExit()) {
+                        if (event != null) {
+                            synchronizeEvents(event);
+                        } else if (System.currentTimeMillis() >= nextSynchronization) {
+                            synchronize();
+                            nextSynchronization = System.currentTimeMillis() + currentPeriod();
                         }
                     }
                 }
@@ -144,23 +260,186 @@ public class SolutionSynchronizer implements Runnable {
         LOGGER.debug("Solution Synchronizer finished");
     }
 
+    private void loadInitialSolution() {
+        try {
+            LOGGER.debug("Solution Synchronizer loading initial solution.");
+            // the changes produced before the initial solution is read are already included in it.
+            eventQueue.clear();
+            final TaskAssigningSolution recoveredSolution = recoverSolution();
+            if (notExit() && !solverExecutor.isDestroyed()) {
+                if (!recoveredSolution.getTaskList().isEmpty()) {
+                    solverExecutor.start(recoveredSolution);
+                    LOGGER.debug("Initial solution was successfully loaded.");
+                } else {
+                    LOGGER.debug("It looks like there are no tasks for loading an initial solution at this moment. " +
+                                         "Next attempt will be in " + syncPeriod.getBasePeriod() + " milliseconds");
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.error("An error was produced during initial solution loading. " +
+                                 "Next attempt will be in " + syncPeriod.getBasePeriod() + " milliseconds", e);
+        }
+    }
+
+    private void synchronize() {
+        boolean incremental = false;
+        try {
+            final long start = System.nanoTime();
+            incremental = watermark.getLastModificationDate() != null && !fullSynchronizationRequested.getAndSet(false);
+            LOGGER.debug("Refreshing solution status from external repository, incremental: " + incremental);
+            final int taskCount = incremental ? synchronizeModifiedTasks() : synchronizeAllTasks();
+            LOGGER.debug("Status was read successful, " + taskCount + " tasks were read.");
+            if (notExit()) {
+                metrics.recordSync(System.nanoTime() - start, taskCount);
+                if (incremental) {
+                    // a full synchronization reads all the tasks, so it says nothing about the rate of changes.
+                    syncPeriod.update(taskCount);
+                }
+                metrics.recordSyncPeriod(currentPeriod());
+            }
+        } catch (Exception e) {
+            if (!incremental) {
+                // the full synchronization wasn't completed, program it again.
+                fullSynchronizationRequested.set(true);
+            }
+            LOGGER.error("An error was produced during solution status refresh from external repository" +
+                                 "Next attempt will be in " + currentPeriod() + " milliseconds", e);
+        }
+    }
+
+    private int synchronizeModifiedTasks() {
+        final List<TaskInfo> updatedTaskInfos = loadModifiedTaskInfos();
+        if (notExit()) {
+            resultConsumer.accept(new Result(updatedTaskInfos, true));
+            // the lower bound for the next read is only moved after the changes were accepted.
+            watermark.update(updatedTaskInfos);
+        }
+        return updatedTaskInfos.size();
+    }
+
+    /**
+     * Reads the active tasks page by page and every page is accepted as an incremental result as soon as it's read.
+     * Finally, a non incremental result with no tasks is accepted for removing the tasks that are no longer active.
+     */
+    private int synchronizeAllTasks() {
+        final LongHashSet activeTaskIds = new LongHashSet();
+        runtimeClient.streamTasks(ACTIVE_STATUS, null, PAGE_SIZE, INPUT_VARIABLES_READ_MODE, taskInfos -> {
+            if (notExit()) {
+                taskInfos.forEach(taskInfo -> activeTaskIds.add(taskInfo.getTaskId()));
+                resultConsumer.accept(new Result(taskInfos, true));
+                watermark.update(taskInfos);
+            }
+        });
+        if (notExit()) {
+            resultConsumer.accept(new Result(Collections.emptyList(), false, activeTaskIds::contains));
+        }
+        return activeTaskIds.size();
+    }
+
+    /**
+     * Applies the task events produced by the TaskAssigningTaskEventListener. The events produced during a short window
+     * after the first one are grouped in the same batch, and only the last event of each task is kept.
+     */
+    private void synchronizeEvents(TaskInfo firstEvent) throws InterruptedException {
+        final long start = System.nanoTime();
+        Thread.sleep(EVENTS_BATCH_WINDOW);
+        final List<TaskInfo> events = new ArrayList<>();
+        events.add(firstEvent);
+        eventQueue.drainTo(events, EVENTS_BATCH_SIZE - 1);
+        final Map<Long, TaskInfo> lastEventByTask = new LinkedHashMap<>();
+        for (TaskInfo event : events) {
+            lastEventByTask.remove(event.getTaskId());
+            lastEventByTask.put(event.getTaskId(), event);
+        }
+        final List<TaskInfo> taskInfos = new ArrayList<>(lastEventByTask.values());
+        LOGGER.debug(events.size() + " task events were received for " + taskInfos.size() + " tasks.");
+        try {
+            resultConsumer.accept(new Result(taskInfos, true));
+            metrics.recordSync(System.nanoTime() - start, taskInfos.size());
+        } catch (Exception e) {
+            // the events can't be applied again, let the next full synchronization recover them.
+            fullSynchronizationRequested.set(true);
+            LOGGER.error("An error was produced during the application of the task events.", e);
+        }
+    }
+
+    /**
+     * @return the period for polling the jBPM runtime. When the task events are being received the polling is only
+     * a reconciliation mechanism and is executed with a much lower frequency. If no event was received within the
+     * reconciliationPeriod, e.g. the listener was removed from the deployments, the regular polling is restored.
+     */
+    private long currentPeriod() {
+        final long lastEventTime = eventQueue.getLastEventTime();
+        return lastEventTime > 0 && System.currentTimeMillis() - lastEventTime < reconciliationPeriod ? reconciliationPeriod : syncPeriod.getPeriod();
+    }
+
     private boolean notExit() {
         return !destroyed.get() && !Thread.currentThread().isInterrupted();
     }
 
     private TaskAssigningSolution recoverSolution() {
-        final List<TaskInfo> taskInfos = runtimeClient.findTasks(Arrays.asList(Ready, Reserved, InProgress, Suspended),
-                                                                 0,
-                                                                 100000);
+        final SolutionBuilder solutionBuilder = new SolutionBuilder().withDurationEstimates(durationEstimates);
+        // the tasks are converted page by page, so the read TaskInfos can be discarded as soon as possible.
+        runtimeClient.streamTasks(ACTIVE_STATUS, null, PAGE_SIZE, INPUT_VARIABLES_READ_MODE, taskInfos -> {
+            solutionBuilder.addTasks(taskInfos);
+            watermark.update(taskInfos);
+        });
+        loadDurationHistory();
         final List<org.jbpm.task.assigning.user.system.integration.User> externalUsers = userSystemService.findAllUsers();
-        return new SolutionBuilder()
-                .withTasks(taskInfos)
+        return solutionBuilder
                 .withUsers(externalUsers)
                 .withCache(publishedTasks)
                 .build();
     }
 
-    private List<TaskInfo> loadTaskInfos() {
-        return runtimeClient.findTasks(Arrays.asList(Ready, Reserved, InProgress, Suspended), 0, 100000);
+    /**
+     * Initializes the task duration estimates with the tasks completed in the durationHistoryPeriod. It's done only
+     * once, since from there on the completions are ingested as they are read by the incremental synchronizations.
+     * Only the completions prior to the lower bound of the watermark are recorded, the following ones will be read by
+     * the first incremental synchronization.
+     */
+    private void loadDurationHistory() {
+        if (durationHistoryLoaded || durationHistoryPeriod <= 0) {
+            return;
+        }
+        final LocalDateTime from = LocalDateTime.now().minus(durationHistoryPeriod, ChronoUnit.MILLIS);
+        final LocalDateTime to = watermark.getFromDate();
+        runtimeClient.streamTasksStatus(Collections.singletonList(Completed), from, PAGE_SIZE, completedTaskInfos -> {
+            for (TaskInfo taskInfo : completedTaskInfos) {
+                if (to == null || taskInfo.getLastModificationDate().isBefore(to)) {
+                    durationEstimates.recordCompletion(taskInfo);
+                }
+            }
+        });
+        durationHistoryLoaded = true;
+    }
+
+    /**
+     * Loads the active tasks modified since the last synchronization, and the tasks that has been finished since then.
+     * Finished tasks are loaded with a much cheaper query since only the taskId and status are required for removing
+     * them from the solution, the completed ones are also recorded in the task duration estimates.
+     */
+    private List<TaskInfo> loadModifiedTaskInfos() {
+        final List<TaskInfo> result = new ArrayList<>();
+        final LocalDateTime fromDate = watermark.getFromDate();
+        // finished tasks goes last, since a task might have been finished between the two queries.
+        runtimeClient.streamTasks(ACTIVE_STATUS, fromDate, PAGE_SIZE, INPUT_VARIABLES_READ_MODE,
+                                  modifiedTaskInfos -> addIfNotAlreadyRead(modifiedTaskInfos, result));
+        final int modifiedCount = result.size();
+        runtimeClient.streamTasksStatus(FINISHED_STATUS, fromDate, PAGE_SIZE,
+                                        finishedTaskInfos -> addIfNotAlreadyRead(finishedTaskInfos, result));
+        // only the tasks not already read are recorded, so that the completions aren't counted twice.
+        for (int i = modifiedCount; i < result.size(); i++) {
+            durationEstimates.recordCompletion(result.get(i));
+        }
+        return result;
+    }
+
+    private void addIfNotAlreadyRead(List<TaskInfo> taskInfos, List<TaskInfo> result) {
+        for (TaskInfo taskInfo : taskInfos) {
+            if (!watermark.isAlreadyRead(taskInfo)) {
+                result.add(taskInfo);
+            }
+        }
     }
 }
@@ -16,17 +16,43 @@
 
 package org.jbpm.task.assigning.runtime.service;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class SolverDefRegistryImpl implements SolverDefRegistry {
 
     private static final String TASK_ASSIGNING_SOLVER_ID = "jbpm-task-assigning-solver-id";
-    private static final String TASK_ASSIGNING_SOLVER_CONFIG = "org.jbpm.services.task.assigning.solverConfig";
+
+    /**
+     * System property for configuring the solver. The value can be the name of a solver configuration profile, e.g.
+     * "performance", or the classpath resource of a solver configuration file.
+     */
+    static final String TASK_ASSIGNING_SOLVER_CONFIG = "org.jbpm.services.task.assigning.solverConfig";
+
+    /**
+     * Single threaded solver configuration, used by default.
+     */
+    public static final String DEFAULT_PROFILE = "default";
+
+    /**
+     * Solver configuration tuned for production environments: first fit decreasing construction heuristic, late
+     * acceptance local search and multithreaded incremental solving.
+     */
+    public static final String PERFORMANCE_PROFILE = "performance";
+
+    private static final Map<String, String> PROFILES = new HashMap<>();
+
+    static {
+        PROFILES.put(DEFAULT_PROFILE, "taskAssigningSolverConfig.xml");
+        PROFILES.put(PERFORMANCE_PROFILE, "taskAssigningSolverConfigPerformance.xml");
+    }
 
     private SolverDef solverDef;
 
     @Override
     public void init() {
-        String solverConfig = System.getProperty(TASK_ASSIGNING_SOLVER_CONFIG, "taskAssigningSolverConfig.xml");
-        solverDef = new SolverDef(TASK_ASSIGNING_SOLVER_ID, solverConfig);
+        String solverConfig = System.getProperty(TASK_ASSIGNING_SOLVER_CONFIG, DEFAULT_PROFILE);
+        solverDef = new SolverDef(TASK_ASSIGNING_SOLVER_ID, PROFILES.getOrDefault(solverConfig, solverConfig));
     }
 
     @Override
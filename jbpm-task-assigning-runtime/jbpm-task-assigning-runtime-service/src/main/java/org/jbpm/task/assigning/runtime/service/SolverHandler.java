@@ -16,14 +16,17 @@
 
 package org.jbpm.task.assigning.runtime.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.solver.realtime.UpdateReferenceTimeProblemFactChange;
 import org.jbpm.task.assigning.process.runtime.integration.client.ProcessRuntimeIntegrationClient;
-import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskPlanningInfo;
 import org.jbpm.task.assigning.user.system.integration.UserSystemService;
 import org.optaplanner.core.api.solver.Solver;
 import org.optaplanner.core.api.solver.SolverFactory;
@@ -38,41 +41,131 @@ import static org.kie.soup.commons.validation.PortablePreconditions.checkNotNull
  * This class handles all the work regarding with: creating/starting the solver, the processing of the produced solutions
  * and the synchronization of the working solution with the changes that might be produced in the jBPM runtime. By
  * coordinating the actions produced by the SolverExecutor, the SolutionProcessor and the SolutionSynchronizer.
+ * <p>
+ * All the state transitions are executed in the SolverHandlerCoordinator thread, so no locks are shared between the
+ * solver thread and the I/O bound SolutionProcessor and SolutionSynchronizer threads.
  */
 public class SolverHandler {
 
     private static Logger LOGGER = LoggerFactory.getLogger(SolverHandler.class);
 
+    /**
+     * Initial period in milliseconds for polling the jBPM runtime changes.
+     */
+    public static final String SYNC_PERIOD_PROPERTY = "org.jbpm.task.assigning.sync.period";
+
+    /**
+     * Lowest period in milliseconds for polling the jBPM runtime changes, used while many changes are being read.
+     */
+    public static final String SYNC_MIN_PERIOD_PROPERTY = "org.jbpm.task.assigning.sync.minPeriod";
+
+    /**
+     * Highest period in milliseconds for polling the jBPM runtime changes, used while no changes are being read.
+     */
+    public static final String SYNC_MAX_PERIOD_PROPERTY = "org.jbpm.task.assigning.sync.maxPeriod";
+
+    /**
+     * Period in milliseconds for polling the jBPM runtime changes when the TaskAssigningTaskEventListener is installed.
+     */
+    public static final String SYNC_RECONCILIATION_PERIOD_PROPERTY = "org.jbpm.task.assigning.sync.reconciliationPeriod";
+
+    /**
+     * Max time in milliseconds the problem fact changes are retained for being coalesced before the submission.
+     */
+    public static final String CHANGES_WINDOW_PROPERTY = "org.jbpm.task.assigning.changes.window";
+
+    /**
+     * Number of pending problem fact changes that produces the immediate submission.
+     */
+    public static final String CHANGES_BATCH_SIZE_PROPERTY = "org.jbpm.task.assigning.changes.batchSize";
+
+    /**
+     * Max number of statistics kept by the task duration estimates.
+     */
+    public static final String DURATION_ESTIMATES_MAX_SIZE_PROPERTY = "org.jbpm.task.assigning.durationEstimates.maxSize";
+
+    /**
+     * Weight of every new completion in the moving average of the task duration estimates.
+     */
+    public static final String DURATION_ESTIMATES_SMOOTHING_FACTOR_PROPERTY = "org.jbpm.task.assigning.durationEstimates.smoothingFactor";
+
+    /**
+     * If true, the task duration estimates are also calculated per user.
+     */
+    public static final String DURATION_ESTIMATES_PER_USER_PROPERTY = "org.jbpm.task.assigning.durationEstimates.perUser";
+
+    /**
+     * Statistic used for estimating the task durations, one of MEAN, MEDIAN or P90.
+     */
+    public static final String DURATION_ESTIMATES_ESTIMATE_PROPERTY = "org.jbpm.task.assigning.durationEstimates.estimate";
+
+    /**
+     * Period in milliseconds of the completions history loaded at start up for initializing the task duration
+     * estimates. 0 for not loading any history.
+     */
+    public static final String DURATION_ESTIMATES_HISTORY_PERIOD_PROPERTY = "org.jbpm.task.assigning.durationEstimates.historyPeriod";
+
+    private static final long SYNC_PERIOD = Long.parseLong(System.getProperty(SYNC_PERIOD_PROPERTY, "10000"));
+    private static final long SYNC_MIN_PERIOD = Long.parseLong(System.getProperty(SYNC_MIN_PERIOD_PROPERTY, "1000"));
+    private static final long SYNC_MAX_PERIOD = Long.parseLong(System.getProperty(SYNC_MAX_PERIOD_PROPERTY, "60000"));
+    private static final long SYNC_RECONCILIATION_PERIOD = Long.parseLong(System.getProperty(SYNC_RECONCILIATION_PERIOD_PROPERTY, "120000"));
+    private static final long CHANGES_WINDOW = Long.parseLong(System.getProperty(CHANGES_WINDOW_PROPERTY, "200"));
+    private static final int CHANGES_BATCH_SIZE = Integer.parseInt(System.getProperty(CHANGES_BATCH_SIZE_PROPERTY, "1000"));
+    private static final int DURATION_ESTIMATES_MAX_SIZE = Integer.parseInt(System.getProperty(DURATION_ESTIMATES_MAX_SIZE_PROPERTY, "10000"));
+    private static final double DURATION_ESTIMATES_SMOOTHING_FACTOR = Double.parseDouble(System.getProperty(DURATION_ESTIMATES_SMOOTHING_FACTOR_PROPERTY, "0.1"));
+    private static final boolean DURATION_ESTIMATES_PER_USER = Boolean.parseBoolean(System.getProperty(DURATION_ESTIMATES_PER_USER_PROPERTY, "false"));
+    private static final TaskDurationEstimates.Estimate DURATION_ESTIMATES_ESTIMATE = TaskDurationEstimates.Estimate.valueOf(System.getProperty(DURATION_ESTIMATES_ESTIMATE_PROPERTY, "MEAN"));
+    private static final long DURATION_ESTIMATES_HISTORY_PERIOD = Long.parseLong(System.getProperty(DURATION_ESTIMATES_HISTORY_PERIOD_PROPERTY, "604800000"));
+
     private final SolverDef solverDef;
     private final ProcessRuntimeIntegrationClient runtimeClient;
     private final UserSystemService userSystemService;
     private final ExecutorService executorService;
+    private final TaskEventQueue eventQueue;
 
     /**
-     * Synchronizes potential concurrent accesses by the SolverWorker, SolutionProcessor and SolutionSynchronizer.
+     * Latest-wins slot with the best solution waiting for the SolutionProcessor, a newer best solution replaces the
+     * pending one.
      */
-    private final ReentrantLock lock = new ReentrantLock();
-    private TaskAssigningSolution currentSolution = null;
-    private TaskAssigningSolution nextSolution = null;
+    private final AtomicReference<TaskAssigningSolution> nextSolution = new AtomicReference<>();
     private final PublishedTaskCache publishedTasks = new PublishedTaskCache();
+    private final TaskDurationEstimates durationEstimates = new TaskDurationEstimates(DURATION_ESTIMATES_MAX_SIZE,
+                                                                                      DURATION_ESTIMATES_SMOOTHING_FACTOR,
+                                                                                      DURATION_ESTIMATES_PER_USER,
+                                                                                      DURATION_ESTIMATES_ESTIMATE);
+    /**
+     * Tasks and users of the solution as known by the handler, used for building the synchronization changes. Only
+     * accessed from the coordinator thread.
+     */
+    private final TaskStateIndex taskStateIndex = new TaskStateIndex();
+    private final SolverHandlerMetrics metrics = new SolverHandlerMetrics();
 
     private Solver<TaskAssigningSolution> solver;
     private SolverExecutor solverExecutor;
     private SolutionSynchronizer solutionSynchronizer;
     private SolutionProcessor solutionProcessor;
+    private ProblemFactChangeCoalescer changesCoalescer;
+    private SolverHandlerCoordinator coordinator;
+    /**
+     * Last reference time programmed for the working solution. Only accessed from the coordinator thread.
+     */
+    private LocalDateTime referenceTime;
 
     public SolverHandler(final SolverDef solverDef,
                          final ProcessRuntimeIntegrationClient runtimeClient,
                          final UserSystemService userSystemService,
-                         final ExecutorService executorService) {
+                         final ExecutorService executorService,
+                         final TaskEventQueue eventQueue) {
         checkNotNull("solverDef", solverDef);
         checkNotNull("runtimeClient", runtimeClient);
         checkNotNull("userSystemService", userSystemService);
         checkNotNull("executorService", executorService);
+        checkNotNull("eventQueue", eventQueue);
         this.solverDef = solverDef;
         this.runtimeClient = runtimeClient;
         this.userSystemService = userSystemService;
         this.executorService = executorService;
+        this.eventQueue = eventQueue;
     }
 
     public void init() {
@@ -82,20 +175,51 @@ public class SolverHandler {
     }
 
     public void start() {
+        metrics.register();
+        coordinator = new SolverHandlerCoordinator();
+        final ProcessRuntimeIntegrationClient meteredRuntimeClient = new MeteredRuntimeClient(runtimeClient, metrics);
         solverExecutor = new SolverExecutor(solver, this::onBestSolutionChange);
-        solutionSynchronizer = new SolutionSynchronizer(solverExecutor, publishedTasks, runtimeClient, userSystemService,
-                                                        10000, this::onSynchronizeSolution);
-        solutionProcessor = new SolutionProcessor(runtimeClient, this::onSolutionProcessed);
+        changesCoalescer = new ProblemFactChangeCoalescer(CHANGES_WINDOW, CHANGES_BATCH_SIZE, this::addProblemFactChanges, this::onChangesSubmissionError);
+        final AdaptiveSyncPeriod syncPeriod = new AdaptiveSyncPeriod(Math.min(SYNC_MIN_PERIOD, SYNC_PERIOD),
+                                                                     SYNC_PERIOD,
+                                                                     Math.max(SYNC_MAX_PERIOD, SYNC_PERIOD));
+        solutionSynchronizer = new SolutionSynchronizer(solverExecutor, publishedTasks, durationEstimates, eventQueue, meteredRuntimeClient,
+                                                        userSystemService,
+                                                        syncPeriod, Math.max(SYNC_PERIOD, SYNC_RECONCILIATION_PERIOD),
+                                                        DURATION_ESTIMATES_HISTORY_PERIOD,
+                                                        metrics, this::onSynchronizeSolution);
+        solutionProcessor = new SolutionProcessor(meteredRuntimeClient, metrics, this::onApplyPlanning, this::onSolutionProcessed);
+        executorService.execute(coordinator);
         executorService.execute(solverExecutor); //is started by the SolutionSynchronizer
         executorService.execute(solutionSynchronizer);
         executorService.execute(solutionProcessor); //automatically starts and waits for a solution to process.
+        executorService.execute(changesCoalescer);
         solutionSynchronizer.start();
     }
 
+    /**
+     * Programmes a full synchronization of the current solution with the jBPM runtime. By default, only the tasks
+     * modified since the last synchronization are read.
+     */
+    public void requestFullSynchronization() {
+        solutionSynchronizer.requestFullSynchronization();
+    }
+
+    /**
+     * @return the metrics collected for this SolverHandler, they're also exposed through JMX while the handler is
+     * running.
+     */
+    public SolverHandlerMetrics getMetrics() {
+        return metrics;
+    }
+
     public void destroy() {
         solverExecutor.destroy();
         solutionSynchronizer.destroy();
         solutionProcessor.destroy();
+        coordinator.destroy();
+        changesCoalescer.destroy();
+        metrics.unregister();
 
         executorService.shutdown();
         try {
@@ -121,52 +245,107 @@ public class SolverHandler {
         }
     }
 
+    /**
+     * The changes were already applied to the index when they were built but never reached the solver. The index is
+     * discarded, it'll be loaded again from the next solution, and a full synchronization recovers the lost changes.
+     */
+    private void onChangesSubmissionError(Exception error) {
+        coordinator.post(taskStateIndex::invalidate);
+        solutionSynchronizer.requestFullSynchronization();
+    }
+
     private void onBestSolutionChange(BestSolutionChangedEvent<TaskAssigningSolution> event) {
+        metrics.recordBestSolution(event.getNewBestSolution().getScore(), event.isEveryProblemFactChangeProcessed());
         if (event.isEveryProblemFactChangeProcessed() && event.getNewBestSolution().getScore().isSolutionInitialized()) {
-            lock.lock();
-            try {
-                if (solutionProcessor.isProcessing()) {
-                    nextSolution = event.getNewBestSolution();
-                } else {
-                    currentSolution = event.getNewBestSolution();
-                    nextSolution = null;
-                    solutionProcessor.process(currentSolution, (PublishedTaskCache) publishedTasks.clone());
-                }
-            } finally {
-                lock.unlock();
+            if (nextSolution.getAndSet(event.getNewBestSolution()) != null) {
+                // the previous best solution will never be processed.
+                metrics.recordDroppedSolution();
             }
+            // the solver thread never waits for the coordinator.
+            coordinator.post(this::processNextSolution);
         }
     }
 
+    /**
+     * Records the planning the SolutionProcessor is about to apply. The SolutionProcessor waits for the index to be
+     * updated, so the task events produced by the delegations are never built into changes before.
+     */
+    private void onApplyPlanning(List<TaskPlanningInfo> planningInfos) {
+        coordinator.submit(() -> taskStateIndex.applyPlanning(planningInfos)).join();
+    }
+
     private void onSolutionProcessed(SolutionProcessor.Result result) {
         LOGGER.debug("Solution was processed with result: " + result.hasError());
-        lock.lock();
-        try {
-            if (nextSolution != null) {
-                currentSolution = nextSolution;
-                nextSolution = null;
-                solutionProcessor.process(currentSolution, (PublishedTaskCache) publishedTasks.clone());
+        coordinator.post(() -> {
+            // the tasks that weren't delegated must keep the assignment they have in the jBPM runtime.
+            if (result.hasError()) {
+                taskStateIndex.rollbackPlanning();
+            } else {
+                taskStateIndex.reconcilePlanning(result.getPlanningResults());
+            }
+            processNextSolution();
+        });
+    }
+
+    /**
+     * Hands off the latest pending solution, if any, to the SolutionProcessor. Executed in the coordinator thread.
+     */
+    private void processNextSolution() {
+        if (!solutionProcessor.isProcessing()) {
+            final TaskAssigningSolution solution = nextSolution.getAndSet(null);
+            if (solution != null) {
+                final PublishedTaskCache.Snapshot publishedTasksSnapshot = publishedTasks.snapshot();
+                metrics.recordPublishedTaskCount(publishedTasksSnapshot.size());
+                if (!taskStateIndex.isLoaded()) {
+                    // the index is loaded only once, later on it's maintained with the changes and the applied planning.
+                    taskStateIndex.load(solution, publishedTasksSnapshot::isPublished);
+                }
+                solutionProcessor.process(solution, publishedTasksSnapshot);
             }
-        } finally {
-            lock.unlock();
         }
     }
 
-    private void onSynchronizeSolution(List<TaskInfo> taskInfos) {
-        // 1) iterate the tasks and program the proper problem fact changes.
-        lock.lock();
+    private void onSynchronizeSolution(SolutionSynchronizer.Result result) {
+        // the SolutionSynchronizer waits for the changes to be built, so that a failure can be handled by it.
         try {
-            final List<ProblemFactChange<TaskAssigningSolution>> changes = new SolutionChangesBuilder()
-                    .withSolution(currentSolution)
-                    .withTasks(taskInfos)
-                    .withCache(publishedTasks)
-                    .build();
-            //TODO review if it could be better to release the lock before adding the changes.
-            if (changes.size() > 0) {
-                addProblemFactChanges(changes);
+            coordinator.submit(() -> buildChanges(result)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
-        } finally {
-            lock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Iterates the tasks and programs the proper problem fact changes. Executed in the coordinator thread.
+     */
+    private void buildChanges(SolutionSynchronizer.Result result) {
+        if (!taskStateIndex.isLoaded()) {
+            // the SolutionSynchronizer will program a full synchronization.
+            throw new IllegalStateException("No solution has been produced yet, changes can not be built.");
+        }
+        final List<ProblemFactChange<TaskAssigningSolution>> changes = new SolutionChangesBuilder()
+                .withIndex(taskStateIndex)
+                .withTasks(result.getTaskInfos())
+                .withIncrementalMode(result.isIncremental())
+                .withActiveTasks(result.getActiveTasks())
+                .withCache(publishedTasks)
+                .withDurationEstimates(durationEstimates)
+                .build();
+        final LocalDateTime currentReferenceTime = SolutionBuilder.currentReferenceTime();
+        if (!currentReferenceTime.equals(referenceTime)) {
+            // refresh the dueTime of all the tasks, before the new ones are added.
+            changes.add(0, new UpdateReferenceTimeProblemFactChange(currentReferenceTime));
+            referenceTime = currentReferenceTime;
+        }
+        metrics.recordProblemFactChanges(changes);
+        taskStateIndex.apply(changes);
+        // the planning applied to these tasks no longer reflects the jBPM runtime.
+        solutionProcessor.evictAppliedPlanning(changes);
+        if (changes.size() > 0) {
+            // the changes are submitted by the coalescer out of the coordinator thread.
+            changesCoalescer.add(changes);
         }
     }
 
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.kie.soup.commons.validation.PortablePreconditions.checkNotNull;
+
+/**
+ * Single writer for the SolverHandler state. The actions posted by the SolverExecutor, SolutionProcessor and
+ * SolutionSynchronizer threads are queued in a lock-free mailbox and executed one by one in the coordinator thread,
+ * in this way the SolverHandler state is never accessed concurrently and the posting threads never wait for each
+ * other.
+ */
+public class SolverHandlerCoordinator implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SolverHandlerCoordinator.class);
+
+    private final Queue<Action> mailbox = new ConcurrentLinkedQueue<>();
+    private final Semaphore pendingActions = new Semaphore(0);
+    private final AtomicBoolean destroyed = new AtomicBoolean(false);
+
+    private static class Action {
+
+        private final Runnable runnable;
+        private final CompletableFuture<Void> future;
+
+        private Action(Runnable runnable, CompletableFuture<Void> future) {
+            this.runnable = runnable;
+            this.future = future;
+        }
+    }
+
+    /**
+     * Queues an action for being executed in the coordinator thread. This method never blocks.
+     * @param action the action to execute.
+     */
+    public void post(Runnable action) {
+        checkNotNull("action", action);
+        enqueue(new Action(action, null));
+    }
+
+    /**
+     * Queues an action for being executed in the coordinator thread and returns a future for waiting its completion.
+     * @param action the action to execute.
+     * @return a future that is completed when the action is executed, exceptionally if the action fails, or cancelled
+     * if the coordinator is destroyed before the action is executed.
+     */
+    public CompletableFuture<Void> submit(Runnable action) {
+        checkNotNull("action", action);
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        enqueue(new Action(action, future));
+        return future;
+    }
+
+    public void destroy() {
+        destroyed.set(true);
+        pendingActions.release(); //in case it was waiting for an action.
+        cancelPendingActions();
+    }
+
+    @Override
+    public void run() {
+        while (!destroyed.get() && !Thread.currentThread().isInterrupted()) {
+            try {
+                pendingActions.acquire();
+                final Action action = mailbox.poll();
+                if (action != null && !destroyed.get()) {
+                    execute(action);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.error("SolverHandlerCoordinator was interrupted", e);
+            }
+        }
+        cancelPendingActions();
+    }
+
+    private void enqueue(Action action) {
+        mailbox.offer(action);
+        pendingActions.release();
+        if (destroyed.get()) {
+            // the action was probably queued after the destroy, nobody will execute it.
+            cancelPendingActions();
+        }
+    }
+
+    private void execute(Action action) {
+        try {
+            action.runnable.run();
+            if (action.future != null) {
+                action.future.complete(null);
+            }
+        } catch (RuntimeException e) {
+            if (action.future != null) {
+                action.future.completeExceptionally(e);
+            } else {
+                LOGGER.error("An error was produced during the execution of a SolverHandler action.", e);
+            }
+        }
+    }
+
+    private void cancelPendingActions() {
+        Action action;
+        while ((action = mailbox.poll()) != null) {
+            if (action.future != null) {
+                action.future.completeExceptionally(new CancellationException("SolverHandlerCoordinator was destroyed."));
+            }
+        }
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.optaplanner.core.api.score.buildin.bendable.BendableScore;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the metrics of the SolverHandler pipeline and exposes them through JMX. The record methods are invoked from
+ * the SolverExecutor, SolutionSynchronizer and SolutionProcessor threads, so all of them are thread-safe and cheap
+ * enough for being invoked in the hot path. A failure during the JMX registration never prevents the SolverHandler
+ * from working.
+ */
+public class SolverHandlerMetrics implements SolverHandlerMetricsMXBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SolverHandlerMetrics.class);
+
+    public static final String OBJECT_NAME = "org.jbpm.task.assigning:type=SolverHandler";
+
+    private static final long ONE_MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final DurationCounter syncDuration = new DurationCounter();
+    private final AtomicLong lastSyncTaskCount = new AtomicLong();
+    private final AtomicLong syncPeriod = new AtomicLong();
+    private volatile Map<String, Long> lastSyncProblemFactChanges = new TreeMap<>();
+    private final Map<String, LongAdder> problemFactChanges = new ConcurrentHashMap<>();
+
+    private final LongAdder bestSolutionEventCount = new LongAdder();
+    private final Deque<Long> lastMinuteBestSolutionEvents = new ArrayDeque<>();
+    private volatile BendableScore lastBestScore;
+
+    /**
+     * Submission time of the oldest problem fact changes not yet processed by the solver, or 0 if there are no pending
+     * changes.
+     */
+    private final AtomicLong pendingProblemFactChangesTime = new AtomicLong();
+    private final DurationCounter problemFactChangeToBestSolutionDuration = new DurationCounter();
+
+    private final DurationCounter solutionProcessingDuration = new DurationCounter();
+    private final AtomicLong lastAppliedTaskCount = new AtomicLong();
+    private final Map<String, DurationCounter> runtimeClientCallDuration = new ConcurrentHashMap<>();
+    private final LongAdder droppedSolutionCount = new LongAdder();
+    private final AtomicLong publishedTaskCount = new AtomicLong();
+
+    private ObjectName objectName;
+
+    /**
+     * Registers this instance in the platform MBeanServer. If another instance was already registered, e.g. by a
+     * previous SolverHandler that wasn't destroyed, it's replaced.
+     */
+    public void register() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+            objectName = name;
+        } catch (Exception e) {
+            LOGGER.warn("SolverHandler metrics couldn't be registered with name: " + OBJECT_NAME, e);
+        }
+    }
+
+    public void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (Exception e) {
+            LOGGER.warn("SolverHandler metrics couldn't be unregistered with name: " + OBJECT_NAME, e);
+        } finally {
+            objectName = null;
+        }
+    }
+
+    public void recordSync(long durationNanos, int taskCount) {
+        syncDuration.record(durationNanos);
+        lastSyncTaskCount.set(taskCount);
+    }
+
+    public void recordSyncPeriod(long period) {
+        syncPeriod.set(period);
+    }
+
+    /**
+     * Records the problem fact changes produced by a synchronization. Non empty lists of changes are expected to be
+     * submitted to the solver immediately after.
+     */
+    public void recordProblemFactChanges(List<ProblemFactChange<TaskAssigningSolution>> changes) {
+        final Map<String, Long> changesByType = new TreeMap<>();
+        for (ProblemFactChange<TaskAssigningSolution> change : changes) {
+            changesByType.merge(change.getClass().getSimpleName(), 1L, Long::sum);
+        }
+        changesByType.forEach((type, count) -> problemFactChanges.computeIfAbsent(type, key -> new LongAdder()).add(count));
+        lastSyncProblemFactChanges = changesByType;
+        if (!changes.isEmpty()) {
+            pendingProblemFactChangesTime.compareAndSet(0, System.nanoTime());
+        }
+    }
+
+    public void recordBestSolution(BendableScore score, boolean everyProblemFactChangeProcessed) {
+        final long now = System.nanoTime();
+        bestSolutionEventCount.increment();
+        synchronized (lastMinuteBestSolutionEvents) {
+            lastMinuteBestSolutionEvents.addLast(now);
+            discardEventsOlderThanOneMinute(now);
+        }
+        lastBestScore = score;
+        if (everyProblemFactChangeProcessed) {
+            final long submissionTime = pendingProblemFactChangesTime.getAndSet(0);
+            if (submissionTime != 0) {
+                problemFactChangeToBestSolutionDuration.record(now - submissionTime);
+            }
+        }
+    }
+
+    public void recordSolutionProcessing(long durationNanos, int appliedTaskCount) {
+        solutionProcessingDuration.record(durationNanos);
+        lastAppliedTaskCount.set(appliedTaskCount);
+    }
+
+    public void recordRuntimeClientCall(String method, long durationNanos) {
+        runtimeClientCallDuration.computeIfAbsent(method, key -> new DurationCounter()).record(durationNanos);
+    }
+
+    public void recordDroppedSolution() {
+        droppedSolutionCount.increment();
+    }
+
+    public void recordPublishedTaskCount(int count) {
+        publishedTaskCount.set(count);
+    }
+
+    @Override
+    public DurationStatistics getSyncDuration() {
+        return syncDuration.getStatistics();
+    }
+
+    @Override
+    public long getLastSyncTaskCount() {
+        return lastSyncTaskCount.get();
+    }
+
+    @Override
+    public long getSyncPeriod() {
+        return syncPeriod.get();
+    }
+
+    @Override
+    public Map<String, Long> getLastSyncProblemFactChanges() {
+        return lastSyncProblemFactChanges;
+    }
+
+    @Override
+    public Map<String, Long> getProblemFactChanges() {
+        final Map<String, Long> result = new TreeMap<>();
+        problemFactChanges.forEach((type, count) -> result.put(type, count.sum()));
+        return result;
+    }
+
+    @Override
+    public long getBestSolutionEventCount() {
+        return bestSolutionEventCount.sum();
+    }
+
+    @Override
+    public long getBestSolutionEventsPerMinute() {
+        synchronized (lastMinuteBestSolutionEvents) {
+            discardEventsOlderThanOneMinute(System.nanoTime());
+            return lastMinuteBestSolutionEvents.size();
+        }
+    }
+
+    @Override
+    public String getLastBestScore() {
+        final BendableScore score = lastBestScore;
+        return score != null ? score.toString() : null;
+    }
+
+    @Override
+    public int[] getLastBestHardScores() {
+        final BendableScore score = lastBestScore;
+        return score != null ? score.getHardScores() : new int[0];
+    }
+
+    @Override
+    public int[] getLastBestSoftScores() {
+        final BendableScore score = lastBestScore;
+        return score != null ? score.getSoftScores() : new int[0];
+    }
+
+    @Override
+    public DurationStatistics getProblemFactChangeToBestSolutionDuration() {
+        return problemFactChangeToBestSolutionDuration.getStatistics();
+    }
+
+    @Override
+    public DurationStatistics getSolutionProcessingDuration() {
+        return solutionProcessingDuration.getStatistics();
+    }
+
+    @Override
+    public long getLastAppliedTaskCount() {
+        return lastAppliedTaskCount.get();
+    }
+
+    @Override
+    public Map<String, DurationStatistics> getRuntimeClientCallDuration() {
+        final Map<String, DurationStatistics> result = new HashMap<>();
+        runtimeClientCallDuration.forEach((method, counter) -> result.put(method, counter.getStatistics()));
+        return result;
+    }
+
+    @Override
+    public long getDroppedSolutionCount() {
+        return droppedSolutionCount.sum();
+    }
+
+    @Override
+    public long getPublishedTaskCount() {
+        return publishedTaskCount.get();
+    }
+
+    @Override
+    public void reset() {
+        syncDuration.reset();
+        lastSyncTaskCount.set(0);
+        lastSyncProblemFactChanges = new TreeMap<>();
+        problemFactChanges.clear();
+        bestSolutionEventCount.reset();
+        synchronized (lastMinuteBestSolutionEvents) {
+            lastMinuteBestSolutionEvents.clear();
+        }
+        lastBestScore = null;
+        problemFactChangeToBestSolutionDuration.reset();
+        solutionProcessingDuration.reset();
+        lastAppliedTaskCount.set(0);
+        runtimeClientCallDuration.clear();
+        droppedSolutionCount.reset();
+        publishedTaskCount.set(0);
+    }
+
+    private void discardEventsOlderThanOneMinute(long now) {
+        while (!lastMinuteBestSolutionEvents.isEmpty() && now - lastMinuteBestSolutionEvents.peekFirst() > ONE_MINUTE_NANOS) {
+            lastMinuteBestSolutionEvents.removeFirst();
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000d;
+    }
+
+    private static class DurationCounter {
+
+        private long count;
+        private long last;
+        private long max;
+        private long total;
+
+        synchronized void record(long durationNanos) {
+            count++;
+            last = durationNanos;
+            max = Math.max(max, durationNanos);
+            total += durationNanos;
+        }
+
+        synchronized DurationStatistics getStatistics() {
+            return new DurationStatistics(count, toMillis(last), toMillis(max), toMillis(total));
+        }
+
+        synchronized void reset() {
+            count = 0;
+            last = 0;
+            max = 0;
+            total = 0;
+        }
+    }
+}
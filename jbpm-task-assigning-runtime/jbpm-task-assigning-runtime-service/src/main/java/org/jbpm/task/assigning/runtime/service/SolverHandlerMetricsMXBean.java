@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.util.Map;
+
+/**
+ * Management interface for the SolverHandler metrics. It's registered in the platform MBeanServer with the
+ * SolverHandlerMetrics.OBJECT_NAME, and can be inspected with any JMX client, e.g. jconsole.
+ */
+public interface SolverHandlerMetricsMXBean {
+
+    /**
+     * @return the statistics for the synchronization of the solution with the jBPM runtime, from the read of the tasks
+     * to the submission of the resulting problem fact changes.
+     */
+    DurationStatistics getSyncDuration();
+
+    /**
+     * @return the number of tasks read in the last synchronization.
+     */
+    long getLastSyncTaskCount();
+
+    /**
+     * @return the current period in milliseconds for polling the jBPM runtime changes.
+     */
+    long getSyncPeriod();
+
+    /**
+     * @return the number of problem fact changes produced in the last synchronization by change type.
+     */
+    Map<String, Long> getLastSyncProblemFactChanges();
+
+    /**
+     * @return the total number of problem fact changes submitted to the solver by change type.
+     */
+    Map<String, Long> getProblemFactChanges();
+
+    long getBestSolutionEventCount();
+
+    /**
+     * @return the number of best solution events produced during the last minute.
+     */
+    long getBestSolutionEventsPerMinute();
+
+    /**
+     * @return the score of the last best solution, or null if no best solution was produced yet.
+     */
+    String getLastBestScore();
+
+    int[] getLastBestHardScores();
+
+    int[] getLastBestSoftScores();
+
+    /**
+     * @return the statistics for the time elapsed between the submission of a set of problem fact changes and the
+     * best solution event that has processed all of them.
+     */
+    DurationStatistics getProblemFactChangeToBestSolutionDuration();
+
+    /**
+     * @return the statistics for the processing of a best solution, i.e. the calculation of the planning changes and
+     * the application in the jBPM runtime.
+     */
+    DurationStatistics getSolutionProcessingDuration();
+
+    /**
+     * @return the number of tasks sent to the jBPM runtime in the last solution processing.
+     */
+    long getLastAppliedTaskCount();
+
+    /**
+     * @return the statistics for the invocations to the ProcessRuntimeIntegrationClient by method name.
+     */
+    Map<String, DurationStatistics> getRuntimeClientCallDuration();
+
+    /**
+     * @return the number of best solutions that were discarded without being processed since a newer one was produced
+     * while the SolutionProcessor was busy.
+     */
+    long getDroppedSolutionCount();
+
+    /**
+     * @return the number of tasks in the PublishedTaskCache at the time of the last solution hand-off.
+     */
+    long getPublishedTaskCount();
+
+    void reset();
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.util.Arrays;
+
+/**
+ * Streaming estimator for a given quantile of a series of values based on the P-Square algorithm by Jain and Chlamtac.
+ * Only five markers are kept no matter how many values are added, at the cost of an approximated result. This class
+ * is not thread-safe.
+ */
+class StreamingQuantile {
+
+    private static final int MARKERS = 5;
+
+    private final double quantile;
+    private final double[] heights = new double[MARKERS];
+    private final int[] positions = new int[MARKERS];
+    private final double[] desiredPositions = new double[MARKERS];
+    private final double[] increments;
+    private long count;
+
+    /**
+     * @param quantile the quantile to estimate, a value between 0 and 1, e.g. 0.5 for the median.
+     */
+    StreamingQuantile(double quantile) {
+        this.quantile = quantile;
+        this.increments = new double[]{0, quantile / 2, quantile, (1 + quantile) / 2, 1};
+    }
+
+    void add(double value) {
+        if (count < MARKERS) {
+            heights[(int) count++] = value;
+            if (count == MARKERS) {
+                Arrays.sort(heights);
+                for (int i = 0; i < MARKERS; i++) {
+                    positions[i] = i;
+                }
+                desiredPositions[0] = 0;
+                desiredPositions[1] = 2 * quantile;
+                desiredPositions[2] = 4 * quantile;
+                desiredPositions[3] = 2 + 2 * quantile;
+                desiredPositions[4] = 4;
+            }
+            return;
+        }
+        count++;
+        // find the cell k where the value falls, and adjust the extreme markers if needed.
+        int k;
+        if (value < heights[0]) {
+            heights[0] = value;
+            k = 0;
+        } else if (value >= heights[MARKERS - 1]) {
+            heights[MARKERS - 1] = value;
+            k = MARKERS - 2;
+        } else {
+            k = 0;
+            while (value >= heights[k + 1]) {
+                k++;
+            }
+        }
+        for (int i = k + 1; i < MARKERS; i++) {
+            positions[i]++;
+        }
+        for (int i = 0; i < MARKERS; i++) {
+            desiredPositions[i] += increments[i];
+        }
+        // adjust the heights of the middle markers if they are off their desired positions.
+        for (int i = 1; i < MARKERS - 1; i++) {
+            final double delta = desiredPositions[i] - positions[i];
+            if ((delta >= 1 && positions[i + 1] - positions[i] > 1) || (delta <= -1 && positions[i - 1] - positions[i] < -1)) {
+                final int sign = delta >= 0 ? 1 : -1;
+                final double height = parabolic(i, sign);
+                heights[i] = heights[i - 1] < height && height < heights[i + 1] ? height : linear(i, sign);
+                positions[i] += sign;
+            }
+        }
+    }
+
+    /**
+     * @return the estimated quantile, or Double.NaN if no values were added. While no more than five values were added
+     * the exact quantile is returned.
+     */
+    double getValue() {
+        if (count > MARKERS) {
+            return heights[2];
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        final double[] sorted = Arrays.copyOf(heights, (int) count);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.round(quantile * (count - 1))];
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    private double parabolic(int i, int sign) {
+        return heights[i] + (double) sign / (positions[i + 1] - positions[i - 1]) *
+                ((positions[i] - positions[i - 1] + sign) * (heights[i + 1] - heights[i]) / (positions[i + 1] - positions[i]) +
+                        (positions[i + 1] - positions[i] - sign) * (heights[i] - heights[i - 1]) / (positions[i] - positions[i - 1]));
+    }
+
+    private double linear(int i, int sign) {
+        return heights[i] + sign * (heights[i + sign] - heights[i]) / (positions[i + sign] - positions[i]);
+    }
+}
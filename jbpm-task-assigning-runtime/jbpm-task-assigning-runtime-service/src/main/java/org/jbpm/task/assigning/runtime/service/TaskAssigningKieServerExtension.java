@@ -52,6 +52,7 @@ public class TaskAssigningKieServerExtension implements KieServerExtension {
     private KieServerRegistry registry;
     private TaskAssigningService taskAssigningService;
     private ExecutorService executorService;
+    private final TaskEventQueue eventQueue = new TaskEventQueue();
 
     @Override
     public boolean isInitialized() {
@@ -78,17 +79,20 @@ public class TaskAssigningKieServerExtension implements KieServerExtension {
         //TODO, review this initialization
         WildflyUserSystemService userSystemService = getUserSystemService();
 
+        // one thread for each of: SolverHandlerCoordinator, SolverExecutor, SolutionSynchronizer, SolutionProcessor and
+        // ProblemFactChangeCoalescer.
         this.executorService = new ThreadPoolExecutor(
-                3,
-                3,
+                5,
+                5,
                 10, // thread keep alive time
                 TimeUnit.SECONDS,
-                new ArrayBlockingQueue<>(3));
+                new ArrayBlockingQueue<>(5));
 
         this.taskAssigningService = new TaskAssigningService(new SolverDefRegistryImpl(),
                                                              runtimeIntegrationClient,
                                                              userSystemService,
-                                                             executorService);
+                                                             executorService,
+                                                             eventQueue);
         taskAssigningService.init();
         this.services.add(taskAssigningService);
         initialized = true;
@@ -153,6 +157,13 @@ public class TaskAssigningKieServerExtension implements KieServerExtension {
         return 26;
     }
 
+    /**
+     * @return the queue where the TaskAssigningTaskEventListener instances push the task events.
+     */
+    public TaskEventQueue getEventQueue() {
+        return eventQueue;
+    }
+
     private WildflyUserSystemService getUserSystemService() {
         //TODO, move this initialization to SPI and add proper parametrization
         return new WildflyUserSystemService();
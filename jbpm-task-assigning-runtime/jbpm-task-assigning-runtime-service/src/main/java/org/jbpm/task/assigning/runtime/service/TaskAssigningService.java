@@ -31,28 +31,40 @@ public class TaskAssigningService {
     private ProcessRuntimeIntegrationClient runtimeClient;
     private UserSystemService userSystemService;
     private ExecutorService executorService;
+    private TaskEventQueue eventQueue;
 
     private SolverHandler solverHandler;
 
     public TaskAssigningService(SolverDefRegistry solverDefRegistry,
                                 ProcessRuntimeIntegrationClient runtimeClient,
                                 UserSystemService userSystemService,
-                                ExecutorService executorService) {
+                                ExecutorService executorService,
+                                TaskEventQueue eventQueue) {
         this.solverDefRegistry = solverDefRegistry;
         this.runtimeClient = runtimeClient;
         this.userSystemService = userSystemService;
         this.executorService = executorService;
+        this.eventQueue = eventQueue;
         solverDefRegistry.init();
     }
 
     public void init() {
         SolverDef solverDef = solverDefRegistry.getSolverDef();
-        solverHandler = new SolverHandler(solverDef, runtimeClient, userSystemService, executorService);
+        solverHandler = new SolverHandler(solverDef, runtimeClient, userSystemService, executorService, eventQueue);
         solverHandler.init();
         solverHandler.start();
     }
 
+    /**
+     * Programmes a full synchronization of the current solution with the jBPM runtime.
+     */
+    public void requestFullSynchronization() {
+        solverHandler.requestFullSynchronization();
+    }
+
     public void destroy() {
         solverHandler.destroy();
+        // the solution processing is already finished.
+        runtimeClient.close();
     }
 }
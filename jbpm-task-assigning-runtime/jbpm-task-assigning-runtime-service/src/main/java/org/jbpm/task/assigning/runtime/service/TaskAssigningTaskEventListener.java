@@ -0,0 +1,375 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.jbpm.task.assigning.process.runtime.integration.client.PotentialOwner;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus;
+import org.kie.api.task.TaskEvent;
+import org.kie.api.task.TaskLifeCycleEventListener;
+import org.kie.api.task.model.OrganizationalEntity;
+import org.kie.api.task.model.PeopleAssignments;
+import org.kie.api.task.model.Task;
+import org.kie.api.task.model.TaskData;
+import org.kie.api.task.model.User;
+import org.kie.server.services.api.KieServerExtension;
+import org.kie.server.services.impl.KieServerImpl;
+import org.kie.server.services.impl.KieServerLocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * jBPM task event listener that pushes the tasks that has changed into the TaskEventQueue, so that the changes are
+ * reflected in the solution without waiting for the next SolutionSynchronizer polling.
+ * The listener must be registered in the kjar deployment descriptor, e.g.
+ * <pre>
+ * &lt;task-event-listeners&gt;
+ *     &lt;task-event-listener&gt;
+ *         &lt;resolver&gt;reflection&lt;/resolver&gt;
+ *         &lt;identifier&gt;org.jbpm.task.assigning.runtime.service.TaskAssigningTaskEventListener&lt;/identifier&gt;
+ *     &lt;/task-event-listener&gt;
+ * &lt;/task-event-listeners&gt;
+ * </pre>
+ * Events are raised before the jBPM transaction is committed, for this reason a snapshot of the task is taken instead
+ * of the task id, in this way there's no need to read the task again. The snapshots are only queued when the
+ * transaction is committed, so the changes of a rolled back transaction never reach the solution. The task input
+ * variables and planning parameters are not populated, since they are not needed for calculating the solution changes.
+ */
+public class TaskAssigningTaskEventListener implements TaskLifeCycleEventListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskAssigningTaskEventListener.class);
+
+    private static final String TRANSACTION_SYNCHRONIZATION_REGISTRY = "java:comp/TransactionSynchronizationRegistry";
+
+    /**
+     * Key of the transaction resource with the snapshots produced by the transaction, the last one per task.
+     */
+    private static final String PENDING_EVENTS_RESOURCE = TaskAssigningTaskEventListener.class.getName() + ".pendingEvents";
+
+    private TaskEventQueue eventQueue;
+    private TransactionSynchronizationRegistry transactionRegistry;
+    private boolean transactionRegistryResolved;
+
+    /**
+     * Constructor used by the jBPM runtime, the TaskEventQueue is looked up from the TaskAssigningKieServerExtension
+     * and the TransactionSynchronizationRegistry from JNDI.
+     */
+    public TaskAssigningTaskEventListener() {
+    }
+
+    TaskAssigningTaskEventListener(TaskEventQueue eventQueue, TransactionSynchronizationRegistry transactionRegistry) {
+        this.eventQueue = eventQueue;
+        this.transactionRegistry = transactionRegistry;
+        this.transactionRegistryResolved = true;
+    }
+
+    @Override
+    public void afterTaskActivatedEvent(TaskEvent event) {
+        enqueue(event);
+    }
+
+    @Override
+    public void afterTaskClaimedEvent(TaskEvent event) {
+        enqueue(event);
+    }
+
+    @Override
+    public void afterTaskSkippedEvent(TaskEvent event) {
+        enqueue(event);
+    }
+
+    @Override
+    public void afterTaskStartedEvent(TaskEvent event) {
+        enqueue(event);
+    }
+
+    @Override
+    public void afterTaskStoppedEvent(TaskEvent event) {
+        enqueue(event);
+    }
+
+    @Override
+    public void afterTaskCompletedEvent(TaskEvent event) {
+        enqueue(event);
+    }
+
+    @Override
+    public void afterTaskFailedEvent(TaskEvent event) {
+        enqueue(event);
+    }
+
+    @Override
+    public void afterTaskAddedEvent(TaskEvent event) {
+        enqueue(event);
+    }
+
+    @Override
+    public void afterTaskExitedEvent(TaskEvent event) {
+        enqueue(event);
+    }
+
+    @Override
+    public void afterTaskReleasedEvent(TaskEvent event) {
+        enqueue(event);
+    }
+
+    @Override
+    public void afterTaskResumedEvent(TaskEvent event) {
+        enqueue(event);
+    }
+
+    @Override
+    public void afterTaskSuspendedEvent(TaskEvent event) {
+        enqueue(event);
+    }
+
+    @Override
+    public void afterTaskForwardedEvent(TaskEvent event) {
+        enqueue(event);
+    }
+
+    @Override
+    public void afterTaskDelegatedEvent(TaskEvent event) {
+        enqueue(event);
+    }
+
+    @Override
+    public void afterTaskNominatedEvent(TaskEvent event) {
+        enqueue(event);
+    }
+
+    @Override
+    public void afterTaskReassignedEvent(TaskEvent event) {
+        enqueue(event);
+    }
+
+    @Override
+    public void afterTaskAssignmentsAddedEvent(TaskEvent event, AssignmentType type, List<OrganizationalEntity> entities) {
+        if (type == AssignmentType.POT_OWNER) {
+            enqueue(event);
+        }
+    }
+
+    @Override
+    public void afterTaskAssignmentsRemovedEvent(TaskEvent event, AssignmentType type, List<OrganizationalEntity> entities) {
+        if (type == AssignmentType.POT_OWNER) {
+            enqueue(event);
+        }
+    }
+
+    @Override
+    public void beforeTaskActivatedEvent(TaskEvent event) {
+    }
+
+    @Override
+    public void beforeTaskClaimedEvent(TaskEvent event) {
+    }
+
+    @Override
+    public void beforeTaskSkippedEvent(TaskEvent event) {
+    }
+
+    @Override
+    public void beforeTaskStartedEvent(TaskEvent event) {
+    }
+
+    @Override
+    public void beforeTaskStoppedEvent(TaskEvent event) {
+    }
+
+    @Override
+    public void beforeTaskCompletedEvent(TaskEvent event) {
+    }
+
+    @Override
+    public void beforeTaskFailedEvent(TaskEvent event) {
+    }
+
+    @Override
+    public void beforeTaskAddedEvent(TaskEvent event) {
+    }
+
+    @Override
+    public void beforeTaskExitedEvent(TaskEvent event) {
+    }
+
+    @Override
+    public void beforeTaskReleasedEvent(TaskEvent event) {
+    }
+
+    @Override
+    public void beforeTaskResumedEvent(TaskEvent event) {
+    }
+
+    @Override
+    public void beforeTaskSuspendedEvent(TaskEvent event) {
+    }
+
+    @Override
+    public void beforeTaskForwardedEvent(TaskEvent event) {
+    }
+
+    @Override
+    public void beforeTaskDelegatedEvent(TaskEvent event) {
+    }
+
+    @Override
+    public void beforeTaskNominatedEvent(TaskEvent event) {
+    }
+
+    private void enqueue(TaskEvent event) {
+        final TaskEventQueue queue = getEventQueue();
+        if (queue == null) {
+            return;
+        }
+        final TaskInfo taskInfo = toTaskInfo(event.getTask());
+        if (taskInfo == null) {
+            return;
+        }
+        final TransactionSynchronizationRegistry registry = getTransactionRegistry();
+        if (registry == null || registry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            offer(queue, taskInfo);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, TaskInfo> pendingEvents = (Map<Long, TaskInfo>) registry.getResource(PENDING_EVENTS_RESOURCE);
+        if (pendingEvents == null) {
+            final Map<Long, TaskInfo> transactionEvents = new LinkedHashMap<>();
+            registry.putResource(PENDING_EVENTS_RESOURCE, transactionEvents);
+            registry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        transactionEvents.values().forEach(committedTaskInfo -> offer(queue, committedTaskInfo));
+                    }
+                }
+            });
+            pendingEvents = transactionEvents;
+        }
+        // only the last state of the task in the transaction is relevant.
+        pendingEvents.remove(taskInfo.getTaskId());
+        pendingEvents.put(taskInfo.getTaskId(), taskInfo);
+    }
+
+    private static void offer(TaskEventQueue queue, TaskInfo taskInfo) {
+        if (!queue.offer(taskInfo)) {
+            LOGGER.debug("TaskEventQueue is full, the change for task: " + taskInfo.getTaskId() + " will be recovered by the next full synchronization.");
+        }
+    }
+
+    /**
+     * @return the queue of the TaskAssigningKieServerExtension, or null if the extension is not initialized, e.g. it's
+     * disabled.
+     */
+    private TaskEventQueue getEventQueue() {
+        if (eventQueue == null) {
+            final KieServerImpl kieServer = KieServerLocator.getInstance();
+            final KieServerExtension extension = kieServer != null && kieServer.getServerRegistry() != null ?
+                    kieServer.getServerRegistry().getServerExtension(TaskAssigningKieServerExtension.EXTENSION_NAME) : null;
+            if (extension instanceof TaskAssigningKieServerExtension && extension.isInitialized()) {
+                eventQueue = ((TaskAssigningKieServerExtension) extension).getEventQueue();
+            }
+        }
+        return eventQueue;
+    }
+
+    private TransactionSynchronizationRegistry getTransactionRegistry() {
+        if (!transactionRegistryResolved) {
+            try {
+                transactionRegistry = (TransactionSynchronizationRegistry) new InitialContext().lookup(TRANSACTION_SYNCHRONIZATION_REGISTRY);
+            } catch (NamingException e) {
+                LOGGER.debug("TransactionSynchronizationRegistry is not available, the task events will be queued immediately.", e);
+            }
+            transactionRegistryResolved = true;
+        }
+        return transactionRegistry;
+    }
+
+    /**
+     * @return a TaskInfo with the current state of the task, or null if the task is in a status not managed by the
+     * planning, e.g. Created.
+     */
+    static TaskInfo toTaskInfo(Task task) {
+        final TaskData taskData = task.getTaskData();
+        if (taskData == null || taskData.getStatus() == null || taskData.getStatus() == org.kie.api.task.model.Status.Created) {
+            return null;
+        }
+        final TaskInfo taskInfo = new TaskInfo();
+        taskInfo.setTaskId(task.getId());
+        taskInfo.setName(task.getName());
+        taskInfo.setPriority(task.getPriority() != null ? task.getPriority() : 0);
+        taskInfo.setStatus(TaskStatus.valueOf(taskData.getStatus().name()));
+        taskInfo.setCreatedOn(toLocalDateTime(taskData.getCreatedOn()));
+        taskInfo.setActivationTime(toLocalDateTime(taskData.getActivationTime()));
+        taskInfo.setDueDate(toLocalDateTime(taskData.getExpirationTime()));
+        taskInfo.setProcessInstanceId(taskData.getProcessInstanceId());
+        taskInfo.setProcessId(taskData.getProcessId());
+        taskInfo.setContainerId(taskData.getDeploymentId());
+        taskInfo.setActualOwner(taskData.getActualOwner() != null ? taskData.getActualOwner().getId() : null);
+
+        final Set<PotentialOwner> potentialOwners = new HashSet<>();
+        final PeopleAssignments peopleAssignments = task.getPeopleAssignments();
+        if (peopleAssignments != null && peopleAssignments.getPotentialOwners() != null) {
+            for (OrganizationalEntity entity : peopleAssignments.getPotentialOwners()) {
+                potentialOwners.add(new PotentialOwner(entity instanceof User, entity.getId()));
+            }
+        }
+        taskInfo.setPotentialOwners(potentialOwners);
+
+        // the input variables are only present when the task is being created, which is enough since the labels of
+        // the tasks already in the solution are not refreshed.
+        final Map<String, Object> inputVariables = taskData.getTaskInputVariables();
+        if (inputVariables != null) {
+            final Map<String, Object> inputData = new HashMap<>();
+            copyIfPresent(inputVariables, inputData, TaskInfo.SKILLS_INPUT_VARIABLE);
+            copyIfPresent(inputVariables, inputData, TaskInfo.AFFINITIES_INPUT_VARIABLE);
+            taskInfo.setInputData(inputData);
+        }
+        return taskInfo;
+    }
+
+    private static void copyIfPresent(Map<String, Object> source, Map<String, Object> target, String name) {
+        final Object value = source.get(name);
+        if (value != null) {
+            target.put(name, value);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return date != null ? LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()) : null;
+    }
+}
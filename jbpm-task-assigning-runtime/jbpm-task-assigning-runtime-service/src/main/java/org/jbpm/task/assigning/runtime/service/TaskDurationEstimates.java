@@ -0,0 +1,240 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus;
+
+import static org.kie.soup.commons.validation.PortablePreconditions.checkCondition;
+import static org.kie.soup.commons.validation.PortablePreconditions.checkNotNull;
+
+/**
+ * Historical estimator for the duration of the tasks. The time between the activation and the completion of the tasks
+ * is ingested incrementally as the completions are read from the jBPM runtime, and streaming statistics are kept per
+ * processId and task name, and optionally per user: an exponentially weighted moving average, that follows the recent
+ * trend, and the median and 90th percentile, that are robust to outliers.
+ * <p>
+ * The statistics are kept in a size-bounded LRU cache, so the memory footprint doesn't depend on the number of
+ * completions nor on the number of distinct tasks. The estimations are resolved when the tasks are loaded into the
+ * solution, so that the score calculation only reads the Task.duration. This class is thread-safe.
+ */
+public class TaskDurationEstimates {
+
+    /**
+     * Duration in minutes for the tasks with no completion history.
+     */
+    public static final int DEFAULT_DURATION = 1;
+
+    /**
+     * Number of completions by a given user required for using the per user statistics instead of the statistics of
+     * all the users.
+     */
+    static final int MIN_USER_COMPLETIONS = 3;
+
+    /**
+     * The statistic used for estimating the duration of a task.
+     */
+    public enum Estimate {
+        /**
+         * The exponentially weighted moving average.
+         */
+        MEAN,
+        /**
+         * The median.
+         */
+        MEDIAN,
+        /**
+         * The 90th percentile, for a conservative planning.
+         */
+        P90
+    }
+
+    static class Statistics {
+
+        private final double smoothingFactor;
+        private final StreamingQuantile median = new StreamingQuantile(0.5);
+        private final StreamingQuantile p90 = new StreamingQuantile(0.9);
+        private long count;
+        private double mean;
+
+        Statistics(double smoothingFactor) {
+            this.smoothingFactor = smoothingFactor;
+        }
+
+        void add(long duration) {
+            // the first completions are averaged, so that the mean doesn't depend on the first value only.
+            final double weight = Math.max(smoothingFactor, 1.0 / ++count);
+            mean += weight * (duration - mean);
+            median.add(duration);
+            p90.add(duration);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        double getMean() {
+            return mean;
+        }
+
+        double getMedian() {
+            return median.getValue();
+        }
+
+        double getP90() {
+            return p90.getValue();
+        }
+
+        double get(Estimate estimate) {
+            switch (estimate) {
+                case MEDIAN:
+                    return getMedian();
+                case P90:
+                    return getP90();
+                default:
+                    return getMean();
+            }
+        }
+    }
+
+    private static class Key {
+
+        private final String processId;
+        private final String taskName;
+        private final String user;
+
+        private Key(String processId, String taskName, String user) {
+            this.processId = processId;
+            this.taskName = taskName;
+            this.user = user;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return processId.equals(key.processId) && taskName.equals(key.taskName) && Objects.equals(user, key.user);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(processId, taskName, user);
+        }
+    }
+
+    private final double smoothingFactor;
+    private final boolean perUser;
+    private final Estimate estimate;
+    /**
+     * LRU cache with the statistics, guarded by this.
+     */
+    private final Map<Key, Statistics> statistics;
+
+    public TaskDurationEstimates() {
+        this(10000, 0.1, false, Estimate.MEAN);
+    }
+
+    /**
+     * @param maxSize max number of statistics to keep, when exceeded the least recently used are discarded. Note that
+     * when perUser is true, there's one entry per processId and task name, plus one per processId, task name and user.
+     * @param smoothingFactor weight of every new completion in the exponentially weighted moving average, a value
+     * greater than 0 and lower or equal to 1.
+     * @param perUser true if the statistics are also kept per user, so that the estimation for a task with an actual
+     * owner considers the user's own history.
+     * @param estimate the statistic used for the estimations.
+     */
+    public TaskDurationEstimates(int maxSize, double smoothingFactor, boolean perUser, Estimate estimate) {
+        checkCondition("maxSize", maxSize > 0);
+        checkCondition("smoothingFactor", smoothingFactor > 0 && smoothingFactor <= 1);
+        checkNotNull("estimate", estimate);
+        this.smoothingFactor = smoothingFactor;
+        this.perUser = perUser;
+        this.estimate = estimate;
+        this.statistics = new LinkedHashMap<Key, Statistics>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Statistics> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Adds the duration of a completed task to the history of its processId and name, and to the history of its
+     * actual owner if the statistics are kept per user. Tasks not completed or with no activationTime are ignored.
+     * @param taskInfo a task with the lastModificationDate set to the completion date.
+     */
+    public void recordCompletion(TaskInfo taskInfo) {
+        if (taskInfo.getStatus() != TaskStatus.Completed || taskInfo.getActivationTime() == null ||
+                taskInfo.getLastModificationDate() == null || taskInfo.getProcessId() == null || taskInfo.getName() == null) {
+            return;
+        }
+        final long minutes = Math.max(0, Duration.between(taskInfo.getActivationTime(), taskInfo.getLastModificationDate()).toMinutes());
+        synchronized (this) {
+            statistics.computeIfAbsent(new Key(taskInfo.getProcessId(), taskInfo.getName(), null),
+                                       key -> new Statistics(smoothingFactor)).add(minutes);
+            if (perUser && taskInfo.getActualOwner() != null) {
+                statistics.computeIfAbsent(new Key(taskInfo.getProcessId(), taskInfo.getName(), taskInfo.getActualOwner()),
+                                           key -> new Statistics(smoothingFactor)).add(minutes);
+            }
+        }
+    }
+
+    /**
+     * @return the estimated duration in minutes for the tasks with the given processId and name, never lower than one
+     * minute.
+     */
+    public int estimate(String processId, String taskName) {
+        return estimate(processId, taskName, null);
+    }
+
+    /**
+     * @param user the user that will work on the task, or null if not known.
+     * @return the estimated duration in minutes for the tasks with the given processId and name, never lower than one
+     * minute. When the statistics are kept per user, the user's own history is used if there are enough completions.
+     */
+    public int estimate(String processId, String taskName, String user) {
+        final Statistics result = getStatistics(processId, taskName, user);
+        return result != null ? (int) Math.max(1, Math.round(result.get(estimate))) : DEFAULT_DURATION;
+    }
+
+    synchronized int size() {
+        return statistics.size();
+    }
+
+    synchronized Statistics getStatistics(String processId, String taskName, String user) {
+        if (processId == null || taskName == null) {
+            return null;
+        }
+        if (perUser && user != null) {
+            final Statistics userStatistics = statistics.get(new Key(processId, taskName, user));
+            if (userStatistics != null && userStatistics.getCount() >= MIN_USER_COMPLETIONS) {
+                return userStatistics;
+            }
+        }
+        return statistics.get(new Key(processId, taskName, null));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
+
+import static org.kie.soup.commons.validation.PortablePreconditions.checkCondition;
+
+/**
+ * Bounded in-memory queue that connects the TaskAssigningTaskEventListener, instantiated by the jBPM runtime, with the
+ * SolutionSynchronizer. The listener threads must never be blocked, so when the queue is full the events are discarded
+ * and the overflow is remembered for programming a full synchronization instead.
+ * <p>
+ * The queue is owned by the TaskAssigningKieServerExtension, and the listener instances look it up from there.
+ */
+public class TaskEventQueue {
+
+    public static final String QUEUE_SIZE_PROPERTY = "org.jbpm.task.assigning.events.queueSize";
+
+    private static final int QUEUE_SIZE = Integer.parseInt(System.getProperty(QUEUE_SIZE_PROPERTY, "10000"));
+
+    private final BlockingQueue<TaskInfo> queue;
+    private final AtomicBoolean overflowed = new AtomicBoolean(false);
+    private final AtomicLong lastEventTime = new AtomicLong();
+
+    public TaskEventQueue() {
+        this(QUEUE_SIZE);
+    }
+
+    public TaskEventQueue(int queueSize) {
+        checkCondition("queueSize", queueSize > 0);
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+    }
+
+    /**
+     * Adds a task to the queue without blocking.
+     * @param taskInfo the current state of a task that has changed in the jBPM runtime.
+     * @return true if the task was added, false if the queue is full.
+     */
+    public boolean offer(TaskInfo taskInfo) {
+        lastEventTime.set(System.currentTimeMillis());
+        if (queue.offer(taskInfo)) {
+            return true;
+        }
+        overflowed.set(true);
+        return false;
+    }
+
+    /**
+     * Waits up to the given timeout for a task to be available.
+     * @return the head of the queue or null if the timeout elapsed.
+     */
+    TaskInfo poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    /**
+     * Removes at most maxElements from the queue and adds them to the given collection.
+     * @return the number of elements transferred.
+     */
+    int drainTo(Collection<TaskInfo> result, int maxElements) {
+        return queue.drainTo(result, maxElements);
+    }
+
+    void clear() {
+        queue.clear();
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    /**
+     * @return true if any task was discarded since the previous invocation, since the queue was full.
+     */
+    boolean checkAndResetOverflow() {
+        return overflowed.getAndSet(false);
+    }
+
+    /**
+     * @return the time in milliseconds when the last event was received, or 0 if no event was ever received, e.g. the
+     * TaskAssigningTaskEventListener is not installed in the jBPM runtime.
+     */
+    long getLastEventTime() {
+        return lastEventTime.get();
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.User;
+import org.jbpm.task.assigning.model.solver.realtime.AddTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.AssignTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.ReleaseTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.RemoveTaskProblemFactChange;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskPlanningInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskPlanningResult;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+
+import static org.jbpm.task.assigning.runtime.service.SolutionBuilder.DUMMY_TASK;
+import static org.kie.soup.commons.validation.PortablePreconditions.checkNotNull;
+
+/**
+ * Index with the tasks and users of the solution as they are known by the SolverHandler. It's loaded once from a
+ * solution and is later maintained with the problem fact changes produced by the synchronizations and the planning
+ * the SolutionProcessor is about to apply. In this way the SolutionChangesBuilder only visits the modified tasks
+ * instead of indexing the whole solution on every synchronization.
+ * <p>
+ * The assigned user of a task is the user the task is known to have in the jBPM runtime, i.e. the user it was pinned
+ * to or delegated to, and never a solver assignment that wasn't applied yet. Otherwise a user claiming a task
+ * the solver had planned for that same user wouldn't be detected as an external assignment. For the same reason the
+ * planning recorded before the delegations is reconciled with the planning results, and the tasks that couldn't be
+ * delegated get back the assigned user they had.
+ * <p>
+ * This class is not thread-safe, the SolverHandler only accesses it from the coordinator thread.
+ */
+public class TaskStateIndex {
+
+    /**
+     * State of a task in the index.
+     */
+    public static class TaskState {
+
+        private final Task task;
+
+        private String assignedUser;
+
+        TaskState(Task task, String assignedUser) {
+            this.task = task;
+            this.assignedUser = assignedUser;
+        }
+
+        /**
+         * @return the task instance that was added to the solution, only the planning id is expected to be used when
+         * it's passed to a problem fact change.
+         */
+        public Task getTask() {
+            return task;
+        }
+
+        /**
+         * @return the entityId of the user the task is assigned to in the jBPM runtime, or null if the task is not
+         * assigned or the assignment is not known.
+         */
+        public String getAssignedUser() {
+            return assignedUser;
+        }
+    }
+
+    /**
+     * Assignment recorded by applyPlanning that is waiting for the planning result.
+     */
+    private static class PendingAssignment {
+
+        private final long taskId;
+        private final String previousUser;
+        private final String plannedUser;
+
+        private PendingAssignment(long taskId, String previousUser, String plannedUser) {
+            this.taskId = taskId;
+            this.previousUser = previousUser;
+            this.plannedUser = plannedUser;
+        }
+    }
+
+    private final LongObjectHashMap<TaskState> tasksById = new LongObjectHashMap<>();
+
+    private final LongObjectHashMap<PendingAssignment> pendingAssignments = new LongObjectHashMap<>();
+
+    private final Map<String, User> usersById = new HashMap<>();
+
+    private boolean loaded = false;
+
+    public TaskStateIndex() {
+    }
+
+    /**
+     * Builds an index where all the assignments of the given solution are considered as applied in the jBPM runtime.
+     * @param solution a solution that reflects the jBPM runtime, e.g. a recovered solution.
+     */
+    public static TaskStateIndex fromSolution(TaskAssigningSolution solution) {
+        final TaskStateIndex index = new TaskStateIndex();
+        index.load(solution, taskId -> true);
+        return index;
+    }
+
+    /**
+     * Loads the index with the tasks and users of the given solution, any previous content is discarded.
+     * Only the assignments of the pinned or published tasks are loaded, since the remaining ones might be solver
+     * assignments not yet applied in the jBPM runtime.
+     * @param solution the solution to index.
+     * @param publishedTasks tests if a task was published.
+     */
+    public void load(TaskAssigningSolution solution, LongPredicate publishedTasks) {
+        checkNotNull("solution", solution);
+        checkNotNull("publishedTasks", publishedTasks);
+        tasksById.clear();
+        usersById.clear();
+        pendingAssignments.clear();
+        String assignedUser;
+        for (Task task : solution.getTaskList()) {
+            if (!DUMMY_TASK.getId().equals(task.getId())) {
+                assignedUser = task.getUser() != null && (task.isPinned() || publishedTasks.test(task.getId())) ? task.getUser().getEntityId() : null;
+                tasksById.put(task.getId(), new TaskState(task, assignedUser));
+            }
+        }
+        for (User user : solution.getUserList()) {
+            usersById.put(user.getEntityId(), user);
+        }
+        loaded = true;
+    }
+
+    /**
+     * Discards the content of the index, it must be loaded again before being used.
+     */
+    public void invalidate() {
+        tasksById.clear();
+        usersById.clear();
+        pendingAssignments.clear();
+        loaded = false;
+    }
+
+    /**
+     * @return true if the index was already loaded from a solution, false in any other case.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public TaskState getTask(long taskId) {
+        return tasksById.get(taskId);
+    }
+
+    public User getUser(String userId) {
+        return userId != null ? usersById.get(userId) : null;
+    }
+
+    public int getTaskCount() {
+        return tasksById.size();
+    }
+
+    public void forEachTask(Consumer<TaskState> consumer) {
+        tasksById.forEachValue(consumer);
+    }
+
+    /**
+     * Updates the index with the changes produced by a SolutionChangesBuilder. Cost is proportional to the number of
+     * changes.
+     * @param changes the changes to apply.
+     */
+    public void apply(List<ProblemFactChange<TaskAssigningSolution>> changes) {
+        for (ProblemFactChange<TaskAssigningSolution> change : changes) {
+            if (change instanceof AddTaskProblemFactChange) {
+                final Task task = ((AddTaskProblemFactChange) change).getTask();
+                tasksById.put(task.getId(), new TaskState(task, null));
+            } else if (change instanceof AssignTaskProblemFactChange) {
+                final AssignTaskProblemFactChange assignChange = (AssignTaskProblemFactChange) change;
+                final Task task = assignChange.getTask();
+                final String userId = assignChange.getUser() != null ? assignChange.getUser().getEntityId() : null;
+                final TaskState state = tasksById.get(task.getId());
+                if (state != null) {
+                    state.assignedUser = userId;
+                } else {
+                    tasksById.put(task.getId(), new TaskState(task, userId));
+                }
+            } else if (change instanceof ReleaseTaskProblemFactChange) {
+                final TaskState state = tasksById.get(((ReleaseTaskProblemFactChange) change).getTaskId());
+                if (state != null) {
+                    state.assignedUser = null;
+                }
+            } else if (change instanceof RemoveTaskProblemFactChange) {
+                tasksById.remove(((RemoveTaskProblemFactChange) change).getTask().getId());
+            }
+        }
+    }
+
+    /**
+     * Updates the index with the planning that the SolutionProcessor is about to apply into the jBPM runtime. It must
+     * be invoked before the tasks are delegated, so that the task events produced by the delegations are recognized as
+     * already known assignments. The previous assignments are kept until the planning results are reconciled. Tasks no
+     * longer in the index are ignored.
+     * @param planningInfos the planning to apply.
+     */
+    public void applyPlanning(List<TaskPlanningInfo> planningInfos) {
+        TaskState state;
+        String plannedUser;
+        PendingAssignment pending;
+        for (TaskPlanningInfo planningInfo : planningInfos) {
+            state = tasksById.get(planningInfo.getTaskId());
+            if (state != null) {
+                plannedUser = planningInfo.getPlanningParameters().getAssignedUser();
+                pending = pendingAssignments.get(planningInfo.getTaskId());
+                // an assignment that wasn't reconciled yet keeps the user known before it.
+                pendingAssignments.put(planningInfo.getTaskId(), new PendingAssignment(planningInfo.getTaskId(),
+                                                                                       pending != null ? pending.previousUser : state.assignedUser,
+                                                                                       plannedUser));
+                state.assignedUser = plannedUser;
+            }
+        }
+    }
+
+    /**
+     * Reconciles the planning recorded by applyPlanning with the results of applying it. The tasks with an ERROR or
+     * SKIPPED result never received the planned user, so they get back the assigned user they had, unless it was
+     * changed by a synchronization in the meantime.
+     * @param planningResults the results of applying the planning.
+     */
+    public void reconcilePlanning(List<TaskPlanningResult> planningResults) {
+        PendingAssignment pending;
+        for (TaskPlanningResult planningResult : planningResults) {
+            pending = pendingAssignments.remove(planningResult.getTaskId());
+            if (pending != null && (planningResult.getStatus() == TaskPlanningResult.Status.ERROR ||
+                    planningResult.getStatus() == TaskPlanningResult.Status.SKIPPED)) {
+                restore(pending);
+            }
+        }
+    }
+
+    /**
+     * Restores the assignments recorded by applyPlanning that weren't reconciled, e.g. because the planning
+     * application failed as a whole.
+     */
+    public void rollbackPlanning() {
+        pendingAssignments.forEachValue(this::restore);
+        pendingAssignments.clear();
+    }
+
+    private void restore(PendingAssignment pending) {
+        final TaskState state = tasksById.get(pending.taskId);
+        if (state != null && Objects.equals(state.assignedUser, pending.plannedUser)) {
+            state.assignedUser = pending.previousUser;
+        }
+    }
+}
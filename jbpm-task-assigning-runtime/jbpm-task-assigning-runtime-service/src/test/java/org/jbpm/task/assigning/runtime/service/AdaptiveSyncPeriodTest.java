@@ -0,0 +1,48 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.runtime.service;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveSyncPeriodTest {
+
+    @Test
+    public void backOffWithoutChangesTest() {
+        AdaptiveSyncPeriod syncPeriod = new AdaptiveSyncPeriod(1000, 10000, 60000);
+        assertEquals(10000, syncPeriod.getPeriod());
+        assertEquals(20000, syncPeriod.update(0));
+        assertEquals(40000, syncPeriod.update(0));
+        assertEquals(60000, syncPeriod.update(0));
+        assertEquals(60000, syncPeriod.update(0));
+    }
+
+    @Test
+    public void speedUpWithGrowingChangesTest() {
+        AdaptiveSyncPeriod syncPeriod = new AdaptiveSyncPeriod(1000, 10000, 60000);
+        assertEquals(5000, syncPeriod.update(1));
+        assertEquals(2500, syncPeriod.update(5));
+        // decreasing but still few changes, the period is kept.
+        assertEquals(2500, syncPeriod.update(3));
+        assertEquals(1250, syncPeriod.update(AdaptiveSyncPeriod.BUSY_CHANGES));
+        assertEquals(1000, syncPeriod.update(AdaptiveSyncPeriod.BUSY_CHANGES));
+        assertEquals(1000, syncPeriod.update(AdaptiveSyncPeriod.BUSY_CHANGES));
+        assertEquals(2000, syncPeriod.update(0));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongHashSetTest {
+
+    @Test
+    public void addAndRemoveTest() {
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.add(1));
+        assertFalse(set.add(1));
+        assertTrue(set.add(Long.MIN_VALUE));
+        assertEquals(2, set.size());
+        assertTrue(set.contains(1));
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertTrue(set.remove(1));
+        assertFalse(set.remove(1));
+        assertTrue(set.remove(Long.MIN_VALUE));
+        assertEquals(0, set.size());
+    }
+
+    @Test
+    public void copyTest() {
+        LongHashSet set = new LongHashSet();
+        set.add(1);
+        LongHashSet copy = set.copy();
+        set.remove(1);
+        set.add(2);
+        assertTrue(copy.contains(1));
+        assertFalse(copy.contains(2));
+    }
+
+    @Test
+    public void sameAsHashSetTest() {
+        Random random = new Random(1234);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 100000; i++) {
+            // small range so that collisions, removals and shrinks are frequent.
+            long key = random.nextInt(5000) * 128L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), set.remove(key));
+            } else {
+                assertEquals(expected.add(key), set.add(key));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        for (long key = 0; key < 5000 * 128L; key += 128) {
+            assertEquals(expected.contains(key), set.contains(key));
+        }
+        for (Long key : new HashSet<>(expected)) {
+            assertTrue(set.remove(key));
+        }
+        assertEquals(0, set.size());
+    }
+}
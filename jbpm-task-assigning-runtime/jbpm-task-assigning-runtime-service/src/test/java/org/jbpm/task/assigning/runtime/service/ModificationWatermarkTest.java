@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ModificationWatermarkTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 1, 1, 12, 0);
+
+    @Test
+    public void emptyWatermarkTest() {
+        ModificationWatermark watermark = new ModificationWatermark(2000);
+        assertNull(watermark.getLastModificationDate());
+        assertNull(watermark.getFromDate());
+        watermark.update(Collections.singletonList(taskInfo(1, null)));
+        assertNull(watermark.getLastModificationDate());
+        assertFalse(watermark.isAlreadyRead(taskInfo(1, NOW)));
+    }
+
+    @Test
+    public void fromDateOverlapsTheLastModificationDateTest() {
+        ModificationWatermark watermark = new ModificationWatermark(2000);
+        watermark.update(Arrays.asList(taskInfo(1, NOW.minusSeconds(10)), taskInfo(2, NOW), taskInfo(3, NOW.minusSeconds(1))));
+        assertEquals(NOW, watermark.getLastModificationDate());
+        assertEquals(NOW.minusSeconds(2), watermark.getFromDate());
+
+        // an older read doesn't move the watermark backwards.
+        watermark.update(Collections.singletonList(taskInfo(4, NOW.minusSeconds(5))));
+        assertEquals(NOW, watermark.getLastModificationDate());
+    }
+
+    @Test
+    public void tasksReadAgainWithinTheOverlapAreDiscardedTest() {
+        ModificationWatermark watermark = new ModificationWatermark(2000);
+        watermark.update(Arrays.asList(taskInfo(1, NOW.minusSeconds(1)), taskInfo(2, NOW)));
+        assertTrue(watermark.isAlreadyRead(taskInfo(1, NOW.minusSeconds(1))));
+        assertTrue(watermark.isAlreadyRead(taskInfo(2, NOW)));
+        // modified again, or committed late within the overlap.
+        assertFalse(watermark.isAlreadyRead(taskInfo(1, NOW.plusSeconds(1))));
+        assertFalse(watermark.isAlreadyRead(taskInfo(3, NOW.minusSeconds(1))));
+    }
+
+    @Test
+    public void tasksOutOfTheOverlapAreForgottenTest() {
+        ModificationWatermark watermark = new ModificationWatermark(2000);
+        watermark.update(Arrays.asList(taskInfo(1, NOW.minusSeconds(5)), taskInfo(2, NOW.minusSeconds(1)), taskInfo(3, NOW)));
+        // task 1 is out of the overlap and won't be read again.
+        assertFalse(watermark.isAlreadyRead(taskInfo(1, NOW.minusSeconds(5))));
+        assertTrue(watermark.isAlreadyRead(taskInfo(2, NOW.minusSeconds(1))));
+
+        watermark.update(Collections.singletonList(taskInfo(4, NOW.plusSeconds(2))));
+        assertEquals(NOW, watermark.getFromDate());
+        assertFalse(watermark.isAlreadyRead(taskInfo(2, NOW.minusSeconds(1))));
+        assertTrue(watermark.isAlreadyRead(taskInfo(3, NOW)));
+        assertTrue(watermark.isAlreadyRead(taskInfo(4, NOW.plusSeconds(2))));
+    }
+
+    @Test
+    public void zeroOverlapTest() {
+        ModificationWatermark watermark = new ModificationWatermark(0);
+        watermark.update(Arrays.asList(taskInfo(1, NOW.minusSeconds(1)), taskInfo(2, NOW)));
+        assertEquals(NOW, watermark.getFromDate());
+        assertFalse(watermark.isAlreadyRead(taskInfo(1, NOW.minusSeconds(1))));
+        assertTrue(watermark.isAlreadyRead(taskInfo(2, NOW)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void negativeOverlapTest() {
+        new ModificationWatermark(-1);
+    }
+
+    private static TaskInfo taskInfo(long taskId, LocalDateTime lastModificationDate) {
+        TaskInfo taskInfo = new TaskInfo();
+        taskInfo.setTaskId(taskId);
+        taskInfo.setLastModificationDate(lastModificationDate);
+        return taskInfo;
+    }
+}
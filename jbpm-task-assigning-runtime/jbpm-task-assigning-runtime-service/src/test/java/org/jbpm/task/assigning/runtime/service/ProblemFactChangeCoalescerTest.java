@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.User;
+import org.jbpm.task.assigning.model.solver.realtime.AddTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.AddTasksProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.AssignTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.RemoveTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.RemoveTasksProblemFactChange;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ProblemFactChangeCoalescerTest {
+
+    private List<List<ProblemFactChange<TaskAssigningSolution>>> submissions;
+    private List<Exception> errors;
+    private ProblemFactChangeCoalescer coalescer;
+
+    @Before
+    public void setUp() {
+        submissions = new CopyOnWriteArrayList<>();
+        errors = new CopyOnWriteArrayList<>();
+        coalescer = new ProblemFactChangeCoalescer(60000, 3, submissions::add, errors::add);
+    }
+
+    @After
+    public void tearDown() {
+        coalescer.destroy();
+    }
+
+    @Test
+    public void addAndRemoveCancelsTest() {
+        coalescer.add(Collections.singletonList(new AddTaskProblemFactChange(new Task(1, "Task1", 1))));
+        coalescer.add(Collections.singletonList(new RemoveTaskProblemFactChange(new Task(1, "Task1", 1))));
+        coalescer.flush();
+        assertTrue(submissions.isEmpty());
+    }
+
+    @Test
+    public void consecutiveAssignsCollapseTest() {
+        Task task = new Task(1, "Task1", 1);
+        AssignTaskProblemFactChange lastAssign = new AssignTaskProblemFactChange(task, new User(2, "user2"));
+        coalescer.add(Collections.singletonList(new AssignTaskProblemFactChange(task, new User(1, "user1"))));
+        coalescer.add(Collections.singletonList(lastAssign));
+        coalescer.flush();
+        assertEquals(1, submissions.size());
+        assertEquals(1, submissions.get(0).size());
+        assertSame(lastAssign, submissions.get(0).get(0));
+    }
+
+    @Test
+    public void consecutiveAddsAreGroupedTest() {
+        Task task4 = new Task(4, "Task4", 1);
+        AssignTaskProblemFactChange assign = new AssignTaskProblemFactChange(task4, new User(1, "user1"));
+        coalescer.add(Arrays.asList(new AddTaskProblemFactChange(new Task(1, "Task1", 1)),
+                                    new AddTaskProblemFactChange(new Task(2, "Task2", 1)),
+                                    assign,
+                                    new AddTaskProblemFactChange(new Task(3, "Task3", 1))));
+        // the batchSize was reached.
+        assertEquals(1, submissions.size());
+        List<ProblemFactChange<TaskAssigningSolution>> changes = submissions.get(0);
+        assertEquals(3, changes.size());
+        assertEquals(2, ((AddTasksProblemFactChange) changes.get(0)).getTasks().size());
+        assertSame(assign, changes.get(1));
+        assertTrue(changes.get(2) instanceof AddTaskProblemFactChange);
+    }
+
+    @Test
+    public void consecutiveRemovesAreGroupedTest() {
+        coalescer.add(Arrays.asList(new RemoveTaskProblemFactChange(new Task(1, "Task1", 1)),
+                                    new RemoveTaskProblemFactChange(new Task(2, "Task2", 1))));
+        coalescer.flush();
+        assertEquals(1, submissions.get(0).size());
+        assertEquals(2, ((RemoveTasksProblemFactChange) submissions.get(0).get(0)).getTasks().size());
+    }
+
+    @Test
+    public void flushOnWindowTest() throws InterruptedException {
+        coalescer.destroy();
+        coalescer = new ProblemFactChangeCoalescer(10, 1000, submissions::add, errors::add);
+        new Thread(coalescer).start();
+        coalescer.add(Collections.singletonList(new AddTaskProblemFactChange(new Task(1, "Task1", 1))));
+        long timeout = System.currentTimeMillis() + 5000;
+        while (submissions.isEmpty() && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, submissions.size());
+    }
+
+    @Test
+    public void submissionErrorTest() {
+        RuntimeException error = new RuntimeException("SolverExecutor wasn't yet started");
+        coalescer = new ProblemFactChangeCoalescer(60000, 1, changes -> {
+            throw error;
+        }, errors::add);
+        coalescer.add(Collections.singletonList(new AddTaskProblemFactChange(new Task(1, "Task1", 1))));
+        assertEquals(1, errors.size());
+        assertSame(error, errors.get(0));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.runtime.service;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PublishedTaskCacheTest {
+
+    @Test
+    public void putAndRemoveTest() {
+        PublishedTaskCache cache = new PublishedTaskCache();
+        cache.put(1L);
+        cache.put(2L);
+        assertTrue(cache.isPublished(1L));
+        assertTrue(cache.isPublished(2L));
+        cache.remove(1L);
+        assertFalse(cache.isPublished(1L));
+        assertTrue(cache.isPublished(2L));
+    }
+
+    @Test
+    public void snapshotIsNotAffectedByModificationsTest() {
+        PublishedTaskCache cache = new PublishedTaskCache();
+        for (long taskId = 0; taskId < 1000; taskId++) {
+            cache.put(taskId);
+        }
+        PublishedTaskCache.Snapshot snapshot = cache.snapshot();
+        cache.remove(1L);
+        cache.put(1000L);
+
+        assertTrue(snapshot.isPublished(1L));
+        assertFalse(snapshot.isPublished(1000L));
+        assertFalse(cache.isPublished(1L));
+        assertTrue(cache.isPublished(1000L));
+        for (long taskId = 2; taskId < 1000; taskId++) {
+            assertTrue(snapshot.isPublished(taskId));
+            assertTrue(cache.isPublished(taskId));
+        }
+    }
+
+    @Test
+    public void snapshotVersionTest() {
+        PublishedTaskCache cache = new PublishedTaskCache();
+        cache.put(1L);
+        cache.put(1L);
+        cache.put(2L);
+        cache.remove(3L);
+        assertEquals(2, cache.snapshot().getVersion());
+        cache.remove(2L);
+        assertEquals(3, cache.snapshot().getVersion());
+    }
+}
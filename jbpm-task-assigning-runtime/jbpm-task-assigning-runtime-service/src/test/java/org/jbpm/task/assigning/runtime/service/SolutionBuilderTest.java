@@ -16,17 +16,49 @@
 
 package org.jbpm.task.assigning.runtime.service;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.TypedLabel;
+import org.jbpm.task.assigning.model.User;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus;
+import org.jbpm.task.assigning.user.system.integration.impl.UserImpl;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class SolutionBuilderTest {
 
+    @Test
+    public void buildWithPagesTest() {
+        PublishedTaskCache publishedTasks = new PublishedTaskCache();
+        TaskAssigningSolution solution = new SolutionBuilder()
+                .addTasks(Arrays.asList(taskInfo(1, TaskStatus.Ready, null), taskInfo(2, TaskStatus.InProgress, "user1")))
+                .addTasks(Collections.singletonList(taskInfo(3, TaskStatus.Reserved, "user1")))
+                .withUsers(Collections.singletonList(new UserImpl("user1")))
+                .withCache(publishedTasks)
+                .build();
+        // the dummy task plus the three tasks.
+        assertEquals(4, solution.getTaskList().size());
+        User user1 = solution.getUserList().stream().filter(user -> "user1".equals(user.getEntityId())).findFirst().orElse(null);
+        assertEquals(2, user1.getNextTask().getId(), 0);
+        assertEquals(3, user1.getNextTask().getNextTask().getId(), 0);
+        assertTrue(publishedTasks.isPublished(2));
+        assertFalse(publishedTasks.isPublished(3));
+    }
+
     @Test
     public void addInOrderTest() {
 
@@ -84,4 +116,98 @@ public class SolutionBuilderTest {
     private void assertTaskInPosition(List<SolutionBuilder.AssignedTask> tasks, Task expectedTask, int index) {
         assertEquals(expectedTask, tasks.get(index).getTask());
     }
+
+    @Test
+    public void fromTaskInfoWithEstimatesAndDueDateTest() {
+        TaskDurationEstimates estimates = new TaskDurationEstimates();
+        TaskInfo completed = taskInfo(1, TaskStatus.Completed, "user1");
+        completed.setProcessId("process");
+        completed.setActivationTime(LocalDateTime.now().minusMinutes(30));
+        completed.setLastModificationDate(completed.getActivationTime().plusMinutes(30));
+        estimates.recordCompletion(completed);
+
+        TaskInfo taskInfo = taskInfo(2, TaskStatus.Ready, null);
+        taskInfo.setName(completed.getName());
+        taskInfo.setProcessId("process");
+        taskInfo.setDueDate(LocalDateTime.now().plusHours(2));
+        Task task = SolutionBuilder.fromTaskInfo(taskInfo, estimates);
+        assertEquals(30, task.getDuration());
+        // the dueTime is calculated against the reference time of the solution the task is added to.
+        assertEquals(taskInfo.getDueDate(), task.getDueDate());
+        assertNull(task.getDueTime());
+
+        Task taskWithNoDueDate = SolutionBuilder.fromTaskInfo(taskInfo(3, TaskStatus.Ready, null));
+        assertNull(taskWithNoDueDate.getDueDate());
+    }
+
+    @Test
+    public void buildWithReferenceTimeTest() {
+        LocalDateTime referenceTime = LocalDateTime.of(2019, 10, 1, 8, 0);
+        TaskInfo taskInfo1 = taskInfo(1, TaskStatus.Ready, null);
+        taskInfo1.setDueDate(referenceTime.plusHours(2));
+        TaskInfo taskInfo2 = taskInfo(2, TaskStatus.Reserved, "user1");
+        taskInfo2.setDueDate(referenceTime.minusMinutes(30));
+        TaskInfo taskInfo3 = taskInfo(3, TaskStatus.Ready, null);
+        taskInfo3.setDueDate(referenceTime.plusYears(10000));
+        TaskInfo taskInfo4 = taskInfo(4, TaskStatus.Ready, null);
+        TaskAssigningSolution solution = new SolutionBuilder()
+                .withReferenceTime(referenceTime)
+                .addTasks(Arrays.asList(taskInfo1, taskInfo2, taskInfo3, taskInfo4))
+                .withUsers(Collections.singletonList(new UserImpl("user1")))
+                .build();
+        assertEquals(referenceTime, solution.getReferenceTime());
+        assertEquals(120, findTask(solution, 1).getDueTime(), 0);
+        assertEquals(-30, findTask(solution, 2).getDueTime(), 0);
+        assertEquals(Task.MAX_DUE_TIME, findTask(solution, 3).getDueTime(), 0);
+        assertNull(findTask(solution, 4).getDueTime());
+    }
+
+    @Test
+    public void buildWithCurrentReferenceTimeTest() {
+        LocalDateTime before = SolutionBuilder.currentReferenceTime();
+        TaskAssigningSolution solution = new SolutionBuilder()
+                .addTasks(Collections.singletonList(taskInfo(1, TaskStatus.Ready, null)))
+                .withUsers(Collections.emptyList())
+                .build();
+        LocalDateTime after = SolutionBuilder.currentReferenceTime();
+        assertFalse(solution.getReferenceTime().isBefore(before));
+        assertFalse(solution.getReferenceTime().isAfter(after));
+    }
+
+    private static Task findTask(TaskAssigningSolution solution, long taskId) {
+        return solution.getTaskList().stream()
+                .filter(task -> task.getId() == taskId)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Task: " + taskId + " was not found"));
+    }
+
+    @Test
+    public void typedLabelsTest() {
+        TaskInfo taskInfo = taskInfo(1, TaskStatus.Ready, null);
+        Map<String, Object> inputData = new HashMap<>();
+        inputData.put(TaskInfo.SKILLS_INPUT_VARIABLE, "skill1, skill2");
+        inputData.put(TaskInfo.AFFINITIES_INPUT_VARIABLE, Arrays.asList("affinity1", "affinity2"));
+        taskInfo.setInputData(inputData);
+        Task task = SolutionBuilder.fromTaskInfo(taskInfo);
+        assertEquals(new HashSet<>(Arrays.asList(TypedLabel.newSkill("skill1"), TypedLabel.newSkill("skill2"),
+                                                 TypedLabel.newAffinity("affinity1"), TypedLabel.newAffinity("affinity2"))),
+                     task.getTypedLabels());
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(SolutionBuilder.SKILLS_ATTRIBUTE, "skill1");
+        attributes.put(SolutionBuilder.AFFINITIES_ATTRIBUTE, "affinity2,");
+        User user = SolutionBuilder.fromExternalUser(new UserImpl("user1", new HashSet<>(), attributes));
+        assertEquals(new HashSet<>(Arrays.asList(TypedLabel.newSkill("skill1"), TypedLabel.newAffinity("affinity2"))),
+                     user.getTypedLabels());
+    }
+
+    private static TaskInfo taskInfo(long taskId, TaskStatus status, String actualOwner) {
+        TaskInfo taskInfo = new TaskInfo();
+        taskInfo.setTaskId(taskId);
+        taskInfo.setName("Task" + taskId);
+        taskInfo.setStatus(status);
+        taskInfo.setActualOwner(actualOwner);
+        taskInfo.setPotentialOwners(new HashSet<>());
+        return taskInfo;
+    }
 }
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.User;
+import org.jbpm.task.assigning.model.solver.realtime.AddTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.AssignTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.ReleaseTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.RemoveTaskProblemFactChange;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskPlanningInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SolutionChangesBuilderTest {
+
+    private static final String USER = "user1";
+
+    private TaskAssigningSolution solution;
+
+    @Before
+    public void setUp() {
+        User user = new User(1, USER);
+        Task task1 = new Task(1, "Task1", 1);
+        task1.setUser(user);
+        Task task2 = new Task(2, "Task2", 1);
+        task2.setUser(user);
+        solution = new TaskAssigningSolution(-1,
+                                             new ArrayList<>(Collections.singletonList(user)),
+                                             new ArrayList<>(Arrays.asList(task1, task2)));
+    }
+
+    @Test
+    public void buildFullSynchronizationTest() {
+        List<ProblemFactChange<TaskAssigningSolution>> changes = new SolutionChangesBuilder()
+                .withSolution(solution)
+                .withTasks(Arrays.asList(taskInfo(2, TaskStatus.Reserved, USER), taskInfo(3, TaskStatus.Ready, null)))
+                .withCache(new PublishedTaskCache())
+                .build();
+        assertEquals(2, changes.size());
+        assertTrue(changes.get(0) instanceof AddTaskProblemFactChange);
+        assertEquals(3, ((AddTaskProblemFactChange) changes.get(0)).getTask().getId(), 0);
+        assertTrue(changes.get(1) instanceof RemoveTaskProblemFactChange);
+        assertEquals(1, ((RemoveTaskProblemFactChange) changes.get(1)).getTask().getId(), 0);
+    }
+
+    @Test
+    public void buildFullSynchronizationWithActiveTasksTest() {
+        List<ProblemFactChange<TaskAssigningSolution>> changes = new SolutionChangesBuilder()
+                .withSolution(solution)
+                .withTasks(Collections.emptyList())
+                .withActiveTasks(taskId -> taskId == 2)
+                .withCache(new PublishedTaskCache())
+                .build();
+        assertEquals(1, changes.size());
+        assertTrue(changes.get(0) instanceof RemoveTaskProblemFactChange);
+        assertEquals(1, ((RemoveTaskProblemFactChange) changes.get(0)).getTask().getId(), 0);
+    }
+
+    @Test
+    public void buildIncrementalSynchronizationTest() {
+        List<ProblemFactChange<TaskAssigningSolution>> changes = new SolutionChangesBuilder()
+                .withSolution(solution)
+                .withTasks(Collections.singletonList(taskInfo(3, TaskStatus.Ready, null)))
+                .withIncrementalMode(true)
+                .withCache(new PublishedTaskCache())
+                .build();
+        assertEquals(1, changes.size());
+        assertTrue(changes.get(0) instanceof AddTaskProblemFactChange);
+        assertEquals(3, ((AddTaskProblemFactChange) changes.get(0)).getTask().getId(), 0);
+    }
+
+    @Test
+    public void buildIncrementalSynchronizationWithFinishedTasksTest() {
+        List<ProblemFactChange<TaskAssigningSolution>> changes = new SolutionChangesBuilder()
+                .withSolution(solution)
+                .withTasks(Arrays.asList(taskInfo(2, TaskStatus.Completed, USER), taskInfo(4, TaskStatus.Exited, null)))
+                .withIncrementalMode(true)
+                .withCache(new PublishedTaskCache())
+                .build();
+        assertEquals(1, changes.size());
+        assertTrue(changes.get(0) instanceof RemoveTaskProblemFactChange);
+        assertEquals(2, ((RemoveTaskProblemFactChange) changes.get(0)).getTask().getId(), 0);
+    }
+
+    @Test
+    public void buildFinishedTasksRemovedFromCacheTest() {
+        PublishedTaskCache publishedTasks = new PublishedTaskCache();
+        publishedTasks.put(1L);
+        publishedTasks.put(2L);
+        publishedTasks.put(4L);
+        new SolutionChangesBuilder()
+                .withSolution(solution)
+                .withTasks(Arrays.asList(taskInfo(2, TaskStatus.Completed, USER), taskInfo(4, TaskStatus.Exited, null)))
+                .withIncrementalMode(true)
+                .withCache(publishedTasks)
+                .build();
+        assertTrue(publishedTasks.isPublished(1L));
+        assertFalse(publishedTasks.isPublished(2L));
+        assertFalse(publishedTasks.isPublished(4L));
+        assertEquals(1, publishedTasks.size());
+    }
+
+    @Test
+    public void buildReadyTaskNotPublishedTest() {
+        List<ProblemFactChange<TaskAssigningSolution>> changes = new SolutionChangesBuilder()
+                .withSolution(solution)
+                .withTasks(Collections.singletonList(taskInfo(1, TaskStatus.Ready, null)))
+                .withIncrementalMode(true)
+                .withCache(new PublishedTaskCache())
+                .build();
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    public void buildReadyTaskPublishedTest() {
+        PublishedTaskCache publishedTasks = new PublishedTaskCache();
+        publishedTasks.put(1L);
+        List<ProblemFactChange<TaskAssigningSolution>> changes = new SolutionChangesBuilder()
+                .withSolution(solution)
+                .withTasks(Collections.singletonList(taskInfo(1, TaskStatus.Ready, null)))
+                .withIncrementalMode(true)
+                .withCache(publishedTasks)
+                .build();
+        assertEquals(1, changes.size());
+        assertTrue(changes.get(0) instanceof ReleaseTaskProblemFactChange);
+        assertFalse(publishedTasks.isPublished(1L));
+    }
+
+    @Test
+    public void buildWithIndexTest() {
+        TaskStateIndex index = TaskStateIndex.fromSolution(solution);
+        PublishedTaskCache publishedTasks = new PublishedTaskCache();
+        List<ProblemFactChange<TaskAssigningSolution>> changes = new SolutionChangesBuilder()
+                .withIndex(index)
+                .withTasks(Arrays.asList(taskInfo(3, TaskStatus.Reserved, USER), taskInfo(1, TaskStatus.Completed, USER)))
+                .withIncrementalMode(true)
+                .withCache(publishedTasks)
+                .build();
+        assertEquals(2, changes.size());
+        assertTrue(changes.get(0) instanceof AssignTaskProblemFactChange);
+        assertTrue(changes.get(1) instanceof RemoveTaskProblemFactChange);
+        index.apply(changes);
+
+        // the same tasks informed again produce no changes since the index was updated.
+        changes = new SolutionChangesBuilder()
+                .withIndex(index)
+                .withTasks(Arrays.asList(taskInfo(3, TaskStatus.InProgress, USER), taskInfo(1, TaskStatus.Completed, USER)))
+                .withIncrementalMode(true)
+                .withCache(publishedTasks)
+                .build();
+        assertTrue(changes.isEmpty());
+
+        // full synchronization, task 2 is no longer active.
+        changes = new SolutionChangesBuilder()
+                .withIndex(index)
+                .withTasks(Collections.singletonList(taskInfo(3, TaskStatus.InProgress, USER)))
+                .withCache(publishedTasks)
+                .build();
+        assertEquals(1, changes.size());
+        assertTrue(changes.get(0) instanceof RemoveTaskProblemFactChange);
+        assertEquals(2, ((RemoveTaskProblemFactChange) changes.get(0)).getTask().getId(), 0);
+        assertTrue(publishedTasks.isPublished(3L));
+    }
+
+    @Test
+    public void buildClaimOfSolverAssignedTaskTest() {
+        // the solver assigned both tasks to USER, but nothing was applied in the jBPM runtime yet.
+        TaskStateIndex index = new TaskStateIndex();
+        index.load(solution, taskId -> false);
+        List<ProblemFactChange<TaskAssigningSolution>> changes = new SolutionChangesBuilder()
+                .withIndex(index)
+                .withTasks(Collections.singletonList(taskInfo(1, TaskStatus.Reserved, USER)))
+                .withIncrementalMode(true)
+                .withCache(new PublishedTaskCache())
+                .build();
+        // the claim must be respected, so the task is pinned to the user.
+        assertEquals(1, changes.size());
+        assertTrue(changes.get(0) instanceof AssignTaskProblemFactChange);
+        assertEquals(1, ((AssignTaskProblemFactChange) changes.get(0)).getTask().getId(), 0);
+        assertEquals(USER, ((AssignTaskProblemFactChange) changes.get(0)).getUser().getEntityId());
+    }
+
+    @Test
+    public void buildDelegationOfPlannedTaskTest() {
+        TaskStateIndex index = new TaskStateIndex();
+        index.load(solution, taskId -> false);
+        // the SolutionProcessor records the planning before delegating the task, so the event produced by the
+        // delegation is known.
+        TaskPlanningInfo planningInfo = new TaskPlanningInfo("container", 2, 1);
+        planningInfo.getPlanningParameters().setAssignedUser(USER);
+        index.applyPlanning(Collections.singletonList(planningInfo));
+        List<ProblemFactChange<TaskAssigningSolution>> changes = new SolutionChangesBuilder()
+                .withIndex(index)
+                .withTasks(Collections.singletonList(taskInfo(2, TaskStatus.Reserved, USER)))
+                .withIncrementalMode(true)
+                .withCache(new PublishedTaskCache())
+                .build();
+        assertTrue(changes.isEmpty());
+    }
+
+    private static TaskInfo taskInfo(long taskId, TaskStatus status, String actualOwner) {
+        TaskInfo taskInfo = new TaskInfo();
+        taskInfo.setTaskId(taskId);
+        taskInfo.setName("Task" + taskId);
+        taskInfo.setStatus(status);
+        taskInfo.setActualOwner(actualOwner);
+        taskInfo.setPotentialOwners(new HashSet<>());
+        return taskInfo;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.User;
+import org.jbpm.task.assigning.model.solver.realtime.AssignTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.ReleaseTaskProblemFactChange;
+import org.jbpm.task.assigning.process.runtime.integration.client.ProcessRuntimeIntegrationClient;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskPlanningInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskPlanningResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SolutionProcessorTest {
+
+    private static final String CONTAINER_ID = "container";
+    private static final String USER = "user1";
+
+    @Mock
+    private ProcessRuntimeIntegrationClient runtimeClient;
+
+    private List<List<TaskPlanningInfo>> planningsToApply;
+    private BlockingQueue<SolutionProcessor.Result> results;
+    private SolutionProcessor processor;
+    private Thread processorThread;
+    private TaskAssigningSolution solution;
+
+    @Before
+    public void setUp() {
+        planningsToApply = new CopyOnWriteArrayList<>();
+        results = new ArrayBlockingQueue<>(10);
+        processor = new SolutionProcessor(runtimeClient, new SolverHandlerMetrics(), planningsToApply::add, results::add);
+        processorThread = new Thread(processor);
+        processorThread.start();
+
+        User user = new User(1, USER);
+        Task task1 = new Task(1, "Task1", 1);
+        task1.setContainerId(CONTAINER_ID);
+        task1.setUser(user);
+        Task task2 = new Task(2, "Task2", 1);
+        task2.setContainerId(CONTAINER_ID);
+        task2.setUser(user);
+        user.setNextTask(task1);
+        task1.setNextTask(task2);
+        solution = new TaskAssigningSolution(-1,
+                                             new ArrayList<>(Collections.singletonList(user)),
+                                             new ArrayList<>(Arrays.asList(task1, task2)));
+    }
+
+    @After
+    public void tearDown() {
+        processor.destroy();
+    }
+
+    @Test
+    public void planningIsInformedBeforeApplyingTest() throws Exception {
+        when(runtimeClient.applyPlanning(anyList(), anyString())).thenAnswer(invocation -> {
+            // the planning to apply must be known before any delegation is done.
+            assertEquals(1, planningsToApply.size());
+            assertEquals(invocation.getArgument(0), planningsToApply.get(0));
+            return Collections.emptyList();
+        });
+        SolutionProcessor.Result result = process();
+        assertFalse(result.hasError());
+        assertEquals(2, planningsToApply.get(0).size());
+        assertEquals(USER, planningsToApply.get(0).get(0).getPlanningParameters().getAssignedUser());
+    }
+
+    @Test
+    public void skippedTasksAreNotSentAgainTest() throws Exception {
+        when(runtimeClient.applyPlanning(anyList(), anyString()))
+                .thenReturn(Arrays.asList(new TaskPlanningResult(1, CONTAINER_ID, TaskPlanningResult.Status.APPLIED),
+                                          new TaskPlanningResult(2, CONTAINER_ID, TaskPlanningResult.Status.SKIPPED)));
+
+        SolutionProcessor.Result result = process();
+        assertFalse(result.hasError());
+        assertEquals(1, result.getAppliedPlanningInfos().size());
+        assertEquals(1, result.getAppliedPlanningInfos().get(0).getTaskId(), 0);
+        // the skipped task is still reported, so that the assignment known for it can be reconciled.
+        assertEquals(2, result.getPlanningResults().size());
+        assertEquals(TaskPlanningResult.Status.SKIPPED, result.getPlanningResults().get(1).getStatus());
+
+        // nothing changed for any of the tasks, so the second solution must not reach the runtime.
+        result = process();
+        assertFalse(result.hasError());
+        assertEquals(0, result.getAppliedPlanningInfos().size());
+        assertEquals(0, result.getPlanningResults().size());
+        verify(runtimeClient, times(1)).applyPlanning(anyList(), anyString());
+    }
+
+    @Test
+    public void failedTasksAreSentAgainTest() throws Exception {
+        when(runtimeClient.applyPlanning(anyList(), anyString()))
+                .thenReturn(Arrays.asList(new TaskPlanningResult(1, CONTAINER_ID, TaskPlanningResult.Status.APPLIED),
+                                          new TaskPlanningResult(2, CONTAINER_ID, TaskPlanningResult.Status.ERROR, new Exception("error"))),
+                            Collections.singletonList(new TaskPlanningResult(2, CONTAINER_ID, TaskPlanningResult.Status.APPLIED)));
+
+        process();
+        SolutionProcessor.Result result = process();
+        assertEquals(1, result.getAppliedPlanningInfos().size());
+        assertEquals(2, result.getAppliedPlanningInfos().get(0).getTaskId(), 0);
+
+        ArgumentCaptor<List> planningInfosCaptor = ArgumentCaptor.forClass(List.class);
+        verify(runtimeClient, times(2)).applyPlanning(planningInfosCaptor.capture(), anyString());
+        List<TaskPlanningInfo> secondPlanningInfos = planningInfosCaptor.getAllValues().get(1);
+        assertEquals(1, secondPlanningInfos.size());
+        assertEquals(2, secondPlanningInfos.get(0).getTaskId(), 0);
+    }
+
+    @Test
+    public void externallyChangedTasksAreSentAgainTest() throws Exception {
+        when(runtimeClient.applyPlanning(anyList(), anyString()))
+                .thenReturn(Arrays.asList(new TaskPlanningResult(1, CONTAINER_ID, TaskPlanningResult.Status.APPLIED),
+                                          new TaskPlanningResult(2, CONTAINER_ID, TaskPlanningResult.Status.APPLIED)),
+                            Arrays.asList(new TaskPlanningResult(1, CONTAINER_ID, TaskPlanningResult.Status.APPLIED),
+                                          new TaskPlanningResult(2, CONTAINER_ID, TaskPlanningResult.Status.APPLIED)));
+        process();
+
+        // the tasks were released and reassigned in the jBPM runtime, and the solver proposes the same planning again.
+        processor.evictAppliedPlanning(Arrays.asList(new ReleaseTaskProblemFactChange(1),
+                                                     new AssignTaskProblemFactChange(new Task(2, "Task2", 1), new User(2, "user2"))));
+        SolutionProcessor.Result result = process();
+        assertEquals(2, result.getAppliedPlanningInfos().size());
+
+        ArgumentCaptor<List> planningInfosCaptor = ArgumentCaptor.forClass(List.class);
+        verify(runtimeClient, times(2)).applyPlanning(planningInfosCaptor.capture(), anyString());
+        assertEquals(2, planningInfosCaptor.getAllValues().get(1).size());
+
+        // once applied again the tasks are unchanged.
+        result = process();
+        assertEquals(0, result.getAppliedPlanningInfos().size());
+        verify(runtimeClient, times(2)).applyPlanning(anyList(), anyString());
+    }
+
+    private SolutionProcessor.Result process() throws InterruptedException {
+        processor.process(solution, new PublishedTaskCache().snapshot());
+        return results.poll(10, TimeUnit.SECONDS);
+    }
+}
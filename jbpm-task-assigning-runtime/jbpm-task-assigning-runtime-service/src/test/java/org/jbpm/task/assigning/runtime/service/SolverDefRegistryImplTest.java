@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.runtime.service;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.jbpm.task.assigning.runtime.service.SolverDefRegistryImpl.PERFORMANCE_PROFILE;
+import static org.jbpm.task.assigning.runtime.service.SolverDefRegistryImpl.TASK_ASSIGNING_SOLVER_CONFIG;
+import static org.junit.Assert.assertEquals;
+
+public class SolverDefRegistryImplTest {
+
+    @After
+    public void cleanUp() {
+        System.clearProperty(TASK_ASSIGNING_SOLVER_CONFIG);
+    }
+
+    @Test
+    public void initDefaultProfileTest() {
+        assertSolverConfigFile("taskAssigningSolverConfig.xml");
+    }
+
+    @Test
+    public void initPerformanceProfileTest() {
+        System.setProperty(TASK_ASSIGNING_SOLVER_CONFIG, PERFORMANCE_PROFILE);
+        assertSolverConfigFile("taskAssigningSolverConfigPerformance.xml");
+    }
+
+    @Test
+    public void initSolverConfigFileTest() {
+        System.setProperty(TASK_ASSIGNING_SOLVER_CONFIG, "myCustomSolverConfig.xml");
+        assertSolverConfigFile("myCustomSolverConfig.xml");
+    }
+
+    private static void assertSolverConfigFile(String expectedFile) {
+        SolverDefRegistryImpl registry = new SolverDefRegistryImpl();
+        registry.init();
+        assertEquals(expectedFile, registry.getSolverDef().getSolverConfigFile());
+    }
+}
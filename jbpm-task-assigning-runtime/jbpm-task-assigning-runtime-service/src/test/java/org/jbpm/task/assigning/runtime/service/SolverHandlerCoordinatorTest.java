@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SolverHandlerCoordinatorTest {
+
+    private SolverHandlerCoordinator coordinator;
+    private Thread coordinatorThread;
+
+    @Before
+    public void setUp() {
+        coordinator = new SolverHandlerCoordinator();
+        coordinatorThread = new Thread(coordinator);
+        coordinatorThread.start();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        coordinator.destroy();
+        coordinatorThread.join(5000);
+    }
+
+    @Test
+    public void actionsAreExecutedInOrderTest() {
+        List<String> executionThreads = new CopyOnWriteArrayList<>();
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final int index = i;
+            coordinator.post(() -> {
+                executed.add(index);
+                executionThreads.add(Thread.currentThread().getName());
+            });
+        }
+        coordinator.submit(() -> {
+        }).join();
+        assertEquals(100, executed.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, executed.get(i), 0);
+            assertEquals(coordinatorThread.getName(), executionThreads.get(i));
+        }
+    }
+
+    @Test
+    public void failedActionTest() {
+        CompletableFuture<Void> future = coordinator.submit(() -> {
+            throw new IllegalStateException("failed");
+        });
+        try {
+            future.join();
+            fail("the action failure must be propagated");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        // the coordinator continues working after a failed action.
+        coordinator.post(() -> {
+            throw new IllegalStateException("failed");
+        });
+        coordinator.submit(() -> {
+        }).join();
+    }
+
+    @Test
+    public void submitAfterDestroyTest() {
+        coordinator.destroy();
+        assertTrue(coordinator.submit(() -> {
+        }).isCompletedExceptionally());
+    }
+}
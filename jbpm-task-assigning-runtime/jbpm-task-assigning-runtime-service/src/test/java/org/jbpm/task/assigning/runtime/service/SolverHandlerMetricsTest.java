@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.solver.realtime.AddTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.RemoveTaskProblemFactChange;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.optaplanner.core.api.score.buildin.bendable.BendableScore;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SolverHandlerMetricsTest {
+
+    private SolverHandlerMetrics metrics;
+
+    @Before
+    public void setUp() {
+        metrics = new SolverHandlerMetrics();
+    }
+
+    @After
+    public void tearDown() {
+        metrics.unregister();
+    }
+
+    @Test
+    public void recordProblemFactChangesTest() {
+        List<ProblemFactChange<TaskAssigningSolution>> changes = Arrays.asList(new AddTaskProblemFactChange(new Task(1, "Task1", 1)),
+                                                                               new AddTaskProblemFactChange(new Task(2, "Task2", 1)),
+                                                                               new RemoveTaskProblemFactChange(new Task(3, "Task3", 1)));
+        metrics.recordProblemFactChanges(changes);
+        metrics.recordProblemFactChanges(Collections.singletonList(new AddTaskProblemFactChange(new Task(4, "Task4", 1))));
+
+        assertEquals(1, metrics.getLastSyncProblemFactChanges().size());
+        assertEquals(1, metrics.getLastSyncProblemFactChanges().get("AddTaskProblemFactChange"), 0);
+        assertEquals(3, metrics.getProblemFactChanges().get("AddTaskProblemFactChange"), 0);
+        assertEquals(1, metrics.getProblemFactChanges().get("RemoveTaskProblemFactChange"), 0);
+    }
+
+    @Test
+    public void recordBestSolutionTest() {
+        metrics.recordBestSolution(BendableScore.of(new int[]{-1}, new int[]{0, -2, 0, 0, 0}), true);
+        assertEquals(1, metrics.getBestSolutionEventCount());
+        assertEquals(1, metrics.getBestSolutionEventsPerMinute());
+        assertArrayEquals(new int[]{-1}, metrics.getLastBestHardScores());
+        assertArrayEquals(new int[]{0, -2, 0, 0, 0}, metrics.getLastBestSoftScores());
+        // no changes were submitted.
+        assertEquals(0, metrics.getProblemFactChangeToBestSolutionDuration().getCount());
+    }
+
+    @Test
+    public void recordProblemFactChangeToBestSolutionTest() {
+        metrics.recordProblemFactChanges(Collections.singletonList(new AddTaskProblemFactChange(new Task(1, "Task1", 1))));
+        metrics.recordBestSolution(null, false);
+        assertEquals(0, metrics.getProblemFactChangeToBestSolutionDuration().getCount());
+        metrics.recordBestSolution(null, true);
+        assertEquals(1, metrics.getProblemFactChangeToBestSolutionDuration().getCount());
+        metrics.recordBestSolution(null, true);
+        assertEquals(1, metrics.getProblemFactChangeToBestSolutionDuration().getCount());
+    }
+
+    @Test
+    public void recordDurationsTest() {
+        metrics.recordSync(2_000_000, 10);
+        metrics.recordSync(4_000_000, 20);
+        metrics.recordRuntimeClientCall("findTasks", 1_000_000);
+        metrics.recordDroppedSolution();
+        metrics.recordPublishedTaskCount(5);
+
+        DurationStatistics syncDuration = metrics.getSyncDuration();
+        assertEquals(2, syncDuration.getCount());
+        assertEquals(4, syncDuration.getLastMillis(), 0);
+        assertEquals(4, syncDuration.getMaxMillis(), 0);
+        assertEquals(3, syncDuration.getAverageMillis(), 0);
+        assertEquals(20, metrics.getLastSyncTaskCount());
+        assertEquals(1, metrics.getRuntimeClientCallDuration().get("findTasks").getCount());
+        assertEquals(1, metrics.getDroppedSolutionCount());
+        assertEquals(5, metrics.getPublishedTaskCount());
+
+        metrics.reset();
+        assertEquals(0, metrics.getSyncDuration().getCount());
+        assertTrue(metrics.getRuntimeClientCallDuration().isEmpty());
+        assertEquals(0, metrics.getDroppedSolutionCount());
+        assertEquals(0, metrics.getPublishedTaskCount());
+    }
+
+    @Test
+    public void registerTest() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(SolverHandlerMetrics.OBJECT_NAME);
+        metrics.register();
+        metrics.recordDroppedSolution();
+        assertTrue(server.isRegistered(name));
+        assertEquals(1L, server.getAttribute(name, "DroppedSolutionCount"));
+        metrics.unregister();
+        assertFalse(server.isRegistered(name));
+    }
+}
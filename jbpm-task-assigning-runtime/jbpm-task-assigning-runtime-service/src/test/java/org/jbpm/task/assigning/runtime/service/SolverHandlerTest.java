@@ -38,7 +38,8 @@ public class SolverHandlerTest {
         SolverHandler solverHandler = new SolverHandler(solverDefRegistry.getSolverDef(),
                                                         runtimeClient,
                                                         userSystemService,
-                                                        null);
+                                                        null,
+                                                        new TaskEventQueue());
 
         solverHandler.init();
         solverHandler.start();
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingQuantileTest {
+
+    @Test
+    public void emptyTest() {
+        assertTrue(Double.isNaN(new StreamingQuantile(0.5).getValue()));
+    }
+
+    @Test
+    public void fewValuesTest() {
+        StreamingQuantile median = new StreamingQuantile(0.5);
+        median.add(7);
+        median.add(1);
+        median.add(3);
+        assertEquals(3, median.getValue(), 0);
+        assertEquals(3, median.getCount());
+    }
+
+    @Test
+    public void uniformValuesTest() {
+        assertQuantile(0.5, new Random(1234), 10000);
+        assertQuantile(0.9, new Random(1234), 10000);
+    }
+
+    private static void assertQuantile(double quantile, Random random, int size) {
+        StreamingQuantile streamingQuantile = new StreamingQuantile(quantile);
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextInt(1000);
+            streamingQuantile.add(values[i]);
+        }
+        Arrays.sort(values);
+        double expected = values[(int) (quantile * (size - 1))];
+        // the estimation error is expected to be within the 2% of the range.
+        assertEquals(expected, streamingQuantile.getValue(), 20);
+    }
+}
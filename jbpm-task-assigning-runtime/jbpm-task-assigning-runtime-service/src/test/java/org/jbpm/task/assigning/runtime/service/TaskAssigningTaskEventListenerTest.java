@@ -0,0 +1,196 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.kie.api.task.TaskEvent;
+import org.kie.api.task.model.Task;
+import org.kie.api.task.model.TaskData;
+import org.kie.api.task.model.User;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TaskAssigningTaskEventListenerTest {
+
+    private static final long TASK_ID = 1;
+    private static final String USER = "user1";
+    private static final String CONTAINER_ID = "container";
+
+    @Mock
+    private TaskEvent event;
+
+    @Mock
+    private Task task;
+
+    @Mock
+    private TaskData taskData;
+
+    @Mock
+    private User actualOwner;
+
+    private TaskEventQueue queue;
+    private TransactionRegistry transactionRegistry;
+    private TaskAssigningTaskEventListener listener;
+
+    @Before
+    public void setUp() {
+        queue = new TaskEventQueue(10);
+        transactionRegistry = new TransactionRegistry();
+        listener = new TaskAssigningTaskEventListener(queue, transactionRegistry);
+        when(event.getTask()).thenReturn(task);
+        when(task.getId()).thenReturn(TASK_ID);
+        when(task.getName()).thenReturn("Task1");
+        when(task.getTaskData()).thenReturn(taskData);
+        when(taskData.getStatus()).thenReturn(org.kie.api.task.model.Status.Reserved);
+        when(taskData.getActualOwner()).thenReturn(actualOwner);
+        when(taskData.getDeploymentId()).thenReturn(CONTAINER_ID);
+        when(actualOwner.getId()).thenReturn(USER);
+    }
+
+    @Test
+    public void eventIsQueuedOnCommitTest() throws InterruptedException {
+        listener.afterTaskClaimedEvent(event);
+        // nothing is visible until the transaction is committed.
+        assertEquals(0, queue.size());
+        transactionRegistry.complete(Status.STATUS_COMMITTED);
+        TaskInfo taskInfo = queue.poll(1, TimeUnit.MILLISECONDS);
+        assertEquals(TASK_ID, taskInfo.getTaskId(), 0);
+        assertEquals(TaskStatus.Reserved, taskInfo.getStatus());
+        assertEquals(USER, taskInfo.getActualOwner());
+        assertEquals(CONTAINER_ID, taskInfo.getContainerId());
+    }
+
+    @Test
+    public void eventIsDiscardedOnRollbackTest() {
+        listener.afterTaskClaimedEvent(event);
+        transactionRegistry.complete(Status.STATUS_ROLLEDBACK);
+        assertEquals(0, queue.size());
+        assertEquals(0, queue.getLastEventTime());
+    }
+
+    @Test
+    public void lastEventOfTaskIsQueuedTest() throws InterruptedException {
+        listener.afterTaskClaimedEvent(event);
+        when(taskData.getStatus()).thenReturn(org.kie.api.task.model.Status.InProgress);
+        listener.afterTaskStartedEvent(event);
+        // a single synchronization is registered per transaction.
+        assertEquals(1, transactionRegistry.synchronizations.size());
+        transactionRegistry.complete(Status.STATUS_COMMITTED);
+        assertEquals(1, queue.size());
+        assertEquals(TaskStatus.InProgress, queue.poll(1, TimeUnit.MILLISECONDS).getStatus());
+    }
+
+    @Test
+    public void eventIsQueuedWithoutTransactionTest() {
+        transactionRegistry.status = Status.STATUS_NO_TRANSACTION;
+        listener.afterTaskClaimedEvent(event);
+        assertEquals(1, queue.size());
+        assertEquals(0, transactionRegistry.synchronizations.size());
+    }
+
+    @Test
+    public void createdTaskIsIgnoredTest() {
+        when(taskData.getStatus()).thenReturn(org.kie.api.task.model.Status.Created);
+        listener.afterTaskAddedEvent(event);
+        transactionRegistry.complete(Status.STATUS_COMMITTED);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void toTaskInfoTest() {
+        when(task.getPriority()).thenReturn(5);
+        when(taskData.getProcessId()).thenReturn("process");
+        TaskInfo taskInfo = TaskAssigningTaskEventListener.toTaskInfo(task);
+        assertEquals(TASK_ID, taskInfo.getTaskId(), 0);
+        assertEquals("Task1", taskInfo.getName());
+        assertEquals(5, taskInfo.getPriority(), 0);
+        assertEquals("process", taskInfo.getProcessId());
+        assertEquals(0, taskInfo.getPotentialOwners().size());
+        assertNull(taskInfo.getDueDate());
+    }
+
+    /**
+     * Registry for a single transaction.
+     */
+    private static class TransactionRegistry implements TransactionSynchronizationRegistry {
+
+        private int status = Status.STATUS_ACTIVE;
+        private final Map<Object, Object> resources = new HashMap<>();
+        private final List<Synchronization> synchronizations = new ArrayList<>();
+
+        private void complete(int completionStatus) {
+            synchronizations.forEach(Synchronization::beforeCompletion);
+            status = completionStatus;
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(completionStatus));
+        }
+
+        @Override
+        public Object getTransactionKey() {
+            return this;
+        }
+
+        @Override
+        public void putResource(Object key, Object value) {
+            resources.put(key, value);
+        }
+
+        @Override
+        public Object getResource(Object key) {
+            return resources.get(key);
+        }
+
+        @Override
+        public void registerInterposedSynchronization(Synchronization synchronization) {
+            synchronizations.add(synchronization);
+        }
+
+        @Override
+        public int getTransactionStatus() {
+            return status;
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            status = Status.STATUS_MARKED_ROLLBACK;
+        }
+
+        @Override
+        public boolean getRollbackOnly() {
+            return status == Status.STATUS_MARKED_ROLLBACK;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.time.LocalDateTime;
+
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskStatus;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TaskDurationEstimatesTest {
+
+    private static final String PROCESS_ID = "PROCESS_ID";
+    private static final String TASK_NAME = "TASK_NAME";
+
+    @Test
+    public void estimateWithNoHistoryTest() {
+        TaskDurationEstimates estimates = new TaskDurationEstimates();
+        assertEquals(TaskDurationEstimates.DEFAULT_DURATION, estimates.estimate(PROCESS_ID, TASK_NAME));
+        assertEquals(TaskDurationEstimates.DEFAULT_DURATION, estimates.estimate(null, null));
+    }
+
+    @Test
+    public void recordCompletionTest() {
+        TaskDurationEstimates estimates = new TaskDurationEstimates();
+        estimates.recordCompletion(mockTaskInfo(TaskStatus.Completed, PROCESS_ID, TASK_NAME, 10));
+        estimates.recordCompletion(mockTaskInfo(TaskStatus.Completed, PROCESS_ID, TASK_NAME, 20));
+        estimates.recordCompletion(mockTaskInfo(TaskStatus.Completed, PROCESS_ID, "OTHER_TASK", 100));
+        assertEquals(15, estimates.estimate(PROCESS_ID, TASK_NAME));
+        assertEquals(100, estimates.estimate(PROCESS_ID, "OTHER_TASK"));
+    }
+
+    @Test
+    public void recordCompletionNotCompletedTest() {
+        TaskDurationEstimates estimates = new TaskDurationEstimates();
+        estimates.recordCompletion(mockTaskInfo(TaskStatus.Exited, PROCESS_ID, TASK_NAME, 10));
+        TaskInfo noActivationTime = mockTaskInfo(TaskStatus.Completed, PROCESS_ID, TASK_NAME, 10);
+        noActivationTime.setActivationTime(null);
+        estimates.recordCompletion(noActivationTime);
+        assertEquals(TaskDurationEstimates.DEFAULT_DURATION, estimates.estimate(PROCESS_ID, TASK_NAME));
+    }
+
+    @Test
+    public void movingAverageTest() {
+        TaskDurationEstimates estimates = new TaskDurationEstimates(10, 0.5, false, TaskDurationEstimates.Estimate.MEAN);
+        estimates.recordCompletion(mockTaskInfo(TaskStatus.Completed, PROCESS_ID, TASK_NAME, 10));
+        estimates.recordCompletion(mockTaskInfo(TaskStatus.Completed, PROCESS_ID, TASK_NAME, 20));
+        assertEquals(15, estimates.estimate(PROCESS_ID, TASK_NAME));
+        // from here on the recent completions weight more.
+        estimates.recordCompletion(mockTaskInfo(TaskStatus.Completed, PROCESS_ID, TASK_NAME, 45));
+        assertEquals(30, estimates.estimate(PROCESS_ID, TASK_NAME));
+    }
+
+    @Test
+    public void quantileEstimatesTest() {
+        TaskDurationEstimates median = new TaskDurationEstimates(10, 0.1, false, TaskDurationEstimates.Estimate.MEDIAN);
+        TaskDurationEstimates p90 = new TaskDurationEstimates(10, 0.1, false, TaskDurationEstimates.Estimate.P90);
+        for (int minutes : new int[]{10, 12, 11, 500, 9}) {
+            median.recordCompletion(mockTaskInfo(TaskStatus.Completed, PROCESS_ID, TASK_NAME, minutes));
+            p90.recordCompletion(mockTaskInfo(TaskStatus.Completed, PROCESS_ID, TASK_NAME, minutes));
+        }
+        assertEquals(11, median.estimate(PROCESS_ID, TASK_NAME));
+        assertEquals(500, p90.estimate(PROCESS_ID, TASK_NAME));
+    }
+
+    @Test
+    public void perUserTest() {
+        TaskDurationEstimates estimates = new TaskDurationEstimates(10, 0.1, true, TaskDurationEstimates.Estimate.MEAN);
+        for (int i = 0; i < TaskDurationEstimates.MIN_USER_COMPLETIONS; i++) {
+            estimates.recordCompletion(mockTaskInfo(TaskStatus.Completed, PROCESS_ID, TASK_NAME, 10, "user1"));
+            estimates.recordCompletion(mockTaskInfo(TaskStatus.Completed, PROCESS_ID, TASK_NAME, 30, "user2"));
+        }
+        estimates.recordCompletion(mockTaskInfo(TaskStatus.Completed, PROCESS_ID, TASK_NAME, 50, "user3"));
+        assertEquals(10, estimates.estimate(PROCESS_ID, TASK_NAME, "user1"));
+        assertEquals(30, estimates.estimate(PROCESS_ID, TASK_NAME, "user2"));
+        // not enough completions for user3, the statistics of all the users are used.
+        int allUsers = estimates.estimate(PROCESS_ID, TASK_NAME);
+        assertEquals(allUsers, estimates.estimate(PROCESS_ID, TASK_NAME, "user3"));
+        assertEquals(allUsers, estimates.estimate(PROCESS_ID, TASK_NAME, null));
+    }
+
+    @Test
+    public void maxSizeTest() {
+        TaskDurationEstimates estimates = new TaskDurationEstimates(2, 0.1, false, TaskDurationEstimates.Estimate.MEAN);
+        estimates.recordCompletion(mockTaskInfo(TaskStatus.Completed, PROCESS_ID, "TASK1", 10));
+        estimates.recordCompletion(mockTaskInfo(TaskStatus.Completed, PROCESS_ID, "TASK2", 20));
+        // TASK1 becomes the most recently used.
+        assertEquals(10, estimates.estimate(PROCESS_ID, "TASK1"));
+        estimates.recordCompletion(mockTaskInfo(TaskStatus.Completed, PROCESS_ID, "TASK3", 30));
+        assertEquals(2, estimates.size());
+        assertEquals(10, estimates.estimate(PROCESS_ID, "TASK1"));
+        assertEquals(TaskDurationEstimates.DEFAULT_DURATION, estimates.estimate(PROCESS_ID, "TASK2"));
+        assertEquals(30, estimates.estimate(PROCESS_ID, "TASK3"));
+    }
+
+    private static TaskInfo mockTaskInfo(TaskStatus status, String processId, String name, int minutes, String actualOwner) {
+        TaskInfo taskInfo = mockTaskInfo(status, processId, name, minutes);
+        taskInfo.setActualOwner(actualOwner);
+        return taskInfo;
+    }
+
+    private static TaskInfo mockTaskInfo(TaskStatus status, String processId, String name, int minutes) {
+        TaskInfo taskInfo = new TaskInfo();
+        LocalDateTime activationTime = LocalDateTime.now();
+        taskInfo.setStatus(status);
+        taskInfo.setProcessId(processId);
+        taskInfo.setName(name);
+        taskInfo.setActivationTime(activationTime);
+        taskInfo.setLastModificationDate(activationTime.plusMinutes(minutes));
+        return taskInfo;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskInfo;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TaskEventQueueTest {
+
+    private TaskEventQueue queue;
+
+    @Before
+    public void setUp() {
+        queue = new TaskEventQueue(2);
+    }
+
+    @Test
+    public void offerAndPollTest() throws InterruptedException {
+        assertEquals(0, queue.getLastEventTime());
+        TaskInfo taskInfo1 = taskInfo(1);
+        TaskInfo taskInfo2 = taskInfo(2);
+        long before = System.currentTimeMillis();
+        assertTrue(queue.offer(taskInfo1));
+        assertTrue(queue.offer(taskInfo2));
+        assertTrue(queue.getLastEventTime() >= before);
+        assertSame(taskInfo1, queue.poll(1, TimeUnit.MILLISECONDS));
+        List<TaskInfo> result = new ArrayList<>();
+        assertEquals(1, queue.drainTo(result, 10));
+        assertSame(taskInfo2, result.get(0));
+        assertNull(queue.poll(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void overflowTest() {
+        assertTrue(queue.offer(taskInfo(1)));
+        assertTrue(queue.offer(taskInfo(2)));
+        assertFalse(queue.checkAndResetOverflow());
+        assertFalse(queue.offer(taskInfo(3)));
+        assertEquals(2, queue.size());
+        assertTrue(queue.checkAndResetOverflow());
+        assertFalse(queue.checkAndResetOverflow());
+    }
+
+    @Test
+    public void clearTest() {
+        queue.offer(taskInfo(1));
+        queue.clear();
+        assertEquals(0, queue.size());
+        // the events were received anyway.
+        assertTrue(queue.getLastEventTime() > 0);
+    }
+
+    @Test
+    public void queuesAreIndependentTest() {
+        TaskEventQueue otherQueue = new TaskEventQueue(1);
+        queue.offer(taskInfo(1));
+        assertEquals(0, otherQueue.size());
+        assertEquals(0, otherQueue.getLastEventTime());
+    }
+
+    private static TaskInfo taskInfo(long taskId) {
+        TaskInfo taskInfo = new TaskInfo();
+        taskInfo.setTaskId(taskId);
+        return taskInfo;
+    }
+}
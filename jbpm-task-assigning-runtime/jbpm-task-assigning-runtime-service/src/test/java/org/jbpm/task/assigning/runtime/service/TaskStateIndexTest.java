@@ -0,0 +1,188 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jbpm.task.assigning.runtime.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.jbpm.task.assigning.model.Task;
+import org.jbpm.task.assigning.model.TaskAssigningSolution;
+import org.jbpm.task.assigning.model.User;
+import org.jbpm.task.assigning.model.solver.realtime.AddTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.AssignTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.ReleaseTaskProblemFactChange;
+import org.jbpm.task.assigning.model.solver.realtime.RemoveTaskProblemFactChange;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskPlanningInfo;
+import org.jbpm.task.assigning.process.runtime.integration.client.TaskPlanningResult;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.jbpm.task.assigning.runtime.service.SolutionBuilder.DUMMY_TASK;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TaskStateIndexTest {
+
+    private static final String USER1 = "user1";
+    private static final String USER2 = "user2";
+
+    private User user1;
+    private User user2;
+    private TaskAssigningSolution solution;
+    private TaskStateIndex index;
+
+    @Before
+    public void setUp() {
+        user1 = new User(1, USER1);
+        user2 = new User(2, USER2);
+        Task task1 = new Task(1, "Task1", 1);
+        task1.setUser(user1);
+        task1.setPinned(true);
+        Task task2 = new Task(2, "Task2", 1);
+        solution = new TaskAssigningSolution(-1,
+                                                                   new ArrayList<>(Arrays.asList(user1, user2)),
+                                                                   new ArrayList<>(Arrays.asList(task1, task2, DUMMY_TASK)));
+        index = new TaskStateIndex();
+        assertFalse(index.isLoaded());
+        index.load(solution, taskId -> false);
+    }
+
+    @Test
+    public void loadTest() {
+        assertTrue(index.isLoaded());
+        assertEquals(2, index.getTaskCount());
+        assertEquals(USER1, index.getTask(1).getAssignedUser());
+        assertNull(index.getTask(2).getAssignedUser());
+        assertNull(index.getTask(DUMMY_TASK.getId()));
+        assertSame(user2, index.getUser(USER2));
+        assertNull(index.getUser(null));
+    }
+
+    @Test
+    public void loadSolverAssignmentsTest() {
+        Task task3 = new Task(3, "Task3", 1);
+        task3.setUser(user2);
+        Task task4 = new Task(4, "Task4", 1);
+        task4.setUser(user2);
+        solution.getTaskList().add(task3);
+        solution.getTaskList().add(task4);
+        index.load(solution, taskId -> taskId == 4);
+        assertEquals(4, index.getTaskCount());
+        // pinned task.
+        assertEquals(USER1, index.getTask(1).getAssignedUser());
+        // assigned by the solver only.
+        assertNull(index.getTask(3).getAssignedUser());
+        // published task.
+        assertEquals(USER2, index.getTask(4).getAssignedUser());
+    }
+
+    @Test
+    public void invalidateTest() {
+        index.invalidate();
+        assertFalse(index.isLoaded());
+        assertEquals(0, index.getTaskCount());
+        assertNull(index.getUser(USER1));
+        index.load(solution, taskId -> false);
+        assertTrue(index.isLoaded());
+        assertEquals(2, index.getTaskCount());
+    }
+
+    @Test
+    public void applyTest() {
+        Task task3 = new Task(3, "Task3", 1);
+        Task task4 = new Task(4, "Task4", 1);
+        index.apply(Arrays.asList(new AddTaskProblemFactChange(task3),
+                                  new AssignTaskProblemFactChange(task4, user2),
+                                  new AssignTaskProblemFactChange(new Task(2, "Task2", 1), user1),
+                                  new ReleaseTaskProblemFactChange(1),
+                                  new RemoveTaskProblemFactChange(task3)));
+        assertEquals(3, index.getTaskCount());
+        assertNull(index.getTask(1).getAssignedUser());
+        assertEquals(USER1, index.getTask(2).getAssignedUser());
+        assertNull(index.getTask(3));
+        assertSame(task4, index.getTask(4).getTask());
+        assertEquals(USER2, index.getTask(4).getAssignedUser());
+    }
+
+    @Test
+    public void applyPlanningTest() {
+        TaskPlanningInfo planningInfo1 = new TaskPlanningInfo("container", 1, 1);
+        planningInfo1.getPlanningParameters().setAssignedUser(USER2);
+        TaskPlanningInfo planningInfo5 = new TaskPlanningInfo("container", 5, 1);
+        planningInfo5.getPlanningParameters().setAssignedUser(USER2);
+        index.applyPlanning(Arrays.asList(planningInfo1, planningInfo5));
+        assertEquals(USER2, index.getTask(1).getAssignedUser());
+        assertNull(index.getTask(5));
+        index.applyPlanning(Collections.emptyList());
+        assertEquals(2, index.getTaskCount());
+    }
+
+    @Test
+    public void reconcilePlanningTest() {
+        index.apply(Collections.singletonList(new AssignTaskProblemFactChange(new Task(3, "Task3", 1), user1)));
+        index.applyPlanning(Arrays.asList(planningInfo(1, USER2), planningInfo(2, USER2), planningInfo(3, USER2)));
+        assertEquals(USER2, index.getTask(1).getAssignedUser());
+        assertEquals(USER2, index.getTask(2).getAssignedUser());
+        assertEquals(USER2, index.getTask(3).getAssignedUser());
+
+        index.reconcilePlanning(Arrays.asList(new TaskPlanningResult(1, "container", TaskPlanningResult.Status.APPLIED),
+                                              new TaskPlanningResult(2, "container", TaskPlanningResult.Status.ERROR, new Exception("error")),
+                                              new TaskPlanningResult(3, "container", TaskPlanningResult.Status.SKIPPED)));
+        assertEquals(USER2, index.getTask(1).getAssignedUser());
+        // the tasks that weren't delegated get back the user they had in the jBPM runtime.
+        assertNull(index.getTask(2).getAssignedUser());
+        assertEquals(USER1, index.getTask(3).getAssignedUser());
+
+        // reconciled assignments are not restored again.
+        index.rollbackPlanning();
+        assertEquals(USER2, index.getTask(1).getAssignedUser());
+    }
+
+    @Test
+    public void reconcilePlanningKeepsSynchronizedAssignmentsTest() {
+        index.applyPlanning(Collections.singletonList(planningInfo(2, USER2)));
+        // the task was claimed by another user before the planning results were received.
+        index.apply(Collections.singletonList(new AssignTaskProblemFactChange(new Task(2, "Task2", 1), user1)));
+        index.reconcilePlanning(Collections.singletonList(new TaskPlanningResult(2, "container", TaskPlanningResult.Status.SKIPPED)));
+        assertEquals(USER1, index.getTask(2).getAssignedUser());
+    }
+
+    @Test
+    public void rollbackPlanningTest() {
+        index.applyPlanning(Collections.singletonList(planningInfo(1, USER2)));
+        // a second planning before the first one was reconciled.
+        index.applyPlanning(Arrays.asList(planningInfo(1, "user3"), planningInfo(2, USER1)));
+        index.rollbackPlanning();
+        assertEquals(USER1, index.getTask(1).getAssignedUser());
+        assertNull(index.getTask(2).getAssignedUser());
+
+        index.applyPlanning(Collections.singletonList(planningInfo(2, USER2)));
+        index.rollbackPlanning();
+        assertNull(index.getTask(2).getAssignedUser());
+    }
+
+    private static TaskPlanningInfo planningInfo(long taskId, String assignedUser) {
+        TaskPlanningInfo planningInfo = new TaskPlanningInfo("container", taskId, 1);
+        planningInfo.getPlanningParameters().setAssignedUser(assignedUser);
+        return planningInfo;
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.jbpm.task.assigning.user.system.integration;
 
+import java.util.Map;
 import java.util.Set;
 
 public interface User {
@@ -24,4 +25,9 @@ public interface User {
 
     Set<Group> getGroups();
 
+    /**
+     * @return the user attributes, e.g. the skills or affinities of the user. Never null.
+     */
+    Map<String, Object> getAttributes();
+
 }
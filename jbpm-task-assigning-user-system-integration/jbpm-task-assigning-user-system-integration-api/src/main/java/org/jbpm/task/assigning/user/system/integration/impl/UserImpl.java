@@ -16,7 +16,9 @@
 
 package org.jbpm.task.assigning.user.system.integration.impl;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.jbpm.task.assigning.user.system.integration.Group;
@@ -26,14 +28,20 @@ public class UserImpl implements User {
 
     private String id;
     private Set<Group> groups;
+    private Map<String, Object> attributes;
 
     public UserImpl(String id) {
         this(id, new HashSet<>());
     }
 
     public UserImpl(String id, Set<Group> groups) {
+        this(id, groups, new HashMap<>());
+    }
+
+    public UserImpl(String id, Set<Group> groups, Map<String, Object> attributes) {
         this.id = id;
         this.groups = groups;
+        this.attributes = attributes;
     }
 
     @Override
@@ -45,4 +53,9 @@ public class UserImpl implements User {
     public Set<Group> getGroups() {
         return groups;
     }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
 }
@@ -30,6 +30,10 @@ import org.slf4j.LoggerFactory;
 public class WildflyUserSystemService implements UserSystemService {
 
     private static final String WF_ROLES_FILE = "/roles.properties";
+    /**
+     * Optional file with the users attributes, e.g. the skills.
+     */
+    private static final String USER_ATTRIBUTES_FILE = "/user-attributes.properties";
     private static final Logger LOGGER = LoggerFactory.getLogger(WildflyUserSystemService.class);
 
     WildflyUtil.UserGroupInfo userGroupInfo;
@@ -37,6 +41,7 @@ public class WildflyUserSystemService implements UserSystemService {
     public WildflyUserSystemService() {
         try {
             userGroupInfo = WildflyUtil.buildWildflyUsers(getClass(), WF_ROLES_FILE);
+            WildflyUtil.addUserAttributes(userGroupInfo, getClass(), USER_ATTRIBUTES_FILE);
         } catch (Exception e) {
             LOGGER.error("An error was produced during users file loading", e);
         }
@@ -78,6 +78,37 @@ public class WildflyUtil {
         return new UserGroupInfo(users, groups);
     }
 
+    public static void addUserAttributes(UserGroupInfo userGroupInfo, Class clazz, String resource) throws IOException {
+        try (InputStream input = clazz.getResourceAsStream(resource)) {
+            if (input != null) {
+                addUserAttributes(userGroupInfo, input);
+            }
+        }
+    }
+
+    /**
+     * Reads a properties file with the user attributes and adds them to the already loaded users. Every line has the
+     * format user.attribute=value, e.g. katy.skills=java,sql, and the value is kept as is. Attributes of users not
+     * present in the userGroupInfo are ignored.
+     * @param userGroupInfo the users to add the attributes to.
+     * @param input stream with the properties file.
+     * @throws IOException
+     */
+    public static void addUserAttributes(UserGroupInfo userGroupInfo, InputStream input) throws IOException {
+        final Map<String, User> userMap = userGroupInfo.getUsers().stream()
+                .collect(Collectors.toMap(User::getId, user -> user, (user1, user2) -> user1));
+        IOUtils.readLines(input, StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.startsWith("#") && line.indexOf('=') > 0)
+                .forEach(line -> {
+                    final String key = line.substring(0, line.indexOf('='));
+                    final int separator = key.lastIndexOf('.');
+                    final User user = separator > 0 ? userMap.get(key.substring(0, separator)) : null;
+                    if (user != null) {
+                        user.getAttributes().put(key.substring(separator + 1), line.substring(line.indexOf('=') + 1));
+                    }
+                });
+    }
+
     public static class UserGroupInfo {
 
         private List<User> users;